@@ -1,18 +1,76 @@
 package com.ai.demo.finance.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class AsynchronousSpringEventsConfig {
+
+    public static final String EVENT_TASK_EXECUTOR = "eventTaskExecutor";
+    public static final String OUTBOX_SCHEDULER = "outboxScheduler";
+
+    @Bean
+    public EventRejectedExecutionHandler eventRejectedExecutionHandler(
+            @Value("${events.executor.rejection-policy:CALLER_RUNS}") EventRejectedExecutionHandler.Policy policy,
+            @Value("${events.executor.block-timeout.ms:5000}") long blockTimeoutMs) {
+        return new EventRejectedExecutionHandler(policy, blockTimeoutMs);
+    }
+
+    /**
+     * Bounded pool used to dispatch application events. Once the queue is full the
+     * {@link EventRejectedExecutionHandler} applies backpressure to the publisher
+     * instead of spawning a new thread per event.
+     * @return the event task executor
+     */
+    @Bean(name = EVENT_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor eventTaskExecutor(@Value("${events.executor.core-pool-size:4}") int corePoolSize,
+            @Value("${events.executor.max-pool-size:8}") int maxPoolSize,
+            @Value("${events.executor.queue-capacity:1000}") int queueCapacity,
+            EventRejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("event-");
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        return executor;
+    }
+
+    /**
+     * Runs the {@code @Scheduled} methods other than the outbox dispatcher, like the IMF
+     * scan. Declared because the outbox scheduler would otherwise replace the one Spring
+     * Boot configures.
+     * @return the default scheduler
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Thread of its own for the outbox dispatcher, so that events keep being dispatched
+     * while a blocking scheduled task, like the IMF scan, runs.
+     * @return the outbox scheduler
+     */
+    @Bean(name = OUTBOX_SCHEDULER)
+    public ThreadPoolTaskScheduler outboxScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("outbox-");
+        return scheduler;
+    }
+
     @Bean(name = "applicationEventMulticaster")
-    public ApplicationEventMulticaster simpleApplicationEventMulticaster() {
+    public ApplicationEventMulticaster simpleApplicationEventMulticaster(ThreadPoolTaskExecutor eventTaskExecutor) {
         SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster();
 
-        eventMulticaster.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        eventMulticaster.setTaskExecutor(eventTaskExecutor);
         return eventMulticaster;
     }
 }
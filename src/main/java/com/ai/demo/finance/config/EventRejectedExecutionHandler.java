@@ -0,0 +1,82 @@
+package com.ai.demo.finance.config;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Backpressure policy for the event executor once its queue is full. Counts every
+ * saturation so the pool can be sized for a country-wide scan.
+ */
+@Log4j2
+public class EventRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    public enum Policy {
+        /**
+         * The publishing thread runs the listener itself.
+         */
+        CALLER_RUNS,
+        /**
+         * The publishing thread waits for free space in the queue up to the configured
+         * timeout, then the event is rejected.
+         */
+        BLOCK
+    }
+
+    @Getter
+    private final Policy policy;
+    private final long blockTimeoutMs;
+    private final AtomicLong saturatedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public EventRejectedExecutionHandler(Policy policy, long blockTimeoutMs) {
+        this.policy = policy;
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        saturatedCount.incrementAndGet();
+        if (executor.isShutdown()) {
+            reject("Event executor has been shut down");
+        }
+
+        if (policy == Policy.CALLER_RUNS) {
+            task.run();
+            return;
+        }
+
+        try {
+            if (!executor.getQueue().offer(task, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                reject("Event queue still full after " + blockTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject("Interrupted while waiting for space in the event queue");
+        }
+    }
+
+    /**
+     * @return how many times the executor was saturated, whatever the outcome
+     */
+    public long getSaturatedCount() {
+        return saturatedCount.get();
+    }
+
+    /**
+     * @return how many events were dropped because they could not be queued
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void reject(String message) {
+        rejectedCount.incrementAndGet();
+        log.warn(message);
+        throw new RejectedExecutionException(message);
+    }
+}
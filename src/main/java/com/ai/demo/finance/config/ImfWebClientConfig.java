@@ -0,0 +1,88 @@
+package com.ai.demo.finance.config;
+
+import com.ai.demo.finance.service.ImfClientStats;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class ImfWebClientConfig {
+
+    /**
+     * Kept-alive connections to the IMF, reused across scans until idle for
+     * {@code imf.pool.max-idle.ms}. The pool publishes its total, active (leased), idle
+     * and pending connections as the {@code reactor.netty.connection.provider.*} gauges
+     * tagged {@code name=imf}.
+     * @return the connection pool of the IMF client
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider imfConnectionProvider(@Value("${imf.pool.max-connections:16}") int maxConnections,
+            @Value("${imf.pool.max-idle.ms:30000}") long maxIdleMs,
+            @Value("${imf.timeout.ms:5000}") int timeout) {
+        return ConnectionProvider.builder("imf")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .pendingAcquireTimeout(Duration.ofMillis(timeout))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Asks for gzip bodies ({@code Accept-Encoding: gzip}) and counts the connections
+     * opened and the bytes of every request in the {@link ImfClientStats}.
+     * @return the IMF client
+     */
+    @Bean
+    public WebClient imfWebClient(WebClient.Builder builder, ConnectionProvider imfConnectionProvider, ImfClientStats imfClientStats,
+            @Value("${ifs.dataservice.base.url:http://dataservices.imf.org/REST/SDMX_JSON.svc/CompactData/IFS}") String ifsBaseUrl,
+            @Value("${imf.timeout.ms:5000}") int timeout) {
+        HttpClient httpClient = HttpClient.create(imfConnectionProvider)
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeout)
+                .responseTimeout(Duration.ofMillis(timeout))
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    imfClientStats.recordConnection();
+                    channel.pipeline().addFirst("imf.traffic", new TrafficCountingHandler(imfClientStats));
+                });
+        return builder.baseUrl(ifsBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private static class TrafficCountingHandler extends ChannelDuplexHandler {
+
+        private final ImfClientStats imfClientStats;
+
+        TrafficCountingHandler(ImfClientStats imfClientStats) {
+            this.imfClientStats = imfClientStats;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf byteBuf) {
+                imfClientStats.recordBytesReceived(byteBuf.readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof ByteBuf byteBuf) {
+                imfClientStats.recordBytesSent(byteBuf.readableBytes());
+            }
+            ctx.write(msg, promise);
+        }
+    }
+}
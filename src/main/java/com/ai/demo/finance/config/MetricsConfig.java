@@ -0,0 +1,115 @@
+package com.ai.demo.finance.config;
+
+import com.ai.demo.finance.event.account.AccountNetAmountCoalescer;
+import com.ai.demo.finance.event.outbox.OutboxDispatcher;
+import com.ai.demo.finance.service.AccountHistoryAppender;
+import com.ai.demo.finance.service.AccountUpdateExecutor;
+import com.ai.demo.finance.service.ImfClientStats;
+import com.ai.demo.finance.service.InflationRateNearCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the counters kept by the components as meters, scraped with the rest on
+ * {@code /actuator/prometheus}. The queue of the event executor is bound by Spring Boot
+ * as the {@code executor.*} meters tagged {@code name=eventTaskExecutor}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Times the methods of the classes annotated with
+     * {@link io.micrometer.core.annotation.Timed}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder inflationRateNearCacheMetrics(InflationRateNearCache nearCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", nearCache, InflationRateNearCache::getHitCount)
+                    .tags("cache", "inflation-rate", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", nearCache, InflationRateNearCache::getMissCount)
+                    .tags("cache", "inflation-rate", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", nearCache, InflationRateNearCache::getInvalidationCount)
+                    .tag("cache", "inflation-rate").register(registry);
+            Gauge.builder("cache.size", nearCache, InflationRateNearCache::getSize)
+                    .tag("cache", "inflation-rate").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder imfClientMetrics(ImfClientStats imfClientStats) {
+        return registry -> {
+            FunctionCounter.builder("imf.client.connections", imfClientStats, ImfClientStats::getConnectionCount)
+                    .description("Connections opened").register(registry);
+            FunctionCounter.builder("imf.client.not.modified", imfClientStats, ImfClientStats::getNotModifiedCount)
+                    .description("Responses served from the local copy after a 304").register(registry);
+            FunctionCounter.builder("imf.client.bytes", imfClientStats, ImfClientStats::getBytesReceived)
+                    .baseUnit("bytes").tag("direction", "received").register(registry);
+            FunctionCounter.builder("imf.client.bytes", imfClientStats, ImfClientStats::getBytesSent)
+                    .baseUnit("bytes").tag("direction", "sent").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder eventPipelineMetrics(AccountNetAmountCoalescer coalescer, OutboxDispatcher outboxDispatcher,
+            EventRejectedExecutionHandler rejectedExecutionHandler) {
+        return registry -> {
+            FunctionCounter.builder("finance.events.coalescer.flushes", coalescer, AccountNetAmountCoalescer::getFlushCount)
+                    .register(registry);
+            FunctionCounter.builder("finance.events.coalescer.absorbed", coalescer, AccountNetAmountCoalescer::getAbsorbedCount)
+                    .description("Events merged into a recalculation already pending").register(registry);
+            FunctionCounter.builder("finance.events.coalescer.dropped", coalescer, AccountNetAmountCoalescer::getDroppedCount)
+                    .description("Recalculations dropped because their user was not found").register(registry);
+            Gauge.builder("finance.events.coalescer.running", coalescer, AccountNetAmountCoalescer::getRunningRecalculations)
+                    .register(registry);
+            FunctionCounter.builder("finance.outbox.dispatched", outboxDispatcher, OutboxDispatcher::getDispatchedCount)
+                    .register(registry);
+            FunctionCounter.builder("finance.outbox.failed", outboxDispatcher, OutboxDispatcher::getFailedCount)
+                    .register(registry);
+            FunctionCounter.builder("finance.outbox.parked", outboxDispatcher, OutboxDispatcher::getParkedCount)
+                    .description("Events no longer dispatched after their last failed attempt").register(registry);
+            Gauge.builder("finance.outbox.pending", outboxDispatcher, OutboxDispatcher::getPendingCount)
+                    .register(registry);
+            Gauge.builder("finance.outbox.lag", outboxDispatcher, OutboxDispatcher::getLagMs)
+                    .baseUnit("milliseconds").description("Age of the oldest event not dispatched yet").register(registry);
+            FunctionCounter.builder("executor.saturated", rejectedExecutionHandler, EventRejectedExecutionHandler::getSaturatedCount)
+                    .tag("name", AsynchronousSpringEventsConfig.EVENT_TASK_EXECUTOR).register(registry);
+            FunctionCounter.builder("executor.rejected", rejectedExecutionHandler, EventRejectedExecutionHandler::getRejectedCount)
+                    .tag("name", AsynchronousSpringEventsConfig.EVENT_TASK_EXECUTOR).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder accountUpdateMetrics(AccountUpdateExecutor accountUpdateExecutor) {
+        return registry -> {
+            FunctionCounter.builder("finance.accounts.update.conflicts", accountUpdateExecutor, AccountUpdateExecutor::getConflictCount)
+                    .description("Account updates retried after an optimistic lock conflict").register(registry);
+            FunctionCounter.builder("finance.accounts.update.exhausted", accountUpdateExecutor, AccountUpdateExecutor::getExhaustedCount)
+                    .description("Account updates given up after every attempt conflicted").register(registry);
+        };
+    }
+
+    /**
+     * The latency of the flushes is the {@value AccountHistoryAppender#FLUSH_TIMER} timer.
+     */
+    @Bean
+    public MeterBinder accountHistoryMetrics(AccountHistoryAppender historyAppender) {
+        return registry -> {
+            Gauge.builder("finance.accounts.history.buffered", historyAppender, AccountHistoryAppender::getBufferedCount)
+                    .description("History rows appended by the open transactions and not inserted yet").register(registry);
+            FunctionCounter.builder("finance.accounts.history.flushed", historyAppender, AccountHistoryAppender::getFlushedCount)
+                    .register(registry);
+            FunctionCounter.builder("finance.accounts.history.id.blocks", historyAppender, AccountHistoryAppender::getIdBlockCount)
+                    .description("Blocks of ids taken from the sequence").register(registry);
+        };
+    }
+}
@@ -1,19 +1,36 @@
 package com.ai.demo.finance.config;
 
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.model.cache.serializer.CpiSeriesRedisSerializer;
+import com.ai.demo.finance.model.cache.serializer.InflationRateRedisSerializer;
+import com.ai.demo.finance.model.cache.serializer.RetirementGoalRedisSerializer;
 import com.ai.demo.finance.model.repository.cache.RetirementGoalRepository;
+import com.ai.demo.finance.service.CpiIndexStore;
+import com.ai.demo.finance.service.InflationRateNearCache;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 @Configuration
 @EnableRedisRepositories(basePackageClasses = {RetirementGoalRepository.class})
 public class RedisConfig {
 
     @Bean
+    @Primary
     JedisConnectionFactory jedisConnectionFactory(@Value("${redis.host:localhost}") String host,
             @Value("${redis.port:6379}") int port) {
         RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration();
@@ -29,4 +46,76 @@ public class RedisConfig {
         return template;
     }
 
+    @Bean
+    public RedisTemplate<String, InflationRate> inflationRateRedisTemplate(JedisConnectionFactory jedisConnectionFactory,
+            @Value("${redis.codec.legacy-writes:false}") boolean legacyWrites) {
+        RedisTemplate<String, InflationRate> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory);
+        template.setValueSerializer(new InflationRateRedisSerializer(legacyWrites));
+        return template;
+    }
+
+    @Bean
+    public RedisTemplate<String, RetirementGoal> retirementGoalRedisTemplate(JedisConnectionFactory jedisConnectionFactory,
+            @Value("${redis.codec.legacy-writes:false}") boolean legacyWrites) {
+        RedisTemplate<String, RetirementGoal> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory);
+        template.setValueSerializer(new RetirementGoalRedisSerializer(legacyWrites));
+        return template;
+    }
+
+    @Bean
+    public RedisTemplate<String, CpiSeries> cpiSeriesRedisTemplate(JedisConnectionFactory jedisConnectionFactory) {
+        RedisTemplate<String, CpiSeries> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory);
+        template.setValueSerializer(new CpiSeriesRedisSerializer());
+        return template;
+    }
+
+    /**
+     * Lettuce multiplexes every command over one connection, so the reactive templates
+     * built on it do not hold a thread or a pooled connection while waiting on Redis.
+     * It connects lazily, on the first command. Only created with
+     * {@code redis.retirement-goal.reactive-reads}, the one user of the reactive templates.
+     * @return the connection factory of the reactive templates
+     */
+    @Bean
+    @ConditionalOnProperty(name = "redis.retirement-goal.reactive-reads", havingValue = "true")
+    LettuceConnectionFactory reactiveRedisConnectionFactory(@Value("${redis.host:localhost}") String host,
+            @Value("${redis.port:6379}") int port) {
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+    }
+
+    /**
+     * Keys are JDK serialized like the ones written by {@link #retirementGoalRedisTemplate}.
+     * @return the template of the non-blocking retirement goal reads
+     */
+    @Bean
+    @ConditionalOnProperty(name = "redis.retirement-goal.reactive-reads", havingValue = "true")
+    public ReactiveRedisTemplate<String, RetirementGoal> reactiveRetirementGoalRedisTemplate(
+            LettuceConnectionFactory reactiveRedisConnectionFactory,
+            @Value("${redis.codec.legacy-writes:false}") boolean legacyWrites) {
+        RedisSerializationContext<String, RetirementGoal> serializationContext = RedisSerializationContext
+                .<String, RetirementGoal>newSerializationContext(new JdkSerializationRedisSerializer())
+                .value(new RetirementGoalRedisSerializer(legacyWrites))
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    /**
+     * Subscribes the near caches and the CPI index to their invalidation channels. Subscribing needs Redis
+     * to be reachable on startup.
+     * @return the listener container
+     */
+    @Bean
+    @ConditionalOnProperty(name = "redis.listener.enabled", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(JedisConnectionFactory jedisConnectionFactory,
+            InflationRateNearCache inflationRateNearCache, CpiIndexStore cpiIndexStore) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(jedisConnectionFactory);
+        container.addMessageListener(inflationRateNearCache, new ChannelTopic(InflationRateNearCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(cpiIndexStore, new ChannelTopic(CpiIndexStore.INVALIDATION_CHANNEL));
+        return container;
+    }
+
 }
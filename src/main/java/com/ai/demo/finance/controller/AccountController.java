@@ -3,13 +3,24 @@ package com.ai.demo.finance.controller;
 import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
 import static com.ai.demo.finance.controller.ApiVersion.API_V1;
 
+import com.ai.demo.finance.dto.AccountBalanceDTO;
 import com.ai.demo.finance.dto.AccountDTO;
 import com.ai.demo.finance.dto.BalanceDTO;
+import com.ai.demo.finance.dto.BalanceHistoryDTO;
+import com.ai.demo.finance.dto.DepositDTO;
+import com.ai.demo.finance.dto.DepositsResultDTO;
+import com.ai.demo.finance.model.enums.BalanceGranularity;
+import com.ai.demo.finance.service.AccountBalanceHistoryService;
+import com.ai.demo.finance.service.AccountDepositBatchService;
 import com.ai.demo.finance.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,6 +31,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -31,6 +43,8 @@ public class AccountController {
     public static final String ENDPOINT = "/account";
 
     private final AccountService accountService;
+    private final AccountDepositBatchService accountDepositBatchService;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
 
     @PostMapping(value = ENDPOINT, produces = {MediaType.APPLICATION_JSON_VALUE})
     @Operation(summary = "Create a new account")
@@ -61,6 +75,31 @@ public class AccountController {
         return ResponseEntity.ok(updatedAccount);
     }
 
+    @PostMapping(value = ENDPOINT + "/deposits", produces = {MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Deposit into several accounts at once, reporting the outcome of each deposit")
+    public ResponseEntity<DepositsResultDTO> deposits(@RequestBody List<DepositDTO> deposits) {
+        DepositsResultDTO result = accountDepositBatchService.deposit(deposits);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = ENDPOINT + "/{id}/balance-history", produces = {MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Get the opening and closing balances of an account per day, week or month")
+    public ResponseEntity<BalanceHistoryDTO> getBalanceHistory(@PathVariable Long id,
+            @RequestParam(defaultValue = "DAY") BalanceGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime to) {
+        BalanceHistoryDTO history = accountBalanceHistoryService.balanceHistory(id, granularity, from, to);
+        return ResponseEntity.ok(history);
+    }
+
+    @GetMapping(value = ENDPOINT + "/{id}/balance", produces = {MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Get the balance of an account at an instant")
+    public ResponseEntity<AccountBalanceDTO> getBalance(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime at) {
+        AccountBalanceDTO balance = accountBalanceHistoryService.balanceAt(id, at);
+        return ResponseEntity.ok(balance);
+    }
+
     @DeleteMapping(value = ENDPOINT + "/{id}")
     @Operation(summary = "Delete an account by ID")
     public ResponseEntity<Void> deleteAccount(@PathVariable Long id) {
@@ -0,0 +1,39 @@
+package com.ai.demo.finance.controller;
+
+import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
+import static com.ai.demo.finance.controller.ApiVersion.API_V1;
+import static com.ai.demo.finance.controller.RetirementGoalController.ENDPOINT;
+
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.service.RetirementGoalService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the goal of a single user with {@code redis.retirement-goal.reactive-reads}:
+ * the request thread is released while Redis answers.
+ */
+@RestController
+@RequestMapping(headers = {ACCEPT_VERSION + "=" + API_V1})
+@AllArgsConstructor
+@ConditionalOnProperty(name = "redis.retirement-goal.reactive-reads", havingValue = "true")
+@Tag(name = "RetirementGoal", description = "APIs related to retirement goal")
+public class ReactiveRetirementGoalReadController {
+    private final RetirementGoalService retirementGoalService;
+
+    @GetMapping(value = ENDPOINT + "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Get user's retirement goal by ID")
+    public Mono<ResponseEntity<RetirementGoal>> getGoal(@PathVariable Long id) {
+        return retirementGoalService.findRetirementGoal(id).map(ResponseEntity::ok);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.ai.demo.finance.controller;
+
+import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
+import static com.ai.demo.finance.controller.ApiVersion.API_V1;
+import static com.ai.demo.finance.controller.RetirementGoalController.ENDPOINT;
+
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.service.RetirementGoalService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reads the goal of a single user blocking the request thread on Redis, unless
+ * {@code redis.retirement-goal.reactive-reads} replaces it with
+ * {@link ReactiveRetirementGoalReadController}.
+ */
+@RestController
+@RequestMapping(headers = {ACCEPT_VERSION + "=" + API_V1})
+@AllArgsConstructor
+@ConditionalOnProperty(name = "redis.retirement-goal.reactive-reads", havingValue = "false", matchIfMissing = true)
+@Tag(name = "RetirementGoal", description = "APIs related to retirement goal")
+public class RetirementGoalReadController {
+    private final RetirementGoalService retirementGoalService;
+
+    @GetMapping(value = ENDPOINT + "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Get user's retirement goal by ID")
+    public ResponseEntity<RetirementGoal> getGoal(@PathVariable Long id) {
+        return ResponseEntity.ok(retirementGoalService.getRetirementGoal(id));
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.ai.demo.finance.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record AccountBalanceDTO(
+        @JsonProperty("accountId") Long accountId,
+        @JsonProperty("at") OffsetDateTime at,
+        @JsonProperty("balance") BigDecimal balance) {
+}
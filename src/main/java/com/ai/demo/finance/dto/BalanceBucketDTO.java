@@ -0,0 +1,14 @@
+package com.ai.demo.finance.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * @param start start of the bucket, in UTC
+ */
+public record BalanceBucketDTO(
+        @JsonProperty("start") OffsetDateTime start,
+        @JsonProperty("openingBalance") BigDecimal openingBalance,
+        @JsonProperty("closingBalance") BigDecimal closingBalance) {
+}
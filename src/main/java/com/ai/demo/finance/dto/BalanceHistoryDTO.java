@@ -0,0 +1,19 @@
+package com.ai.demo.finance.dto;
+
+import com.ai.demo.finance.model.enums.BalanceGranularity;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * @param from start of the first bucket
+ * @param to end of the last bucket
+ * @param buckets from the oldest, one per bucket of the range
+ */
+public record BalanceHistoryDTO(
+        @JsonProperty("accountId") Long accountId,
+        @JsonProperty("granularity") BalanceGranularity granularity,
+        @JsonProperty("from") OffsetDateTime from,
+        @JsonProperty("to") OffsetDateTime to,
+        @JsonProperty("buckets") List<BalanceBucketDTO> buckets) {
+}
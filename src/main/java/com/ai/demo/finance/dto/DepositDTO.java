@@ -0,0 +1,9 @@
+package com.ai.demo.finance.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+
+public record DepositDTO(
+        @JsonProperty("accountId") Long accountId,
+        @JsonProperty("amount") BigDecimal amount) {
+}
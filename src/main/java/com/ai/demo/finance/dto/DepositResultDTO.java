@@ -0,0 +1,19 @@
+package com.ai.demo.finance.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one deposit of a batch: the balance after it, or why it was not applied.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DepositResultDTO(
+        @JsonProperty("accountId") Long accountId,
+        @JsonProperty("balance") BigDecimal balance,
+        @JsonProperty("error") String error) {
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ai.demo.finance.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * @param results one per deposit, in the order they were sent
+ */
+public record DepositsResultDTO(
+        @JsonProperty("succeeded") int succeeded,
+        @JsonProperty("failed") int failed,
+        @JsonProperty("results") List<DepositResultDTO> results) {
+}
@@ -0,0 +1,10 @@
+package com.ai.demo.finance.dto;
+
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public record RetirementGoalsDTO(
+        @JsonProperty("goals") List<RetirementGoal> goals,
+        @JsonProperty("missing_user_ids") List<Long> missingUserIds) {
+}
@@ -0,0 +1,35 @@
+package com.ai.demo.finance.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Count and handling latency of the application events, as the {@value #EVENT_TIMER}
+ * histogram tagged by event type and {@link EventSource}.
+ */
+@Component
+public class EventMetrics {
+
+    public static final String EVENT_TIMER = "finance.events";
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EventMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(Object event, EventSource source, Runnable handler) {
+        String eventType = event.getClass().getSimpleName();
+        String sourceName = source == null ? "NONE" : source.name();
+        timers.computeIfAbsent(eventType + '|' + sourceName, key -> Timer.builder(EVENT_TIMER)
+                        .description("Handling of the application events")
+                        .tag("event", eventType)
+                        .tag("source", sourceName)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(handler);
+    }
+}
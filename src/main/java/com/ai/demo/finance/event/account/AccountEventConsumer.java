@@ -1,32 +1,28 @@
 package com.ai.demo.finance.event.account;
 
+import com.ai.demo.finance.event.EventMetrics;
 import com.ai.demo.finance.service.AccountService;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Set-based recalculations raised by a scan. The per-user recalculations go through the
+ * outbox, see {@link AccountNetAmountCoalescer}.
+ */
 @Service
 @AllArgsConstructor
 @Log4j2
 public class AccountEventConsumer {
 
     private final AccountService accountService;
+    private final EventMetrics eventMetrics;
 
-    @TransactionalEventListener(condition = "#event.source != T(com.ai.demo.finance.event.EventSource).SCAN")
-    public void recalculateNetAmountInsideTransaction(AccountNetAmountPerUserEvent event) {
-        processEvent(event);
+    @EventListener
+    public void recalculateNetAmountInBulk(AccountNetAmountBatchEvent event) {
+        log.info("AccountEventConsumer: {} users, source {}", event.userIds().size(), event.source());
+        eventMetrics.record(event, event.source(),
+                () -> accountService.recalculateNetAmountPerUsers(event.userIds(), event.inflationRate()));
     }
-
-    @EventListener(condition = "#event.source == T(com.ai.demo.finance.event.EventSource).SCAN")
-    public void recalculateNetAmountOutsideTransaction(AccountNetAmountPerUserEvent event) {
-        processEvent(event);
-    }
-
-    private void processEvent(AccountNetAmountPerUserEvent event) {
-        log.info("AccountEventConsumer: {}", event);
-        accountService.recalculateNetAmountPerUser(event.userId());
-    }
-
 }
@@ -0,0 +1,8 @@
+package com.ai.demo.finance.event.account;
+
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.model.cache.InflationRate;
+import java.util.List;
+
+public record AccountNetAmountBatchEvent(List<Long> userIds, InflationRate inflationRate, EventSource source) {
+}
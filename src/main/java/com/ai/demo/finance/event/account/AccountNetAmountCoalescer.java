@@ -0,0 +1,126 @@
+package com.ai.demo.finance.event.account;
+
+import static com.ai.demo.finance.config.AsynchronousSpringEventsConfig.EVENT_TASK_EXECUTOR;
+
+import com.ai.demo.finance.event.EventMetrics;
+import com.ai.demo.finance.exception.NotFoundResourceException;
+import com.ai.demo.finance.service.AccountService;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses the {@link AccountNetAmountPerUserEvent}s of a batch read from the outbox
+ * into a single recalculation per user. The outbox holds every event for
+ * {@code events.account.coalescing-window.ms} and batches it with the later events of
+ * its user, so the events of a user within that window make one recalculation. The recalculations run in parallel on the event
+ * executor and {@link #recalculate(Collection)} returns once they have all finished, so
+ * the outbox only forgets an event once its recalculation is done. The events of a
+ * user that no longer exists are dropped rather than retried.
+ */
+@Component
+@Log4j2
+public class AccountNetAmountCoalescer {
+
+    private final AccountService accountService;
+    private final Executor executor;
+    private final EventMetrics eventMetrics;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong absorbedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicInteger runningCount = new AtomicInteger();
+
+    public AccountNetAmountCoalescer(AccountService accountService, @Qualifier(EVENT_TASK_EXECUTOR) Executor executor,
+            EventMetrics eventMetrics) {
+        this.accountService = accountService;
+        this.executor = executor;
+        this.eventMetrics = eventMetrics;
+    }
+
+    /**
+     * @return the users whose recalculation failed
+     */
+    public Set<Long> recalculate(Collection<AccountNetAmountPerUserEvent> events) {
+        Map<Long, AccountNetAmountPerUserEvent> firstEventPerUser = new LinkedHashMap<>();
+        events.forEach(event -> firstEventPerUser.putIfAbsent(event.userId(), event));
+        absorbedCount.addAndGet(events.size());
+
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> recalculations = firstEventPerUser.values().stream()
+                .map(event -> submit(() -> {
+                    if (!recalculate(event)) {
+                        failed.add(event.userId());
+                    }
+                }))
+                .toList();
+        CompletableFuture.allOf(recalculations.toArray(CompletableFuture[]::new)).join();
+        return failed;
+    }
+
+    /**
+     * @return number of recalculations triggered so far
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return number of events absorbed by those recalculations
+     */
+    public long getAbsorbedCount() {
+        return absorbedCount.get();
+    }
+
+    /**
+     * @return number of recalculations dropped because their user was not found
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of recalculations running
+     */
+    public int getRunningRecalculations() {
+        return runningCount.get();
+    }
+
+    private CompletableFuture<Void> submit(Runnable recalculation) {
+        try {
+            return CompletableFuture.runAsync(recalculation, executor);
+        } catch (RejectedExecutionException e) {
+            recalculation.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private boolean recalculate(AccountNetAmountPerUserEvent event) {
+        flushCount.incrementAndGet();
+        runningCount.incrementAndGet();
+        try {
+            eventMetrics.record(event, event.source(), () -> accountService.recalculateNetAmountPerUser(event.userId()));
+            log.debug("Net amount recalculated for user {}", event.userId());
+            return true;
+        } catch (NotFoundResourceException e) {
+            log.warn("Net amount recalculation dropped for user {}: {}", event.userId(), e.getMessage());
+            droppedCount.incrementAndGet();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Net amount recalculation failed for user {}", event.userId(), e);
+            return false;
+        } finally {
+            runningCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ai.demo.finance.event.outbox;
+
+import static com.ai.demo.finance.config.AsynchronousSpringEventsConfig.OUTBOX_SCHEDULER;
+
+import com.ai.demo.finance.event.account.AccountNetAmountCoalescer;
+import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
+import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
+import com.ai.demo.finance.event.retirement.RetirementGoalEventConsumer;
+import com.ai.demo.finance.model.OutboxEvent;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import com.ai.demo.finance.model.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the outbox in batches. A batch is first claimed, so that no other instance
+ * dispatches it, then handed to its consumers, which run synchronously. The batch takes
+ * along the events of the same users and type that are not due yet, so that the
+ * consumers handle them once instead of again when they are due. Each row is
+ * deleted once its consumer has finished, and postponed with an exponential backoff
+ * when it failed, until it has failed {@code outbox.dispatcher.max-attempts} times and
+ * is parked. The claim of an instance that stops mid-batch expires after
+ * {@code outbox.dispatcher.claim.ms}, and its rows are dispatched again.
+ * <p>
+ * Runs on a scheduler of its own. The pending count and lag are refreshed after a run
+ * that dispatched events, and otherwise every {@code outbox.dispatcher.lag-refresh.ms}.
+ */
+@Component
+@Log4j2
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final AccountNetAmountCoalescer accountNetAmountCoalescer;
+    private final RetirementGoalEventConsumer retirementGoalEventConsumer;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final Duration claimDuration;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final long lagRefreshNanos;
+    private long lagRefreshedAt;
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong parkedCount = new AtomicLong();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, AccountNetAmountCoalescer accountNetAmountCoalescer,
+            RetirementGoalEventConsumer retirementGoalEventConsumer, PlatformTransactionManager transactionManager,
+            @Value("${outbox.dispatcher.batch-size:500}") int batchSize,
+            @Value("${outbox.dispatcher.claim.ms:300000}") long claimMs,
+            @Value("${outbox.dispatcher.backoff.initial.ms:1000}") long initialBackoffMs,
+            @Value("${outbox.dispatcher.backoff.max.ms:60000}") long maxBackoffMs,
+            @Value("${outbox.dispatcher.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.dispatcher.lag-refresh.ms:10000}") long lagRefreshMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.accountNetAmountCoalescer = accountNetAmountCoalescer;
+        this.retirementGoalEventConsumer = retirementGoalEventConsumer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.claimDuration = Duration.ofMillis(claimMs);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.lagRefreshNanos = Duration.ofMillis(lagRefreshMs).toNanos();
+        this.lagRefreshedAt = System.nanoTime() - lagRefreshNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.delay.ms:200}", scheduler = OUTBOX_SCHEDULER)
+    public void dispatch() {
+        int dispatched;
+        int total = 0;
+        do {
+            dispatched = dispatchBatch();
+            total += dispatched;
+        } while (dispatched >= batchSize);
+        if (total > 0 || System.nanoTime() - lagRefreshedAt >= lagRefreshNanos) {
+            refreshLag();
+        }
+    }
+
+    /**
+     * @return number of events dispatched so far
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * @return number of event dispatches that failed, postponed or parked
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of events parked after their last failed attempt
+     */
+    public long getParkedCount() {
+        return parkedCount.get();
+    }
+
+    /**
+     * @return number of events in the outbox after the last run, the parked ones aside
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return age in milliseconds of the oldest event in the outbox after the last run
+     */
+    public long getLagMs() {
+        return lagMs.get();
+    }
+
+    /**
+     * @return number of rows claimed and dispatched
+     */
+    int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(now,
+                Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime expiresAt = now.plus(claimDuration);
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<Long> claimed = new ArrayList<>(due.stream().map(OutboxEvent::getId).toList());
+            outboxEventRepository.claim(instanceId, expiresAt, now, claimed);
+            claimed.addAll(claimWaiting(due, expiresAt));
+            return outboxEventRepository.findByClaimedByAndIdIn(instanceId, claimed);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> failed = handle(batch);
+        Set<Long> failedIds = failed.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+        List<Long> done = batch.stream().map(OutboxEvent::getId).filter(id -> !failedIds.contains(id)).toList();
+        if (!done.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteClaimed(instanceId, done));
+            dispatchedCount.addAndGet(done.size());
+        }
+        if (!failed.isEmpty()) {
+            failedCount.addAndGet(failed.size());
+            postponeOrPark(failed);
+        }
+        return batch.size();
+    }
+
+    /**
+     * @return the ids of the rows not due yet claimed with the due ones
+     */
+    private List<Long> claimWaiting(List<OutboxEvent> due, LocalDateTime expiresAt) {
+        Map<OutboxEventType, Set<Long>> usersByType = due.stream().collect(Collectors.groupingBy(OutboxEvent::getType,
+                () -> new EnumMap<>(OutboxEventType.class), Collectors.mapping(OutboxEvent::getUserId, Collectors.toSet())));
+        List<Long> waiting = new ArrayList<>();
+        usersByType.forEach((type, userIds) -> waiting.addAll(outboxEventRepository.findWaitingIds(type, userIds)));
+        if (!waiting.isEmpty()) {
+            outboxEventRepository.claimWaiting(instanceId, expiresAt, waiting);
+        }
+        return waiting;
+    }
+
+    private void postponeOrPark(List<OutboxEvent> failed) {
+        Map<Boolean, Set<Long>> lastAttempt = failed.stream().collect(Collectors.partitioningBy(
+                outboxEvent -> outboxEvent.getAttempts() + 1 >= maxAttempts,
+                Collectors.mapping(OutboxEvent::getId, Collectors.toSet())));
+        Set<Long> retried = lastAttempt.get(false);
+        if (!retried.isEmpty()) {
+            int attempts = failed.stream().filter(outboxEvent -> retried.contains(outboxEvent.getId()))
+                    .mapToInt(OutboxEvent::getAttempts).max().orElse(0);
+            Duration backoff = backoff(attempts);
+            log.error("{} outbox events failed, retrying in {} ms", retried.size(), backoff.toMillis());
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.postpone(instanceId, LocalDateTime.now().plus(backoff), retried));
+        }
+        Set<Long> parked = lastAttempt.get(true);
+        if (!parked.isEmpty()) {
+            log.error("{} outbox events failed {} times, parked: {}", parked.size(), maxAttempts, parked);
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.park(instanceId, parked));
+            parkedCount.addAndGet(parked.size());
+        }
+    }
+
+    /**
+     * @return the rows whose consumer failed
+     */
+    private List<OutboxEvent> handle(List<OutboxEvent> batch) {
+        Map<OutboxEventType, List<OutboxEvent>> byType = batch.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getType, () -> new EnumMap<>(OutboxEventType.class), Collectors.toList()));
+        List<OutboxEvent> failed = new ArrayList<>();
+        byType.forEach((type, outboxEvents) -> {
+            Set<Long> failedUserIds;
+            try {
+                failedUserIds = switch (type) {
+                    case ACCOUNT_NET_AMOUNT -> accountNetAmountCoalescer.recalculate(outboxEvents.stream()
+                            .map(outboxEvent -> new AccountNetAmountPerUserEvent(outboxEvent.getUserId(), outboxEvent.getSource()))
+                            .toList());
+                    case RETIREMENT_GOAL -> retirementGoalEventConsumer.process(outboxEvents.stream()
+                            .map(outboxEvent -> new RetirementGoalEvent(outboxEvent.getUserId(), outboxEvent.getSource()))
+                            .toList());
+                };
+            } catch (RuntimeException e) {
+                log.error("Could not dispatch {} {} outbox events", outboxEvents.size(), type, e);
+                failedUserIds = outboxEvents.stream().map(OutboxEvent::getUserId).collect(Collectors.toSet());
+            }
+            Set<Long> failedUsers = failedUserIds;
+            outboxEvents.stream().filter(outboxEvent -> failedUsers.contains(outboxEvent.getUserId())).forEach(failed::add);
+        });
+        return failed;
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void refreshLag() {
+        lagRefreshedAt = System.nanoTime();
+        pendingCount.set(outboxEventRepository.countByParkedFalse());
+        lagMs.set(outboxEventRepository.findFirstByParkedFalseOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
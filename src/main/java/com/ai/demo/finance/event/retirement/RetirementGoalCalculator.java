@@ -2,25 +2,28 @@ package com.ai.demo.finance.event.retirement;
 
 import com.ai.demo.finance.exception.InvalidOperationException;
 import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.cache.RetirementGoal;
 import com.ai.demo.finance.model.repository.AccountRepository;
 import com.ai.demo.finance.service.RetirementGoalService;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
+@Log4j2
 class RetirementGoalCalculator {
 
-    private static final int DIVISION_SCALE = 4;
     private static final int PERCENTAGE_SCALE = 2;
     private final RetirementGoalService retirementGoalService;
     private final AccountRepository accountRepository;
@@ -35,48 +38,75 @@ class RetirementGoalCalculator {
      */
     public RetirementGoal calculateRetirementGoal(@NotNull RetirementDetail retirementDetail) {
         List<Account> accounts = accountRepository.findAllByUserId(retirementDetail.getUserId());
+        RetirementGoal retirementGoal = calculateRetirementGoal(retirementDetail, accounts);
+        retirementGoalService.saveRetirementGoal(retirementGoal);
+
+        return retirementGoal;
+    }
+
+    /**
+     * Batch variant of {@link #calculateRetirementGoal(RetirementDetail)}: the accounts
+     * of every user are loaded with one query and the goals are saved in one Redis
+     * pipeline. Users whose goal cannot be calculated are skipped.
+     * @param retirementDetails the retirement details of the users
+     * @return the goals calculated and saved
+     */
+    public List<RetirementGoal> calculateRetirementGoals(@NotNull List<RetirementDetail> retirementDetails) {
+        if (retirementDetails.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> userIds = retirementDetails.stream().map(RetirementDetail::getUserId).toList();
+        Map<Long, List<Account>> accountsByUserId = accountRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(Account::getUserId));
+
+        List<RetirementGoal> retirementGoals = new ArrayList<>(retirementDetails.size());
+        for (RetirementDetail retirementDetail : retirementDetails) {
+            try {
+                retirementGoals.add(calculateRetirementGoal(retirementDetail,
+                        accountsByUserId.get(retirementDetail.getUserId())));
+            } catch (InvalidOperationException | IllegalArgumentException | ArithmeticException e) {
+                log.warn("Retirement goal not calculated for user {}: {}", retirementDetail.getUserId(), e.getMessage());
+            }
+        }
+        retirementGoalService.saveRetirementGoals(retirementGoals);
 
+        return retirementGoals;
+    }
+
+    static RetirementGoal calculateRetirementGoal(RetirementDetail retirementDetail, List<Account> accounts) {
         if (accounts == null || accounts.isEmpty()) {
             throw new InvalidOperationException("Insufficient retirement information to calculate goal.");
         }
 
         int retirementDurationInMonths = calculateRetirementDurationInMonths(retirementDetail);
 
-        BigDecimal totalSavingNeededToRetire = calculateTotalSavingsNeededToRetire(retirementDetail, retirementDurationInMonths);
-        BigDecimal totalSavingGross = calculateTotalNetSavings(accounts);
-        BigDecimal percentageToAchieveTheGoal = calculatePercentageFromAchievingRetirement(totalSavingGross, totalSavingNeededToRetire);
+        long totalSavingNeededToRetire = calculateTotalSavingsNeededToRetire(retirementDetail, retirementDurationInMonths);
+        long totalSavingNet = calculateTotalNetSavings(accounts);
+        long percentageToAchieveTheGoal = Money.percentage(totalSavingNet, totalSavingNeededToRetire);
 
-        RetirementGoal retirementGoal = new RetirementGoal(retirementDetail.getUserId(), percentageToAchieveTheGoal);
-        retirementGoalService.saveRetirementGoal(retirementGoal);
-
-        return retirementGoal;
+        return new RetirementGoal(retirementDetail.getUserId(), BigDecimal.valueOf(percentageToAchieveTheGoal, PERCENTAGE_SCALE));
     }
 
     /**
-     * Formula: totalSavingSoFar / totalSavingNeededToRetire * 100
-     * @param totalSavingSoFar
-     * @param totalSavingNeededToRetire
-     * @return percentage
+     * Sums in minor units, without allocating.
      */
-    private static BigDecimal calculatePercentageFromAchievingRetirement(BigDecimal totalSavingSoFar,
-            BigDecimal totalSavingNeededToRetire) {
-        return totalSavingSoFar.divide(totalSavingNeededToRetire, DIVISION_SCALE, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100)).setScale(PERCENTAGE_SCALE, RoundingMode.HALF_UP);
-    }
-
-    private static BigDecimal calculateTotalNetSavings(List<Account> accounts) {
-        return accounts.stream().map(Account::getAmountNet).filter(Objects::nonNull).reduce(BigDecimal::add)
-                .orElse(BigDecimal.ZERO);
+    private static long calculateTotalNetSavings(List<Account> accounts) {
+        long total = 0;
+        for (Account account : accounts) {
+            Money amountNet = account.getAmountNet();
+            if (amountNet != null) {
+                total = Money.add(total, amountNet.getMinorUnits());
+            }
+        }
+        return total;
     }
 
-    private static BigDecimal calculateTotalSavingsNeededToRetire(RetirementDetail retirementDetail, int retirementDurationInMonths) {
-        BigDecimal incomePerMonthDesired = retirementDetail.getIncomePerMonthDesired();
-
-        return incomePerMonthDesired
-                .multiply(BigDecimal.valueOf(retirementDurationInMonths));
+    private static long calculateTotalSavingsNeededToRetire(RetirementDetail retirementDetail, int retirementDurationInMonths) {
+        return Math.multiplyExact(retirementDetail.getIncomePerMonthDesired().getMinorUnits(), retirementDurationInMonths);
     }
 
-    private static int calculateRetirementDurationInMonths(RetirementDetail retirementDetail) {
+    static int calculateRetirementDurationInMonths(RetirementDetail retirementDetail) {
         LocalDate retirementDate = retirementDetail.getRetirementDate();
         LocalDate lifeExpectation = retirementDetail.getLifeExpectation();
 
@@ -1,28 +1,94 @@
 package com.ai.demo.finance.event.retirement;
 
+import static com.ai.demo.finance.config.AsynchronousSpringEventsConfig.EVENT_TASK_EXECUTOR;
+
+import com.ai.demo.finance.event.EventMetrics;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.repository.RetirementRepository;
-import lombok.AllArgsConstructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Processes the {@link RetirementGoalEvent}s of a batch read from the outbox in
+ * micro-batches of at most {@code events.retirement-goal.batch-size} distinct users,
+ * each read with one query. The micro-batches run in parallel on the event executor and
+ * {@link #process(Collection)} returns once they have all finished.
+ */
 @Component
-@AllArgsConstructor
 @Log4j2
 public class RetirementGoalEventConsumer {
 
     private final RetirementRepository retirementRepository;
     private final RetirementGoalCalculator retirementGoalCalculator;
+    private final Executor executor;
+    private final EventMetrics eventMetrics;
+    private final int batchSize;
+
+    public RetirementGoalEventConsumer(RetirementRepository retirementRepository,
+            RetirementGoalCalculator retirementGoalCalculator, @Qualifier(EVENT_TASK_EXECUTOR) Executor executor,
+            EventMetrics eventMetrics, @Value("${events.retirement-goal.batch-size:500}") int batchSize) {
+        this.retirementRepository = retirementRepository;
+        this.retirementGoalCalculator = retirementGoalCalculator;
+        this.executor = executor;
+        this.eventMetrics = eventMetrics;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * @return the users of the micro-batches that failed
+     */
+    public Set<Long> process(Collection<RetirementGoalEvent> events) {
+        Map<Long, RetirementGoalEvent> firstEventPerUser = new LinkedHashMap<>();
+        events.forEach(event -> firstEventPerUser.putIfAbsent(event.userId(), event));
+        List<RetirementGoalEvent> distinct = new ArrayList<>(firstEventPerUser.values());
 
-    @TransactionalEventListener(RetirementGoalEvent.class)
-    public void processEvent(RetirementGoalEvent event) {
-        log.debug("RetirementGoalEvent received: {}", event);
-        Long userId = event.userId();
-        retirementRepository.findByUserId(userId).ifPresentOrElse((RetirementDetail retirementDetail) -> {
-            retirementGoalCalculator.calculateRetirementGoal(retirementDetail);
-            log.info("Retirement goal calculated for user: {}", event.userId());
-        }, () -> log.warn("Retirement goal not found for user {}", event.userId()));
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchSize) {
+            List<RetirementGoalEvent> batch = distinct.subList(from, Math.min(from + batchSize, distinct.size()));
+            List<Long> userIds = batch.stream().map(RetirementGoalEvent::userId).toList();
+            batches.add(submit(() -> {
+                try {
+                    eventMetrics.record(batch.get(0), batch.get(0).source(), () -> processBatch(userIds));
+                } catch (RuntimeException e) {
+                    log.error("Retirement goal batch of {} users failed", userIds.size(), e);
+                    failed.addAll(userIds);
+                }
+            }));
+        }
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+        return failed;
+    }
+
+    void processBatch(List<Long> userIds) {
+        List<RetirementDetail> retirementDetails = retirementRepository.findAllByUserIdIn(userIds);
+        if (retirementDetails.size() < userIds.size()) {
+            log.warn("Retirement goal not found for {} of {} users", userIds.size() - retirementDetails.size(), userIds.size());
+        }
+
+        int calculated = retirementGoalCalculator.calculateRetirementGoals(retirementDetails).size();
+        log.info("Retirement goal calculated for {} users", calculated);
+    }
 
+    private CompletableFuture<Void> submit(Runnable batch) {
+        try {
+            return CompletableFuture.runAsync(batch, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Retirement goal batch rejected, processing it in the caller");
+            batch.run();
+            return CompletableFuture.completedFuture(null);
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.ai.demo.finance.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -22,6 +22,14 @@ public class GlobalExceptionHandler {
         return new ErrorDTO(ex.getClass().getCanonicalName(), ex.getMessage());
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ResponseBody
+    public ErrorDTO handleConcurrentUpdateException(ConcurrentUpdateException ex) {
+        log.warn(ex.getMessage());
+        return new ErrorDTO(ex.getClass().getCanonicalName(), ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ResponseBody
@@ -6,12 +6,15 @@ import java.time.LocalDateTime;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(imports = {LocalDateTime.class})
+@Mapper(imports = {LocalDateTime.class}, uses = MoneyMapper.class)
 public interface AccountMapper {
 
     AccountDTO toAccountDTO(Account account);
 
-    Account toAccount(AccountDTO accountDTO);
+    /**
+     * @param version the version of the account replaced, see {@link Account#getVersion()}
+     */
+    Account toAccount(AccountDTO accountDTO, long version);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "userId", source = "userId")
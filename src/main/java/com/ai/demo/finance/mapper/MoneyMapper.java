@@ -0,0 +1,20 @@
+package com.ai.demo.finance.mapper;
+
+import com.ai.demo.finance.model.Money;
+import java.math.BigDecimal;
+
+/**
+ * Conversions between the {@link Money} of the entities and the {@link BigDecimal} of
+ * the DTOs, used by the other mappers. The amounts of the DTOs come from clients, so
+ * they are not rounded, see {@link Money#ofExact(BigDecimal)}.
+ */
+public class MoneyMapper {
+
+    public BigDecimal toBigDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    public Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.ofExact(amount);
+    }
+}
@@ -5,7 +5,7 @@ import com.ai.demo.finance.model.RetirementDetail;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper
+@Mapper(uses = MoneyMapper.class)
 public interface RetirementDetailMapper {
 
     RetirementDetailDTO toRetirementDetailDTO(RetirementDetail retirementDetail);
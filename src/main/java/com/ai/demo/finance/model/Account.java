@@ -1,6 +1,7 @@
 package com.ai.demo.finance.model;
 
 import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.enums.AccountType;
 import jakarta.persistence.Column;
@@ -9,9 +10,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.time.YearMonth;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -31,9 +32,9 @@ public class Account {
     @Column(length = 100)
     private String description;
     @Column(name = "amount_gross")
-    private BigDecimal amount;
+    private Money amount;
     @Column(name = "amount_net")
-    private BigDecimal amountNet;
+    private Money amountNet;
     @Column(nullable = false)
     private AccountType type;
     @Column(nullable = false)
@@ -41,6 +42,20 @@ public class Account {
     private LocalDateTime date = LocalDateTime.now();
     @Column(nullable = false, updatable = false)
     private Long userId;
+    /**
+     * Every deposit divided by the purchasing power of its month: the net amount in any
+     * month is this times the purchasing power of that month. {@code null} until the
+     * account is first valued with a {@link CpiSeries}.
+     */
+    @Column(name = "amount_indexed")
+    private Money amountIndexed;
+    /**
+     * Incremented on every update, so that a deposit based on a stale balance fails
+     * instead of overwriting a concurrent one. Primitive, so that accounts are told new
+     * from their id alone.
+     */
+    @Version
+    private long version;
 
     /**
      * Adds the specified deposit amount to the account balance.
@@ -49,21 +64,67 @@ public class Account {
      * @throws IllegalArgumentException if the deposit amount is null or less than
      *             or equal to zero
      */
-    public AccountHistory deposit(BigDecimal deposit) {
-        if (deposit == null || deposit.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new InvalidOperationException("Amount must be greater than zero");
-        }
+    public AccountHistory deposit(Money deposit) {
+        validateDeposit(deposit);
 
         AccountHistory history = new AccountHistory(this);
 
-        this.amount = Optional.ofNullable(this.amount)
-                .map(a -> a.add(deposit))
-                .orElse(deposit);
+        this.amount = amount == null ? deposit : amount.plus(deposit);
+
+        return history;
+    }
+
+    /**
+     * @throws InvalidOperationException if the deposit amount is null or less than or
+     *             equal to zero
+     */
+    public static void validateDeposit(Money deposit) {
+        if (deposit == null || !deposit.isPositive()) {
+            throw new InvalidOperationException("Amount must be greater than zero");
+        }
+    }
 
+    /**
+     * Same as {@link #deposit(Money)}, also indexing the deposit with the purchasing
+     * power of its month.
+     */
+    public AccountHistory deposit(Money deposit, CpiSeries cpiSeries, int monthOrdinal) {
+        validateDeposit(deposit);
+        indexBalance(cpiSeries);
+        AccountHistory history = deposit(deposit);
+        this.amountIndexed = Money.ofMinorUnits(Money.add(amountIndexed.getMinorUnits(),
+                Money.divide(deposit.getMinorUnits(), cpiSeries.purchasingPower(monthOrdinal))));
         return history;
     }
 
     public void calculateNetAmount(InflationRate inflationRate) {
-        this.amountNet = inflationRate.calculateRateFromPercentage().multiply(amount);
+        calculateNetAmount(inflationRate.calculateRateFromPercentageInHundredths());
+    }
+
+    /**
+     * @param rateInHundredths the rate of {@link InflationRate#calculateRateFromPercentageInHundredths()},
+     *            computed once for every account of the country
+     */
+    public void calculateNetAmount(long rateInHundredths) {
+        this.amountNet = amount.times(rateInHundredths, Money.SCALE);
+    }
+
+    /**
+     * Values every deposit by the inflation since its month, in constant time. A balance
+     * not indexed yet is taken as deposited when the account was opened.
+     * @param monthOrdinal the month the net amount is valued at
+     */
+    public void calculateNetAmount(CpiSeries cpiSeries, int monthOrdinal) {
+        indexBalance(cpiSeries);
+        this.amountNet = amountIndexed.times(cpiSeries.purchasingPower(monthOrdinal));
+    }
+
+    private void indexBalance(CpiSeries cpiSeries) {
+        if (amountIndexed == null) {
+            int openingMonth = CpiSeries.monthOrdinal(YearMonth.from(date == null ? LocalDateTime.now() : date));
+            this.amountIndexed = amount == null
+                    ? Money.ZERO
+                    : Money.ofMinorUnits(Money.divide(amount.getMinorUnits(), cpiSeries.purchasingPower(openingMonth)));
+        }
     }
-}
\ No newline at end of file
+}
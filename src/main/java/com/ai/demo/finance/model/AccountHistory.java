@@ -3,27 +3,43 @@ package com.ai.demo.finance.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
-@Table(name = "account_history")
+@Table(name = "account_history", indexes = {@Index(columnList = "account_id, date, id", name = "IDX_ACCOUNT_DATE")})
 @Entity
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class AccountHistory {
+
+    public static final String ID_SEQUENCE = "account_history_seq";
+    /**
+     * Ids taken from {@link #ID_SEQUENCE} at once, its increment. Blocks start at the
+     * value of the sequence (pooled-lo), the same for Hibernate and
+     * {@link com.ai.demo.finance.service.AccountHistoryAppender}.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = ID_SEQUENCE)
+    @GenericGenerator(name = ID_SEQUENCE, type = SequenceStyleGenerator.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = ID_SEQUENCE),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + ID_ALLOCATION_SIZE),
+        @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")})
     private Long id;
-    private BigDecimal amount;
+    private Money amount;
     private ZonedDateTime date;
 
     @Column(nullable = false, updatable = false)
@@ -32,6 +48,6 @@ public class AccountHistory {
     public AccountHistory(Account account) {
         this.accountId = account.getId();
         this.amount = account.getAmount();
-        this.date = ZonedDateTime.now();
+        this.date = ZonedDateTime.now(ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,160 @@
+package com.ai.demo.finance.model;
+
+import com.ai.demo.finance.exception.InvalidOperationException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money held as a {@code long} of minor units, two decimal places. Every
+ * operation rounds half up, like the {@link BigDecimal} arithmetic it replaces, and
+ * throws {@link ArithmeticException} on overflow instead of wrapping around.
+ * <p>
+ * The static methods work on raw minor units so a calculation can be chained without
+ * allocating; the instance methods wrap them for the entities, stored by
+ * {@link MoneyConverter}.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+    private static final long HUNDREDTHS_OF_PERCENT = 10_000;
+    private static final double LONG_RANGE = 0x1p63;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L};
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * @throws ArithmeticException when the amount does not fit in a {@code long} of
+     *             minor units
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * For the amounts received from clients: where {@link #of(BigDecimal)} rounds the
+     * values calculated, a fraction of a minor unit is rejected instead of rounded away.
+     * @throws InvalidOperationException when the amount has more than {@link #SCALE} decimals
+     */
+    public static Money ofExact(BigDecimal amount) {
+        if (amount.stripTrailingZeros().scale() > SCALE) {
+            throw new InvalidOperationException("Amount must have at most " + SCALE + " decimals");
+        }
+        return of(amount);
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(add(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * @param factorUnscaled the unscaled value of the factor, 98 for 0.98 at scale 2
+     */
+    public Money times(long factorUnscaled, int factorScale) {
+        return ofMinorUnits(multiply(minorUnits, factorUnscaled, factorScale));
+    }
+
+    public Money times(double factor) {
+        return ofMinorUnits(multiply(minorUnits, factor));
+    }
+
+    public static long add(long minorUnits, long otherMinorUnits) {
+        return Math.addExact(minorUnits, otherMinorUnits);
+    }
+
+    public static long multiply(long minorUnits, long factorUnscaled, int factorScale) {
+        return divide(Math.multiplyExact(minorUnits, factorUnscaled), pow10(factorScale));
+    }
+
+    /**
+     * Multiplies in double precision: the result is exact to the minor unit below
+     * 2<sup>53</sup> minor units, ninety trillion in the major unit.
+     */
+    public static long multiply(long minorUnits, double factor) {
+        return round(minorUnits * factor);
+    }
+
+    public static long divide(long minorUnits, double divisor) {
+        return round(minorUnits / divisor);
+    }
+
+    /**
+     * @return {@code dividend / divisor} rounded half up
+     */
+    public static long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * @return the share of {@code whole} that {@code part} represents, in hundredths
+     *         of a percent: 2083 for 20.83%
+     */
+    public static long percentage(long part, long whole) {
+        return divide(Math.multiplyExact(part, HUNDREDTHS_OF_PERCENT), whole);
+    }
+
+    private static long round(double value) {
+        if (!(Math.abs(value) < LONG_RANGE)) {
+            throw new ArithmeticException("Money overflow: " + value);
+        }
+        double rounded = Math.floor(Math.abs(value) + 0.5);
+        return (long) (value < 0 ? -rounded : rounded);
+    }
+
+    private static long pow10(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Unsupported scale: " + scale);
+        }
+        return POWERS_OF_TEN[scale];
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Money money && minorUnits == money.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
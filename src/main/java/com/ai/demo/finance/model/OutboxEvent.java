@@ -0,0 +1,83 @@
+package com.ai.demo.finance.model;
+
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Domain event waiting to be dispatched. Written in the same transaction as the change
+ * that raised it and deleted once its consumer has finished, so pending work survives a
+ * restart. A dispatcher claims a row until {@code availableAt}; a row whose claim has
+ * expired, because its dispatcher stopped, is picked up again. A row whose consumer kept
+ * failing is parked: kept for inspection, but never dispatched again.
+ */
+@Table(name = "outbox_event", indexes = {@Index(columnList = "parked, available_at, id", name = "IDX_OUTBOX_AVAILABLE_AT")})
+@Entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OutboxEventType type;
+
+    @Column(nullable = false, updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EventSource source;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    private int attempts;
+
+    /**
+     * Dispatcher holding the row, null while nobody does.
+     */
+    private String claimedBy;
+
+    /**
+     * Set once {@code outbox.dispatcher.max-attempts} dispatches have failed.
+     */
+    private boolean parked;
+
+    public OutboxEvent(OutboxEventType type, Long userId, EventSource source) {
+        this(type, userId, source, Duration.ZERO);
+    }
+
+    /**
+     * @param window how long the event waits before it is dispatched, so that the
+     *            events raised meanwhile are dispatched with it
+     */
+    public OutboxEvent(OutboxEventType type, Long userId, EventSource source, Duration window) {
+        this.type = type;
+        this.userId = userId;
+        this.source = source;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = this.createdAt.plus(window);
+    }
+}
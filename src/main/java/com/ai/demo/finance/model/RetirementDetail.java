@@ -6,7 +6,6 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,7 +24,7 @@ public class RetirementDetail {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
     @Column(name = "income_per_month_desired")
-    private BigDecimal incomePerMonthDesired;
+    private Money incomePerMonthDesired;
     @Column(name = "life_expcetation")
     private LocalDate lifeExpectation;
     @Column(name = "retirement_date")
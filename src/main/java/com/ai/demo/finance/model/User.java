@@ -15,7 +15,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-@Table(name = "app_user", indexes = {@Index(columnList = "country", name = "IDX_COUNTRY")})
+@Table(name = "app_user", indexes = {@Index(columnList = "country, id", name = "IDX_COUNTRY")})
 @Entity
 @Getter
 @AllArgsConstructor
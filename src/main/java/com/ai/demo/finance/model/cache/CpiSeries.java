@@ -0,0 +1,156 @@
+package com.ai.demo.finance.model.cache;
+
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.time.YearMonth;
+import java.util.Arrays;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Consumer price index of a country and indicator, one value per month. Months are
+ * numbered by {@link #monthOrdinal(int, int)} and stored contiguously from
+ * {@link #getFirstMonth()}; months without an observation hold {@code NaN}. Instances
+ * are immutable, a new one is built by {@link #merge(int, double[])}.
+ * <p>
+ * The series also keeps the cumulative purchasing power of every month, so the real
+ * value of an amount held between two months is one division away, see
+ * {@link #purchasingPower(int)}.
+ */
+@Getter
+public final class CpiSeries {
+
+    private static final String PREFIX = "CPI";
+    private static final double INDEX_BASE = 100.0;
+    private final Country country;
+    private final Indicator indicator;
+    private final int firstMonth;
+    @Getter(AccessLevel.NONE)
+    private final double[] values;
+    private final int lastMonth;
+    @Getter(AccessLevel.NONE)
+    private final double[] purchasingPower;
+    @Getter(AccessLevel.NONE)
+    private final int firstObservedOffset;
+
+    /**
+     * @param values the index of every month from {@code firstMonth}, {@code NaN} when
+     *            unknown; not copied
+     */
+    public CpiSeries(Country country, Indicator indicator, int firstMonth, double[] values) {
+        this.country = country;
+        this.indicator = indicator;
+        this.firstMonth = firstMonth;
+        this.values = values;
+        this.lastMonth = lastObservedMonth(firstMonth, values);
+        this.purchasingPower = cumulativePurchasingPower(values);
+        this.firstObservedOffset = firstObservedOffset(purchasingPower);
+    }
+
+    public static int monthOrdinal(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    public static int monthOrdinal(YearMonth yearMonth) {
+        return monthOrdinal(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+
+    public static YearMonth yearMonth(int monthOrdinal) {
+        return YearMonth.of(Math.floorDiv(monthOrdinal, 12), Math.floorMod(monthOrdinal, 12) + 1);
+    }
+
+    public static String generateKey(Country country, Indicator indicator) {
+        return PREFIX + "|" + country.name() + "|" + indicator.name();
+    }
+
+    public String getKey() {
+        return generateKey(country, indicator);
+    }
+
+    /**
+     * @return the index of the month, {@code NaN} when unknown
+     */
+    public double valueAt(int monthOrdinal) {
+        int offset = monthOrdinal - firstMonth;
+        return offset < 0 || offset >= values.length ? Double.NaN : values[offset];
+    }
+
+    /**
+     * Purchasing power of the currency in a month relative to the base period of the
+     * index, the running product of {@code 1 / (1 + monthly inflation)}. Months without
+     * an observation carry the previous one forward, months before the first or after
+     * the last observation take the closest one. An amount held from month {@code a} to
+     * month {@code b} is worth {@code amount * purchasingPower(b) / purchasingPower(a)}.
+     * @return the purchasing power of the month, {@code NaN} when the series has no
+     *         observation at all
+     */
+    public double purchasingPower(int monthOrdinal) {
+        if (lastMonth < 0) {
+            return Double.NaN;
+        }
+        int offset = Math.min(monthOrdinal, lastMonth) - firstMonth;
+        return purchasingPower[Math.max(offset, firstObservedOffset)];
+    }
+
+    /**
+     * @return number of months covered, including the ones without an observation
+     */
+    public int length() {
+        return values.length;
+    }
+
+    /**
+     * @return a copy of the monthly values
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * @param otherFirstMonth the month of {@code otherValues[0]}
+     * @param otherValues monthly values, {@code NaN} for the months to keep as they are
+     * @return a series covering both, the observations of {@code otherValues} winning
+     */
+    public CpiSeries merge(int otherFirstMonth, double[] otherValues) {
+        int mergedFirst = Math.min(firstMonth, otherFirstMonth);
+        int mergedEnd = Math.max(firstMonth + values.length, otherFirstMonth + otherValues.length);
+        double[] merged = new double[mergedEnd - mergedFirst];
+        Arrays.fill(merged, Double.NaN);
+        System.arraycopy(values, 0, merged, firstMonth - mergedFirst, values.length);
+        for (int i = 0; i < otherValues.length; i++) {
+            if (!Double.isNaN(otherValues[i])) {
+                merged[otherFirstMonth - mergedFirst + i] = otherValues[i];
+            }
+        }
+        return new CpiSeries(country, indicator, mergedFirst, merged);
+    }
+
+    private static int firstObservedOffset(double[] purchasingPower) {
+        int offset = 0;
+        while (offset < purchasingPower.length && Double.isNaN(purchasingPower[offset])) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static double[] cumulativePurchasingPower(double[] values) {
+        double[] cumulative = new double[values.length];
+        double current = Double.NaN;
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                current = INDEX_BASE / values[i];
+            }
+            cumulative[i] = current;
+        }
+        return cumulative;
+    }
+
+    private static int lastObservedMonth(int firstMonth, double[] values) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (!Double.isNaN(values[i])) {
+                return firstMonth + i;
+            }
+        }
+        return -1;
+    }
+}
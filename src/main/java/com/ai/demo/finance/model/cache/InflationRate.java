@@ -31,4 +31,11 @@ public class InflationRate implements Serializable {
     public BigDecimal calculateRateFromPercentage() {
         return BigDecimal.ONE.subtract(this.getPercentageRate().divide(ONE_HUNDRED, SCALE, HALF_UP));
     }
+
+    /**
+     * @return {@link #calculateRateFromPercentage()} in hundredths: 99 for 0,99
+     */
+    public long calculateRateFromPercentageInHundredths() {
+        return calculateRateFromPercentage().unscaledValue().longValueExact();
+    }
 }
@@ -0,0 +1,158 @@
+package com.ai.demo.finance.model.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Versioned binary layout for cache values: one version byte followed by the fields
+ * of that version. Values written with JDK serialization, recognised by their stream
+ * magic, are still read, so a cache written by an older release stays readable. With
+ * {@code legacyWrites} the JDK format keeps being written, letting every instance learn
+ * to read the new layout before any of them writes it.
+ * @param <T> the cached type
+ */
+public abstract class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte JDK_STREAM_MAGIC_FIRST = (byte) 0xAC;
+    private static final byte JDK_STREAM_MAGIC_SECOND = (byte) 0xED;
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+    private final Class<T> type;
+    private final boolean legacyWrites;
+
+    protected CompactRedisSerializer(Class<T> type, boolean legacyWrites) {
+        this.type = type;
+        this.legacyWrites = legacyWrites;
+    }
+
+    /**
+     * @return the version written by {@link #writeFields(DataOutputStream, Object)}
+     */
+    protected abstract byte version();
+
+    protected abstract void writeFields(DataOutputStream out, T value) throws IOException;
+
+    /**
+     * @param in the fields, positioned after the version byte
+     * @param version the version the value was written with
+     * @return the value
+     */
+    protected abstract T readFields(DataInputStream in, byte version) throws IOException;
+
+    @Override
+    public byte[] serialize(T value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (legacyWrites) {
+            return jdkSerializer.serialize(value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(version());
+            writeFields(out, value);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize " + type.getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length > 1 && bytes[0] == JDK_STREAM_MAGIC_FIRST && bytes[1] == JDK_STREAM_MAGIC_SECOND) {
+            return type.cast(jdkSerializer.deserialize(bytes));
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version < 1 || version > version()) {
+                throw new SerializationException("Unsupported " + type.getSimpleName() + " version " + version);
+            }
+            return readFields(in, version);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize " + type.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return type;
+    }
+
+    /**
+     * Writes the scale and the two's complement unscaled value; a percentage such as
+     * 0.26 takes three bytes.
+     */
+    protected static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, -1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarInt(out, unscaled.length);
+        out.write(unscaled);
+        writeVarInt(out, value.scale());
+    }
+
+    protected static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), readVarInt(in));
+    }
+
+    protected static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    protected static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    protected static <E extends Enum<E>> void writeEnum(DataOutputStream out, E value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    protected static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> enumType) throws IOException {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(enumType, name);
+    }
+
+    protected static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int zigZag = (value << 1) ^ (value >> 31);
+        while ((zigZag & ~0x7F) != 0) {
+            out.writeByte((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        out.writeByte(zigZag);
+    }
+
+    protected static int readVarInt(DataInputStream in) throws IOException {
+        int zigZag = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = in.readByte();
+            zigZag |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ai.demo.finance.model.cache.serializer;
+
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Version 1: country, indicator, first month, number of months and the raw value of
+ * every month. Fifty years of monthly history take under 5 KB.
+ */
+public class CpiSeriesRedisSerializer extends CompactRedisSerializer<CpiSeries> {
+
+    private static final byte VERSION = 1;
+
+    public CpiSeriesRedisSerializer() {
+        super(CpiSeries.class, false);
+    }
+
+    @Override
+    protected byte version() {
+        return VERSION;
+    }
+
+    @Override
+    protected void writeFields(DataOutputStream out, CpiSeries value) throws IOException {
+        writeEnum(out, value.getCountry());
+        writeEnum(out, value.getIndicator());
+        writeVarInt(out, value.getFirstMonth());
+        double[] values = value.getValues();
+        writeVarInt(out, values.length);
+        for (double monthValue : values) {
+            out.writeDouble(monthValue);
+        }
+    }
+
+    @Override
+    protected CpiSeries readFields(DataInputStream in, byte version) throws IOException {
+        Country country = readEnum(in, Country.class);
+        Indicator indicator = readEnum(in, Indicator.class);
+        int firstMonth = readVarInt(in);
+        double[] values = new double[readVarInt(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return new CpiSeries(country, indicator, firstMonth, values);
+    }
+}
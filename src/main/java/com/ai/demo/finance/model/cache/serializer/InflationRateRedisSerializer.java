@@ -0,0 +1,44 @@
+package com.ai.demo.finance.model.cache.serializer;
+
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Version 1: percentage rate, period, country and indicator. Enums are written by
+ * name so reordering them does not corrupt cached values.
+ */
+public class InflationRateRedisSerializer extends CompactRedisSerializer<InflationRate> {
+
+    private static final byte VERSION = 1;
+
+    public InflationRateRedisSerializer(boolean legacyWrites) {
+        super(InflationRate.class, legacyWrites);
+    }
+
+    @Override
+    protected byte version() {
+        return VERSION;
+    }
+
+    @Override
+    protected void writeFields(DataOutputStream out, InflationRate value) throws IOException {
+        writeDecimal(out, value.getPercentageRate());
+        writeString(out, value.getPeriod());
+        writeEnum(out, value.getCountry());
+        writeEnum(out, value.getIndicator());
+    }
+
+    @Override
+    protected InflationRate readFields(DataInputStream in, byte version) throws IOException {
+        return InflationRate.builder()
+                .percentageRate(readDecimal(in))
+                .period(readString(in))
+                .country(readEnum(in, Country.class))
+                .indicator(readEnum(in, Indicator.class))
+                .build();
+    }
+}
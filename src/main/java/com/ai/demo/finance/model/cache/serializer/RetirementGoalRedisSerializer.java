@@ -0,0 +1,34 @@
+package com.ai.demo.finance.model.cache.serializer;
+
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Version 1: user id and goal percentage.
+ */
+public class RetirementGoalRedisSerializer extends CompactRedisSerializer<RetirementGoal> {
+
+    private static final byte VERSION = 1;
+
+    public RetirementGoalRedisSerializer(boolean legacyWrites) {
+        super(RetirementGoal.class, legacyWrites);
+    }
+
+    @Override
+    protected byte version() {
+        return VERSION;
+    }
+
+    @Override
+    protected void writeFields(DataOutputStream out, RetirementGoal value) throws IOException {
+        out.writeLong(value.getUserId());
+        writeDecimal(out, value.getGoalPercentage());
+    }
+
+    @Override
+    protected RetirementGoal readFields(DataInputStream in, byte version) throws IOException {
+        return new RetirementGoal(in.readLong(), readDecimal(in));
+    }
+}
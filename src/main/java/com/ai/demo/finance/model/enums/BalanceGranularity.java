@@ -0,0 +1,50 @@
+package com.ai.demo.finance.model.enums;
+
+import java.time.DayOfWeek;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import lombok.Getter;
+
+/**
+ * Buckets of the balance history, in UTC. Weeks start on Monday.
+ */
+@Getter
+public enum BalanceGranularity {
+    DAY("DAY", ChronoUnit.DAYS),
+    WEEK("WEEK", ChronoUnit.WEEKS),
+    MONTH("MONTH", ChronoUnit.MONTHS);
+
+    /**
+     * Field of the SQL {@code DATEADD} moving to the next bucket.
+     */
+    private final String sqlUnit;
+    private final ChronoUnit unit;
+
+    BalanceGranularity(String sqlUnit, ChronoUnit unit) {
+        this.sqlUnit = sqlUnit;
+        this.unit = unit;
+    }
+
+    /**
+     * @return the start of the bucket of the instant
+     */
+    public OffsetDateTime truncate(OffsetDateTime instant) {
+        OffsetDateTime day = instant.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @return the start of the first bucket after the one of the instant, the instant
+     * itself when it starts a bucket
+     */
+    public OffsetDateTime ceil(OffsetDateTime instant) {
+        OffsetDateTime start = truncate(instant);
+        return start.isEqual(instant) ? start : start.plus(1, unit);
+    }
+}
@@ -0,0 +1,6 @@
+package com.ai.demo.finance.model.enums;
+
+public enum OutboxEventType {
+    ACCOUNT_NET_AMOUNT,
+    RETIREMENT_GOAL
+}
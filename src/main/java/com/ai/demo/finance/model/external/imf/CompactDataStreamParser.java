@@ -0,0 +1,173 @@
+package com.ai.demo.finance.model.external.imf;
+
+import com.ai.demo.finance.model.enums.Country;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Reads a CompactData response token by token and hands every observation to a
+ * consumer as soon as it is complete, so memory does not grow with the size of the
+ * response. Bytes are pushed in as they arrive, without blocking on the input.
+ * <p>
+ * The series attributes are expected before their {@code Obs}, as the IMF writes them.
+ * Observations of reference areas or indicators unknown to the application are skipped.
+ */
+public class CompactDataStreamParser implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final String SERIES = "Series";
+    private static final String OBSERVATIONS = "Obs";
+    private static final String REF_AREA = "@REF_AREA";
+    private static final String INDICATOR = "@INDICATOR";
+    private static final String TIME_PERIOD = "@TIME_PERIOD";
+    private static final String OBS_VALUE = "@OBS_VALUE";
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Consumer<Observation> consumer;
+    private final Deque<Scope> scopes = new ArrayDeque<>();
+    private Country country;
+    private Indicator indicator;
+    private String timePeriod;
+    private BigDecimal value;
+
+    public CompactDataStreamParser(Consumer<Observation> consumer) {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create the CompactData parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.consumer = consumer;
+    }
+
+    /**
+     * Reads the whole stream, blocking on it.
+     * @param inputStream a CompactData response
+     * @param consumer receives every observation, in document order
+     * @throws IOException if the stream cannot be read or is not valid JSON
+     */
+    public static void parse(InputStream inputStream, Consumer<Observation> consumer) throws IOException {
+        try (CompactDataStreamParser streamParser = new CompactDataStreamParser(consumer)) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                streamParser.feed(buffer, 0, read);
+                buffer = new byte[READ_BUFFER_SIZE];
+            }
+            streamParser.endOfInput();
+        }
+    }
+
+    /**
+     * Parses the next chunk of the response. The chunk must not be modified afterwards.
+     * @throws IOException if the chunk is not valid JSON
+     */
+    public void feed(byte[] bytes, int offset, int length) throws IOException {
+        feeder.feedInput(bytes, offset, offset + length);
+        readAvailableTokens();
+    }
+
+    /**
+     * Signals the response is complete and parses what is left of it.
+     * @throws IOException if the response ends in the middle of a value
+     */
+    public void endOfInput() throws IOException {
+        feeder.endOfInput();
+        readAvailableTokens();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void readAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT -> startObject();
+                case END_OBJECT -> endObject();
+                case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> readValue(parser.currentName(), parser.getText());
+                default -> {
+                    // arrays and field names are tracked by the parsing context
+                }
+            }
+        }
+    }
+
+    private void startObject() {
+        String field = enclosingField(parser.getParsingContext());
+        Scope scope;
+        if (SERIES.equals(field)) {
+            scope = Scope.SERIES;
+            country = null;
+            indicator = null;
+        } else if (OBSERVATIONS.equals(field) && scopes.peek() == Scope.SERIES) {
+            scope = Scope.OBSERVATION;
+            timePeriod = null;
+            value = null;
+        } else {
+            scope = Scope.OTHER;
+        }
+        scopes.push(scope);
+    }
+
+    private void endObject() {
+        if (scopes.pop() == Scope.OBSERVATION && country != null && indicator != null && timePeriod != null && value != null) {
+            consumer.accept(new Observation(country, indicator, timePeriod, value));
+        }
+    }
+
+    private void readValue(String field, String text) {
+        Scope scope = scopes.peek();
+        if (scope == Scope.SERIES) {
+            if (REF_AREA.equals(field)) {
+                country = valueOf(Country.class, text);
+            } else if (INDICATOR.equals(field)) {
+                indicator = valueOf(Indicator.class, text);
+            }
+        } else if (scope == Scope.OBSERVATION) {
+            if (TIME_PERIOD.equals(field)) {
+                timePeriod = text;
+            } else if (OBS_VALUE.equals(field)) {
+                value = new BigDecimal(text);
+            }
+        }
+    }
+
+    /**
+     * @return the name of the field holding the object, looking through an enclosing array
+     */
+    private static String enclosingField(JsonStreamContext objectContext) {
+        JsonStreamContext parent = objectContext.getParent();
+        if (parent != null && parent.inArray()) {
+            parent = parent.getParent();
+        }
+        return parent == null ? null : parent.getCurrentName();
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private enum Scope {
+        SERIES,
+        OBSERVATION,
+        OTHER
+    }
+}
@@ -1,10 +0,0 @@
-package com.ai.demo.finance.model.external.imf;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
-
-@Data
-public class IMFCompactDataResponse {
-    @JsonProperty("CompactData")
-    private CompactData compactData;
-}
@@ -0,0 +1,11 @@
+package com.ai.demo.finance.model.external.imf;
+
+import com.ai.demo.finance.model.enums.Country;
+import java.math.BigDecimal;
+
+/**
+ * A single {@code Obs} entry of a CompactData series, with the reference area and
+ * indicator of the series it belongs to.
+ */
+public record Observation(Country country, Indicator indicator, String timePeriod, BigDecimal value) {
+}
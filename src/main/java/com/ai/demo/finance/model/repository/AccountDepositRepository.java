@@ -0,0 +1,227 @@
+package com.ai.demo.finance.model.repository;
+
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.enums.AccountType;
+import com.ai.demo.finance.model.enums.Country;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Deposits without loading the account or its user: the balance is incremented in
+ * place, and the balance before it is inserted into {@code account_history} from the
+ * row, so there is no read-modify-write window. The country of the account, which the
+ * indexed deposit depends on, is resolved by the statement itself from the deposit
+ * indexed for every country with a CPI series.
+ * <p>
+ * On any database the deposit is an {@code UPDATE}, an {@code INSERT ... SELECT} of the
+ * previous balance and a read of the account, in the transaction of the caller. On H2,
+ * unless {@code accounts.deposit.delta-tables} is off, the three are a single statement
+ * with data change delta tables.
+ */
+@Repository
+@Log4j2
+public class AccountDepositRepository {
+
+    /**
+     * The deposit indexed for the country of the user of the account, {@code null} when
+     * that country has no CPI series; {@code %s} is the column with the id of the user.
+     */
+    private static final String INDEXED_DEPOSIT = "CASE (SELECT u.country FROM app_user u WHERE u.id = %s)"
+            + Arrays.stream(Country.values())
+                    .map(country -> " WHEN '" + country.name() + "' THEN CAST(:" + indexedParameter(country) + " AS DECIMAL(38, 2))")
+                    .collect(Collectors.joining())
+            + " END";
+
+    private static final String UPDATE_DEPOSIT = """
+            UPDATE account SET amount_gross = COALESCE(amount_gross, 0) + :deposit,
+                amount_indexed = amount_indexed + COALESCE(%1$s, 0),
+                version = version + 1
+            WHERE id = :id AND (amount_indexed IS NOT NULL OR %1$s IS NULL)
+            """.formatted(INDEXED_DEPOSIT.formatted("account.user_id"));
+
+    /**
+     * Run after {@link #UPDATE_DEPOSIT}, which holds the lock of the row until the
+     * transaction ends; a balance that was {@code null} is recorded as zero.
+     */
+    private static final String INSERT_PREVIOUS_BALANCE = """
+            INSERT INTO account_history (id, account_id, amount, date)
+            SELECT :historyId, id, amount_gross - :deposit, :date FROM account WHERE id = :id
+            """;
+
+    private static final String SELECT_ACCOUNT = """
+            SELECT id, description, amount_gross, amount_net, type, date, user_id, amount_indexed, version
+            FROM account WHERE id = :id
+            """;
+
+    /**
+     * The tables read outside the delta tables are as they were before the statement, so
+     * the account returned is the one before the deposit with the same increments applied.
+     */
+    private static final String DEPOSIT_WITH_DELTA_TABLES = """
+            SELECT a.id, a.description, COALESCE(a.amount_gross, 0) + :deposit AS amount_gross, a.amount_net, a.type, a.date,
+                a.user_id, a.amount_indexed + COALESCE(%s, 0) AS amount_indexed,
+                a.version + 1 AS version
+            FROM FINAL TABLE (
+                INSERT INTO account_history (id, account_id, amount, date)
+                SELECT :historyId, id, amount_gross, :date
+                FROM OLD TABLE (%s)) h
+            JOIN account a ON a.id = h.account_id
+            """.formatted(INDEXED_DEPOSIT.formatted("a.user_id"), UPDATE_DEPOSIT);
+
+    private static final String LOCK_FOR_DEPOSIT = """
+            SELECT a.id, a.description, a.amount_gross, a.amount_net, a.type, a.date, a.user_id, a.amount_indexed, a.version,
+                u.country
+            FROM account a JOIN app_user u ON u.id = a.user_id
+            WHERE a.id IN (:ids) ORDER BY a.id FOR UPDATE
+            """;
+    private static final String UPDATE_BALANCE = """
+            UPDATE account SET amount_gross = :amount, amount_indexed = :amountIndexed, version = version + 1 WHERE id = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean deltaTables;
+
+    public AccountDepositRepository(NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${accounts.deposit.atomic:false}") boolean atomic,
+            @Value("${accounts.deposit.delta-tables:true}") boolean deltaTables) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = atomic;
+        this.deltaTables = atomic && deltaTables && isH2(jdbcTemplate.getJdbcTemplate().getDataSource());
+    }
+
+    /**
+     * @return whether deposits go through {@link #deposit(Long, Money, Map, long, ZonedDateTime)} before
+     * falling back to loading the account
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether {@link #deposit(Long, Money, Map, long, ZonedDateTime)} is a single statement
+     */
+    public boolean isSingleStatement() {
+        return deltaTables;
+    }
+
+    /**
+     * Deposits within the transaction of the caller.
+     * @param indexedDeposits the deposit divided by the purchasing power of the current
+     *            month, for every country with a CPI series
+     * @param historyId the id of the history row recording the balance before the deposit,
+     *            from {@link com.ai.demo.finance.service.AccountHistoryAppender#nextId()}
+     * @param date the date of that row, taken by the caller like for {@link AccountHistory}
+     * @return the account after the deposit, not managed; empty when the account does not
+     * exist, or when it is not indexed yet while its country has a CPI series, as its
+     * index is seeded from the opening month by {@link Account#deposit(Money, com.ai.demo.finance.model.cache.CpiSeries, int)}
+     */
+    public Optional<Account> deposit(Long accountId, Money deposit, Map<Country, Money> indexedDeposits, long historyId,
+            ZonedDateTime date) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("id", accountId)
+                .addValue("deposit", deposit.toBigDecimal())
+                .addValue("historyId", historyId)
+                .addValue("date", date.toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC));
+        for (Country country : Country.values()) {
+            parameters.addValue(indexedParameter(country), toBigDecimal(indexedDeposits.get(country)));
+        }
+        if (deltaTables) {
+            return jdbcTemplate.query(DEPOSIT_WITH_DELTA_TABLES, parameters, AccountDepositRepository::toAccount).stream().findFirst();
+        }
+        if (jdbcTemplate.update(UPDATE_DEPOSIT, parameters) == 0) {
+            return Optional.empty();
+        }
+        jdbcTemplate.update(INSERT_PREVIOUS_BALANCE, parameters);
+        return jdbcTemplate.query(SELECT_ACCOUNT, parameters, AccountDepositRepository::toAccount).stream().findFirst();
+    }
+
+    /**
+     * Reads the accounts locking them until the transaction ends, in the order of their
+     * id so that two batches locking the same accounts cannot deadlock.
+     * @return the accounts found, not managed, with the country of their user if known
+     */
+    public List<DepositTarget> lockForDeposit(Collection<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(LOCK_FOR_DEPOSIT, Map.of("ids", accountIds), (resultSet, rowNum) -> {
+            String country = resultSet.getString("country");
+            return new DepositTarget(toAccount(resultSet, rowNum), country == null ? null : Country.valueOf(country));
+        });
+    }
+
+    /**
+     * Writes the balances of the accounts locked by {@link #lockForDeposit(Collection)}
+     * with one JDBC batch.
+     */
+    public void updateBalances(Collection<Account> accounts) {
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, accounts.stream()
+                .map(account -> new MapSqlParameterSource()
+                        .addValue("id", account.getId())
+                        .addValue("amount", toBigDecimal(account.getAmount()))
+                        .addValue("amountIndexed", toBigDecimal(account.getAmountIndexed())))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    private static boolean isH2(DataSource dataSource) {
+        try {
+            return "H2".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not read the database product", e);
+            return false;
+        }
+    }
+
+    private static String indexedParameter(Country country) {
+        return "indexed" + country.name();
+    }
+
+    private static Account toAccount(ResultSet resultSet, int rowNum) throws SQLException {
+        Timestamp date = resultSet.getTimestamp("date");
+        return Account.builder()
+                .id(resultSet.getLong("id"))
+                .description(resultSet.getString("description"))
+                .amount(toMoney(resultSet, "amount_gross"))
+                .amountNet(toMoney(resultSet, "amount_net"))
+                .type(AccountType.values()[resultSet.getInt("type")])
+                .date(date == null ? null : date.toLocalDateTime())
+                .userId(resultSet.getLong("user_id"))
+                .amountIndexed(toMoney(resultSet, "amount_indexed"))
+                .version(resultSet.getLong("version"))
+                .build();
+    }
+
+    private static Money toMoney(ResultSet resultSet, String column) throws SQLException {
+        BigDecimal value = resultSet.getBigDecimal(column);
+        return value == null ? null : Money.of(value);
+    }
+
+    private static BigDecimal toBigDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    public record DepositTarget(Account account, Country country) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.ai.demo.finance.model.repository;
+
+import com.ai.demo.finance.model.AccountHistory;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts {@link AccountHistory} rows with JDBC batches, their ids allocated by the
+ * caller from blocks of {@link AccountHistory#ID_SEQUENCE}. The dates are written in UTC.
+ */
+@Repository
+public class AccountHistoryBatchRepository {
+
+    private static final String NEXT_ID_BLOCK = "SELECT NEXT VALUE FOR " + AccountHistory.ID_SEQUENCE;
+    private static final String INSERT = """
+            INSERT INTO account_history (id, account_id, amount, date) VALUES (:id, :accountId, :amount, :date)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AccountHistoryBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the first id of a block of {@link AccountHistory#ID_ALLOCATION_SIZE} ids
+     * no one else is given
+     */
+    public long nextIdBlock() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(NEXT_ID_BLOCK, Long.class);
+    }
+
+    public void insertAll(Collection<AccountHistory> history) {
+        jdbcTemplate.batchUpdate(INSERT, history.stream()
+                .map(accountHistory -> new MapSqlParameterSource()
+                        .addValue("id", accountHistory.getId())
+                        .addValue("accountId", accountHistory.getAccountId())
+                        .addValue("amount", accountHistory.getAmount() == null ? null : accountHistory.getAmount().toBigDecimal())
+                        .addValue("date", accountHistory.getDate() == null ? null
+                                : accountHistory.getDate().toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC)))
+                .toArray(SqlParameterSource[]::new));
+    }
+}
@@ -1,10 +1,56 @@
 package com.ai.demo.finance.model.repository;
 
 import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.enums.Country;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface AccountRepository extends JpaRepository<Account, Long>, PagingAndSortingRepository<Account, Long> {
     List<Account> findAllByUserId(Long userId);
+
+    @Query("select u.country from Account a, User u where u.id = a.userId and a.id = :id")
+    Optional<Country> findCountryById(@Param("id") Long id);
+
+    @Query("select a.id from Account a where a.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    List<Account> findAllByUserIdIn(Collection<Long> userIds);
+
+    List<Account> findAllByUserIdInAndAmountIndexedIsNull(Collection<Long> userIds);
+
+    /**
+     * Applies the same inflation rate to every account of the given users in a single
+     * statement, without loading the entities. Native, as the amounts are mapped to
+     * {@link com.ai.demo.finance.model.Money}. The version is incremented, so that a
+     * deposit loaded before fails instead of writing back the previous net amount.
+     * @param rate the rate as returned by
+     *            {@link com.ai.demo.finance.model.cache.InflationRate#calculateRateFromPercentage()}
+     * @param userIds the users whose accounts are updated
+     * @return the number of accounts updated
+     */
+    @Modifying
+    @Query(value = "update account set amount_net = round(amount_gross * :rate, 2), version = version + 1 "
+            + "where user_id in (:userIds)", nativeQuery = true)
+    int updateNetAmountByUserIds(@Param("rate") BigDecimal rate, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Revalues every indexed account of the given users with one multiplication each,
+     * see {@link Account#calculateNetAmount(com.ai.demo.finance.model.cache.CpiSeries, int)}.
+     * Accounts not indexed yet are left untouched.
+     * @param purchasingPower the purchasing power of the month valued at
+     * @param userIds the users whose accounts are updated
+     * @return the number of accounts updated
+     */
+    @Modifying
+    @Query(value = "update account set amount_net = round(amount_indexed * :purchasingPower, 2), version = version + 1 "
+            + "where user_id in (:userIds) and amount_indexed is not null", nativeQuery = true)
+    int updateNetAmountFromIndexByUserIds(@Param("purchasingPower") BigDecimal purchasingPower,
+            @Param("userIds") Collection<Long> userIds);
 }
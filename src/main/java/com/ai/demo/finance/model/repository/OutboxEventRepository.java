@@ -0,0 +1,94 @@
+package com.ai.demo.finance.model.repository;
+
+import com.ai.demo.finance.model.OutboxEvent;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(LocalDateTime now, Limit limit);
+
+    long countByParkedFalse();
+
+    Optional<OutboxEvent> findFirstByParkedFalseOrderByIdAsc();
+
+    List<OutboxEvent> findByClaimedByAndIdIn(String claimedBy, Collection<Long> ids);
+
+    /**
+     * Claims the rows that are still available, so that no other dispatcher picks them
+     * up until the claim expires. The rows claimed by another dispatcher in the meantime
+     * are left out.
+     * @param claimedBy the dispatcher claiming the rows
+     * @param expiresAt when the rows can be picked up again if still there
+     * @param now the time the rows were found available
+     * @return the number of rows claimed
+     */
+    @Modifying
+    @Query("update OutboxEvent o set o.claimedBy = :claimedBy, o.availableAt = :expiresAt "
+            + "where o.id in :ids and o.availableAt <= :now and o.parked = false")
+    int claim(@Param("claimedBy") String claimedBy, @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * @return the rows of the given users still waiting for their first dispatch, whether
+     *         due or not, and claimed by nobody
+     */
+    @Query("select o.id from OutboxEvent o where o.type = :type and o.userId in :userIds and o.claimedBy is null "
+            + "and o.attempts = 0 and o.parked = false")
+    List<Long> findWaitingIds(@Param("type") OutboxEventType type, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Claims rows found by {@link #findWaitingIds} before they are due, so that they are
+     * dispatched with the rows of the same users that are. The rows claimed by another
+     * dispatcher in the meantime are left out.
+     * @return the number of rows claimed
+     */
+    @Modifying
+    @Query("update OutboxEvent o set o.claimedBy = :claimedBy, o.availableAt = :expiresAt "
+            + "where o.id in :ids and o.claimedBy is null")
+    int claimWaiting(@Param("claimedBy") String claimedBy, @Param("expiresAt") LocalDateTime expiresAt,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the rows whose consumer has finished, unless their claim expired and
+     * another dispatcher took them over.
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("delete from OutboxEvent o where o.claimedBy = :claimedBy and o.id in :ids")
+    int deleteClaimed(@Param("claimedBy") String claimedBy, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Postpones and releases rows whose consumer failed, unless their claim expired and
+     * another dispatcher took them over.
+     * @param claimedBy the dispatcher holding the rows
+     * @param availableAt when the rows can be picked up again
+     * @param ids the ids of the rows
+     * @return the number of rows postponed
+     */
+    @Modifying
+    @Query("update OutboxEvent o set o.attempts = o.attempts + 1, o.availableAt = :availableAt, o.claimedBy = null "
+            + "where o.claimedBy = :claimedBy and o.id in :ids")
+    int postpone(@Param("claimedBy") String claimedBy, @Param("availableAt") LocalDateTime availableAt,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * Parks and releases rows whose consumer failed for the last time, unless their
+     * claim expired and another dispatcher took them over.
+     * @param claimedBy the dispatcher holding the rows
+     * @param ids the ids of the rows
+     * @return the number of rows parked
+     */
+    @Modifying
+    @Query("update OutboxEvent o set o.attempts = o.attempts + 1, o.parked = true, o.claimedBy = null "
+            + "where o.claimedBy = :claimedBy and o.id in :ids")
+    int park(@Param("claimedBy") String claimedBy, @Param("ids") Collection<Long> ids);
+}
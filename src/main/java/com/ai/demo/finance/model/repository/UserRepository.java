@@ -2,14 +2,26 @@ package com.ai.demo.finance.model.repository;
 
 import com.ai.demo.finance.model.User;
 import com.ai.demo.finance.model.enums.Country;
+import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
-    Page<User> findAllByCountry(Country country, Pageable pageable);
-}
\ No newline at end of file
+    /**
+     * Keyset page of the ids of the users of a country: every call seeks past the last id
+     * already read instead of skipping an offset, so deep pages cost as much as the first
+     * one and no count query is issued.
+     * @param country the country of the users
+     * @param lastId the last id of the previous page, or {@code 0} for the first page
+     * @param limit the page size
+     * @return the next ids, in ascending order
+     */
+    @Query("select u.id from User u where u.country = :country and u.id > :lastId order by u.country, u.id")
+    List<Long> findIdsByCountryAfter(@Param("country") Country country, @Param("lastId") Long lastId, Limit limit);
+}
@@ -0,0 +1,107 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.dto.AccountBalanceDTO;
+import com.ai.demo.finance.dto.BalanceBucketDTO;
+import com.ai.demo.finance.dto.BalanceHistoryDTO;
+import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.exception.NotFoundResourceException;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.enums.BalanceGranularity;
+import com.ai.demo.finance.model.repository.AccountBalanceHistoryRepository;
+import com.ai.demo.finance.model.repository.AccountRepository;
+import io.micrometer.core.annotation.Timed;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Balance of an account over time, read from its history at the bucket boundaries only:
+ * the cost depends on the number of buckets, not on the number of deposits.
+ */
+@Service
+@Log4j2
+@Timed(value = "finance.service", histogram = true)
+public class AccountBalanceHistoryService {
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceHistoryRepository balanceHistoryRepository;
+    private final int maxBuckets;
+
+    public AccountBalanceHistoryService(AccountRepository accountRepository,
+            AccountBalanceHistoryRepository balanceHistoryRepository,
+            @Value("${accounts.history.max-buckets:1000}") int maxBuckets) {
+        this.accountRepository = accountRepository;
+        this.balanceHistoryRepository = balanceHistoryRepository;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * The range is widened to whole buckets, and starts at the earliest on the bucket the
+     * account was opened in: it has no bucket when the account was opened after it.
+     * @param granularity {@link BalanceGranularity#DAY} when null
+     * @param from a year before {@code to} when null
+     * @param to now when null
+     * @throws InvalidOperationException when the range is reversed or has more buckets
+     * than the maximum
+     */
+    @Transactional(readOnly = true)
+    public BalanceHistoryDTO balanceHistory(Long id, BalanceGranularity granularity, OffsetDateTime from, OffsetDateTime to) {
+        BalanceGranularity bucketSize = granularity == null ? BalanceGranularity.DAY : granularity;
+        OffsetDateTime end = to == null ? OffsetDateTime.now(ZoneOffset.UTC) : to;
+        OffsetDateTime start = from == null ? end.minusYears(1) : from;
+        if (start.isAfter(end)) {
+            throw new InvalidOperationException("The start of the range must not be after its end");
+        }
+        Account account = findAccount(id);
+        OffsetDateTime opening = openingDate(account);
+        if (opening != null && opening.isAfter(start)) {
+            start = opening;
+        }
+        start = bucketSize.truncate(start);
+        end = bucketSize.ceil(end);
+        long buckets = Math.max(bucketSize.getUnit().between(start, end), 0);
+        if (buckets > maxBuckets) {
+            throw new InvalidOperationException("At most " + maxBuckets + " buckets are returned at once");
+        }
+
+        List<BalanceBucketDTO> result = buckets == 0 ? List.of() : balanceHistoryRepository
+                .findBuckets(id, bucketSize, start, (int) buckets, account.getAmount()).stream()
+                .map(bucket -> new BalanceBucketDTO(bucket.start(), bucket.openingBalance().toBigDecimal(),
+                        bucket.closingBalance().toBigDecimal()))
+                .toList();
+        log.debug("{} {} buckets of the balance of account {}", result.size(), bucketSize, id);
+        return new BalanceHistoryDTO(id, bucketSize, start, end, result);
+    }
+
+    /**
+     * @param at now when null
+     * @return the balance at the instant, zero before the account was opened
+     */
+    @Transactional(readOnly = true)
+    public AccountBalanceDTO balanceAt(Long id, OffsetDateTime at) {
+        OffsetDateTime instant = at == null ? OffsetDateTime.now(ZoneOffset.UTC) : at;
+        Account account = findAccount(id);
+        OffsetDateTime opening = openingDate(account);
+        Money balance = opening != null && instant.isBefore(opening) ? Money.ZERO : balanceHistoryRepository
+                .findBalanceAt(id, instant)
+                .orElseGet(() -> account.getAmount() == null ? Money.ZERO : account.getAmount());
+        return new AccountBalanceDTO(id, instant, balance.toBigDecimal());
+    }
+
+    private Account findAccount(Long id) {
+        return accountRepository.findById(id).orElseThrow(() -> new NotFoundResourceException("Account not found"));
+    }
+
+    /**
+     * @return when the account was opened, its date being local to the system
+     */
+    private static OffsetDateTime openingDate(Account account) {
+        return account.getDate() == null ? null : account.getDate().atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.dto.DepositDTO;
+import com.ai.demo.finance.dto.DepositResultDTO;
+import com.ai.demo.finance.dto.DepositsResultDTO;
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
+import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountDepositRepository;
+import com.ai.demo.finance.model.repository.AccountDepositRepository.DepositTarget;
+import io.micrometer.core.annotation.Timed;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies a batch of deposits in one transaction: the accounts are read and locked with
+ * one query, the deposits applied in memory, the balances written with one JDBC batch
+ * and the history with {@link AccountHistoryAppender}. The net amounts are recalculated
+ * once per user, whatever the number of deposits into their accounts.
+ */
+@Service
+@Log4j2
+@Timed(value = "finance.service", histogram = true)
+public class AccountDepositBatchService {
+
+    private final AccountDepositRepository accountDepositRepository;
+    private final AccountHistoryAppender historyAppender;
+    private final OutboxService outboxService;
+    private final CpiIndexStore cpiIndexStore;
+    private final int maxSize;
+
+    public AccountDepositBatchService(AccountDepositRepository accountDepositRepository, AccountHistoryAppender historyAppender,
+            OutboxService outboxService, CpiIndexStore cpiIndexStore, @Value("${accounts.deposit.batch.max-size:5000}") int maxSize) {
+        this.accountDepositRepository = accountDepositRepository;
+        this.historyAppender = historyAppender;
+        this.outboxService = outboxService;
+        this.cpiIndexStore = cpiIndexStore;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Every deposit is validated before any is applied. The ones invalid, or into an
+     * account that does not exist, are reported as failed and the others are applied.
+     * @return the outcome of each deposit, in the order given
+     * @throws InvalidOperationException when the batch is empty or larger than the maximum
+     */
+    @Transactional
+    public DepositsResultDTO deposit(List<DepositDTO> deposits) {
+        if (deposits == null || deposits.isEmpty()) {
+            throw new InvalidOperationException("At least one deposit is required");
+        }
+        if (deposits.size() > maxSize) {
+            throw new InvalidOperationException("At most " + maxSize + " deposits are accepted at once");
+        }
+
+        DepositResultDTO[] results = new DepositResultDTO[deposits.size()];
+        Money[] amounts = new Money[deposits.size()];
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (int i = 0; i < deposits.size(); i++) {
+            DepositDTO deposit = deposits.get(i);
+            try {
+                if (deposit == null || deposit.accountId() == null) {
+                    throw new InvalidOperationException("Account is required");
+                }
+                amounts[i] = deposit.amount() == null ? null : Money.ofExact(deposit.amount());
+                Account.validateDeposit(amounts[i]);
+                accountIds.add(deposit.accountId());
+            } catch (InvalidOperationException | ArithmeticException e) {
+                results[i] = failed(deposit, e.getMessage());
+            }
+        }
+
+        Map<Long, DepositTarget> targets = new HashMap<>();
+        accountDepositRepository.lockForDeposit(accountIds).forEach(target -> targets.put(target.account().getId(), target));
+        int currentMonth = CpiSeries.monthOrdinal(YearMonth.now());
+        Map<Country, Optional<CpiSeries>> cpiSeries = new EnumMap<>(Country.class);
+        Map<Long, Account> deposited = new LinkedHashMap<>();
+        List<AccountHistory> history = new ArrayList<>();
+        for (int i = 0; i < deposits.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            DepositTarget target = targets.get(deposits.get(i).accountId());
+            if (target == null) {
+                results[i] = failed(deposits.get(i), "Account not found");
+                continue;
+            }
+            Account account = target.account();
+            Money amount = amounts[i];
+            try {
+                history.add(cpiSeries(cpiSeries, target.country())
+                        .map(series -> account.deposit(amount, series, currentMonth))
+                        .orElseGet(() -> account.deposit(amount)));
+            } catch (InvalidOperationException | ArithmeticException e) {
+                results[i] = failed(deposits.get(i), e.getMessage());
+                continue;
+            }
+            deposited.put(account.getId(), account);
+            results[i] = new DepositResultDTO(account.getId(), account.getAmount().toBigDecimal(), null);
+        }
+
+        if (!deposited.isEmpty()) {
+            accountDepositRepository.updateBalances(deposited.values());
+            historyAppender.appendAll(history);
+            outboxService.appendAccountNetAmountEvents(deposited.values().stream()
+                    .map(Account::getUserId)
+                    .distinct()
+                    .map(userId -> new AccountNetAmountPerUserEvent(userId, EventSource.DEPOSIT))
+                    .toList());
+        }
+        int succeeded = history.size();
+        log.debug("{} of {} deposits applied to {} accounts", succeeded, deposits.size(), deposited.size());
+        return new DepositsResultDTO(succeeded, deposits.size() - succeeded, List.of(results));
+    }
+
+    private static DepositResultDTO failed(DepositDTO deposit, String error) {
+        return new DepositResultDTO(deposit == null ? null : deposit.accountId(), null, error);
+    }
+
+    /**
+     * @param cpiSeries the series already looked up in this batch
+     */
+    private Optional<CpiSeries> cpiSeries(Map<Country, Optional<CpiSeries>> cpiSeries, Country country) {
+        if (country == null) {
+            return Optional.empty();
+        }
+        return cpiSeries.computeIfAbsent(country, c -> cpiIndexStore.series(c, Indicator.PCPI_IX)
+                .filter(series -> series.getLastMonth() >= 0));
+    }
+}
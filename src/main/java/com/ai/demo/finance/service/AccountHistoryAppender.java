@@ -0,0 +1,190 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.repository.AccountHistoryBatchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Batched insertion of the {@link AccountHistory} rows within the transaction appending
+ * them: the rows are buffered, and inserted with one JDBC batch once the buffer reaches
+ * the flush size and before the transaction commits. A commit therefore never leaves a balance without
+ * its history, and a rollback discards both. The ids are handed out from blocks of
+ * {@link AccountHistory#ID_ALLOCATION_SIZE}, one sequence call per block instead of one
+ * per row.
+ * <p>
+ * Only a transaction appending several rows, such as a batch of deposits, saves
+ * statements: a single deposit still inserts its one row, the block of ids being the
+ * only saving. Rows of different transactions are never batched together, so that
+ * each commit carries its own history.
+ * <p>
+ * Rows appended are only visible to the queries of the transaction once flushed, at the
+ * latest on {@link org.springframework.transaction.TransactionStatus#flush()}.
+ */
+@Component
+@Log4j2
+public class AccountHistoryAppender {
+
+    public static final String FLUSH_TIMER = "finance.accounts.history.flush";
+    private final AccountHistoryBatchRepository historyBatchRepository;
+    private final int flushSize;
+    private final Timer flushTimer;
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong idBlockCount = new AtomicLong();
+    private long nextId;
+    private long idLimit;
+
+    public AccountHistoryAppender(AccountHistoryBatchRepository historyBatchRepository, MeterRegistry meterRegistry,
+            @Value("${accounts.history.flush-size:500}") int flushSize) {
+        if (flushSize < 1) {
+            throw new IllegalArgumentException("The flush size must be at least 1");
+        }
+        this.historyBatchRepository = historyBatchRepository;
+        this.flushSize = flushSize;
+        this.flushTimer = Timer.builder(FLUSH_TIMER)
+                .description("Insertion of the history rows buffered by a transaction")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws IllegalTransactionStateException when called outside a transaction
+     */
+    public void append(AccountHistory history) {
+        buffer().add(history);
+    }
+
+    /**
+     * @throws IllegalTransactionStateException when called outside a transaction
+     */
+    public void appendAll(Collection<AccountHistory> history) {
+        Buffer buffer = buffer();
+        history.forEach(buffer::add);
+    }
+
+    /**
+     * @return an id from the current block, for a history row inserted by another
+     * statement than {@link #append(AccountHistory)}
+     */
+    public long nextId() {
+        return nextIds(1)[0];
+    }
+
+    /**
+     * @return number of rows appended by the open transactions and not inserted yet
+     */
+    public int getBufferedCount() {
+        return bufferedCount.get();
+    }
+
+    /**
+     * @return number of rows inserted so far
+     */
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    /**
+     * @return number of blocks of ids taken from the sequence so far
+     */
+    public long getIdBlockCount() {
+        return idBlockCount.get();
+    }
+
+    /**
+     * @return the buffer of the current transaction, a new one registered to it if it
+     * has none yet
+     */
+    private Buffer buffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalTransactionStateException("The account history must be appended within a transaction");
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Buffer buffer && buffer.owner() == this) {
+                return buffer;
+            }
+        }
+        Buffer buffer = new Buffer();
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private void flush(List<AccountHistory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        long[] ids = nextIds(rows.size());
+        List<AccountHistory> identified = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            AccountHistory row = rows.get(i);
+            identified.add(AccountHistory.builder().id(ids[i]).accountId(row.getAccountId())
+                    .amount(row.getAmount()).date(row.getDate()).build());
+        }
+        flushTimer.record(() -> historyBatchRepository.insertAll(identified));
+        flushedCount.addAndGet(rows.size());
+        bufferedCount.addAndGet(-rows.size());
+        log.debug("{} account history rows inserted", rows.size());
+        rows.clear();
+    }
+
+    private synchronized long[] nextIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextId == idLimit) {
+                nextId = historyBatchRepository.nextIdBlock();
+                idLimit = nextId + AccountHistory.ID_ALLOCATION_SIZE;
+                idBlockCount.incrementAndGet();
+            }
+            ids[i] = nextId++;
+        }
+        return ids;
+    }
+
+    /**
+     * Rows of one transaction, only ever used by the thread running it.
+     */
+    private final class Buffer implements TransactionSynchronization {
+
+        private final List<AccountHistory> rows = new ArrayList<>();
+
+        void add(AccountHistory history) {
+            rows.add(history);
+            bufferedCount.incrementAndGet();
+            if (rows.size() >= flushSize) {
+                AccountHistoryAppender.this.flush(rows);
+            }
+        }
+
+        AccountHistoryAppender owner() {
+            return AccountHistoryAppender.this;
+        }
+
+        @Override
+        public void flush() {
+            AccountHistoryAppender.this.flush(rows);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            AccountHistoryAppender.this.flush(rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            bufferedCount.addAndGet(-rows.size());
+            rows.clear();
+        }
+    }
+}
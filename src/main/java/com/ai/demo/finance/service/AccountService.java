@@ -10,37 +10,50 @@ import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.mapper.AccountMapper;
 import com.ai.demo.finance.model.Account;
 import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.enums.Country;
-import com.ai.demo.finance.model.repository.AccountHistoryRepository;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountDepositRepository;
 import com.ai.demo.finance.model.repository.AccountRepository;
+import io.micrometer.core.annotation.Timed;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.mapstruct.factory.Mappers;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor
 @Log4j2
+@Timed(value = "finance.service", histogram = true)
 public class AccountService {
 
     private static final AccountMapper MAPPER = Mappers.getMapper(AccountMapper.class);
     private final AccountRepository accountRepository;
-    private final AccountHistoryRepository historyRepository;
+    private final AccountHistoryAppender historyAppender;
+    private final AccountDepositRepository accountDepositRepository;
     private final UserService userService;
     private final InflationService inflationService;
-    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final CpiIndexStore cpiIndexStore;
+    private final AccountUpdateExecutor accountUpdateExecutor;
 
     @Transactional
     public AccountDTO createAccount(AccountDTO accountDTO) {
         UserDTO user = userService.findByUsername(accountDTO.username());
         Account entity = MAPPER.toAccountToCreate(accountDTO, user.id());
-        eventPublisher.publishEvent(new AccountNetAmountPerUserEvent(user.id(), EventSource.ACCOUNT_CREATION));
+        cpiSeries(user.country()).ifPresent(cpiSeries -> entity.calculateNetAmount(cpiSeries, cpiSeries.getLastMonth()));
+        outboxService.append(new AccountNetAmountPerUserEvent(user.id(), EventSource.ACCOUNT_CREATION));
         return MAPPER.toAccountDTO(accountRepository.save(entity));
     }
 
@@ -51,13 +64,12 @@ public class AccountService {
     }
 
     public AccountDTO updateAccount(Long id, AccountDTO accountDTO) {
-        if (accountRepository.existsById(id)) {
-            Account account = MAPPER.toAccount(accountDTO);
-            Account saved = accountRepository.save(account);
+        return accountUpdateExecutor.execute(id, () -> {
+            Account current = accountRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundResourceException("Account not found with id " + id));
+            Account saved = accountRepository.save(MAPPER.toAccount(accountDTO, current.getVersion()));
             return MAPPER.toAccountDTO(saved);
-        }
-
-        throw new NotFoundResourceException("Account not found with id " + id);
+        });
     }
 
     public void deleteAccount(Long id) {
@@ -68,20 +80,59 @@ public class AccountService {
         accountRepository.deleteById(id);
     }
 
-    @Transactional
+    /**
+     * Deposits one after the other into the same account, see {@link AccountUpdateExecutor}.
+     * With {@link AccountDepositRepository#isEnabled()} neither the account nor its user
+     * are loaded: the deposit is applied by statements resolving the country themselves,
+     * a single one on H2, followed by the insert of the outbox row. The account is only
+     * loaded when those statements cannot apply the deposit.
+     */
     public AccountDTO deposit(Long id, BalanceDTO balanceDTO) {
-        final Account account = accountRepository.findById(id).orElseThrow(() -> new NotFoundResourceException("Account not found"));
-        AccountHistory history = account.deposit(balanceDTO.amount());
-        Account savedAccount = accountRepository.save(account);
-        historyRepository.save(history);
-        eventPublisher.publishEvent(new AccountNetAmountPerUserEvent(savedAccount.getUserId(), EventSource.DEPOSIT));
-        return MAPPER.toAccountDTO(savedAccount);
+        Money deposit = balanceDTO.amount() == null ? null : Money.ofExact(balanceDTO.amount());
+        Account.validateDeposit(deposit);
+        return accountUpdateExecutor.execute(id, () -> {
+            if (accountDepositRepository.isEnabled()) {
+                Optional<Account> deposited = accountDepositRepository.deposit(id, deposit, indexedDeposits(deposit),
+                        historyAppender.nextId(), ZonedDateTime.now(ZoneOffset.UTC));
+                if (deposited.isPresent()) {
+                    outboxService.append(new AccountNetAmountPerUserEvent(deposited.get().getUserId(), EventSource.DEPOSIT));
+                    return MAPPER.toAccountDTO(deposited.get());
+                }
+            }
+            final Account account = accountRepository.findById(id).orElseThrow(() -> new NotFoundResourceException("Account not found"));
+            AccountHistory history = accountRepository.findCountryById(id)
+                    .flatMap(this::cpiSeries)
+                    .map(cpiSeries -> account.deposit(deposit, cpiSeries, CpiSeries.monthOrdinal(YearMonth.now())))
+                    .orElseGet(() -> account.deposit(deposit));
+            Account savedAccount = accountRepository.save(account);
+            historyAppender.append(history);
+            outboxService.append(new AccountNetAmountPerUserEvent(savedAccount.getUserId(), EventSource.DEPOSIT));
+            return MAPPER.toAccountDTO(savedAccount);
+        });
     }
 
-    @Transactional(isolation = Isolation.READ_UNCOMMITTED)
+    /**
+     * Recalculates the net amount of every account of the user, holding their locks so
+     * that it queues with the deposits to them instead of failing on their versions.
+     * Conflicts with other instances are retried, see
+     * {@link AccountUpdateExecutor#execute(java.util.Collection, java.util.function.Supplier)}.
+     */
     public void recalculateNetAmountPerUser(Long userId) {
         UserDTO user = userService.findById(userId);
         Country country = user.country();
+        Optional<CpiSeries> cpiSeriesOpt = cpiSeries(country);
+        if (cpiSeriesOpt.isPresent()) {
+            CpiSeries cpiSeries = cpiSeriesOpt.get();
+            accountUpdateExecutor.execute(accountRepository.findIdsByUserId(userId), () -> {
+                List<Account> accounts = accountRepository.findAllByUserId(userId);
+                accounts.forEach(account -> account.calculateNetAmount(cpiSeries, cpiSeries.getLastMonth()));
+                accountRepository.saveAll(accounts);
+                outboxService.append(new RetirementGoalEvent(userId, EventSource.RECALCULATION_NET_AMOUNT));
+                return null;
+            });
+            return;
+        }
+
         Optional<InflationRate> inflationRateOpt = inflationService.fetchLatestMonthlyInflationRateForYearToDate(country);
 
         if (inflationRateOpt.isEmpty()) {
@@ -89,11 +140,70 @@ public class AccountService {
             return;
         }
 
-        List<Account> accounts = accountRepository.findAllByUserId(userId);
-        InflationRate latestInflationRate = inflationRateOpt.get();
+        long rateInHundredths = inflationRateOpt.get().calculateRateFromPercentageInHundredths();
+        accountUpdateExecutor.execute(accountRepository.findIdsByUserId(userId), () -> {
+            List<Account> accounts = accountRepository.findAllByUserId(userId);
+            accounts.forEach(account -> account.calculateNetAmount(rateInHundredths));
+            accountRepository.saveAll(accounts);
+            outboxService.append(new RetirementGoalEvent(userId, EventSource.RECALCULATION_NET_AMOUNT));
+            return null;
+        });
+    }
+
+    /**
+     * Set-based variant of {@link #recalculateNetAmountPerUser(Long)} used by the
+     * scan: every account of the given users is updated with one statement, and the
+     * recalculation of the retirement goals of those users is recorded in the outbox.
+     * When the CPI of the country is known the indexed accounts are revalued with one
+     * multiplication each; the ones not indexed yet are loaded once to be indexed.
+     * @param userIds users sharing the same country
+     * @param inflationRate the inflation rate of that country
+     * @return the number of accounts updated
+     */
+    @Transactional
+    public int recalculateNetAmountPerUsers(List<Long> userIds, InflationRate inflationRate) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        int updated = cpiSeries(inflationRate.getCountry())
+                .map(cpiSeries -> recalculateNetAmountFromIndex(userIds, cpiSeries))
+                .orElseGet(() -> accountRepository.updateNetAmountByUserIds(inflationRate.calculateRateFromPercentage(), userIds));
+        log.debug("Net amount recalculated for {} accounts of {} users", updated, userIds.size());
+        outboxService.appendAll(userIds.stream()
+                .map(userId -> new RetirementGoalEvent(userId, EventSource.RECALCULATION_NET_AMOUNT))
+                .toList());
+        return updated;
+    }
+
+    private int recalculateNetAmountFromIndex(List<Long> userIds, CpiSeries cpiSeries) {
+        int month = cpiSeries.getLastMonth();
+        int updated = accountRepository.updateNetAmountFromIndexByUserIds(BigDecimal.valueOf(cpiSeries.purchasingPower(month)), userIds);
+        List<Account> notIndexed = accountRepository.findAllByUserIdInAndAmountIndexedIsNull(userIds);
+        if (!notIndexed.isEmpty()) {
+            notIndexed.forEach(account -> account.calculateNetAmount(cpiSeries, month));
+            accountRepository.saveAll(notIndexed);
+        }
+        return updated + notIndexed.size();
+    }
+
+    /**
+     * @return the deposit indexed as {@link Account#deposit(Money, CpiSeries, int)} does,
+     * for every country with a CPI series
+     */
+    private Map<Country, Money> indexedDeposits(Money deposit) {
+        int currentMonth = CpiSeries.monthOrdinal(YearMonth.now());
+        Map<Country, Money> indexedDeposits = new EnumMap<>(Country.class);
+        for (Country country : Country.values()) {
+            cpiSeries(country).ifPresent(cpiSeries -> indexedDeposits.put(country,
+                    Money.ofMinorUnits(Money.divide(deposit.getMinorUnits(), cpiSeries.purchasingPower(currentMonth)))));
+        }
+        return indexedDeposits;
+    }
 
-        accounts.forEach(account -> account.calculateNetAmount(latestInflationRate));
-        accountRepository.saveAll(accounts);
-        eventPublisher.publishEvent(new RetirementGoalEvent(userId, EventSource.RECALCULATION_NET_AMOUNT));
+    private Optional<CpiSeries> cpiSeries(Country country) {
+        return Optional.ofNullable(country)
+                .flatMap(c -> cpiIndexStore.series(c, Indicator.PCPI_IX))
+                .filter(cpiSeries -> cpiSeries.getLastMonth() >= 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.exception.ConcurrentUpdateException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs each update of an account in a transaction of its own, one at a time per account
+ * within this instance, so that concurrent deposits to a hot account queue in memory
+ * instead of failing on its version. Accounts share a fixed number of lock stripes, so
+ * the locks do not grow with the accounts. Conflicts with other instances, or with the
+ * set-based recalculations of a scan, are retried a bounded number of times.
+ */
+@Component
+@Log4j2
+public class AccountUpdateExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final AtomicLong conflictCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    public AccountUpdateExecutor(PlatformTransactionManager transactionManager,
+            @Value("${accounts.update.lock-stripes:1024}") int lockStripes,
+            @Value("${accounts.update.max-attempts:5}") int maxAttempts,
+            @Value("${accounts.update.retry-backoff.ms:5}") long retryBackoffMs) {
+        if (lockStripes < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one lock stripe and one attempt are required");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * @param update reads the account, changes it and saves it; run again on a conflict,
+     *            so it must not keep state between runs
+     * @throws ConcurrentUpdateException when every attempt conflicted
+     */
+    public <T> T execute(Long accountId, Supplier<T> update) {
+        ReentrantLock lock = stripe(accountId);
+        lock.lock();
+        try {
+            return retry("Account " + accountId, update);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an update of several accounts, such as the recalculation of the net amounts
+     * of a user, holding the lock of each of them like {@link #execute(Long, Supplier)}.
+     * The locks are taken in stripe order, so two such updates cannot wait on each other.
+     * @throws ConcurrentUpdateException when every attempt conflicted
+     */
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> update) {
+        List<ReentrantLock> locks = accountIds.stream().map(this::stripeIndex).distinct().sorted()
+                .map(index -> stripes[index]).toList();
+        locks.forEach(ReentrantLock::lock);
+        try {
+            return retry("Accounts " + accountIds, update);
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private <T> T retry(String updated, Supplier<T> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> update.get());
+            } catch (OptimisticLockingFailureException e) {
+                conflictCount.incrementAndGet();
+                if (attempt == maxAttempts) {
+                    exhaustedCount.incrementAndGet();
+                    throw new ConcurrentUpdateException(updated + " is being updated concurrently, try again");
+                }
+                log.debug("{} updated concurrently, attempt {} of {}", updated, attempt, maxAttempts);
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * @return number of updates that conflicted with a concurrent one so far
+     */
+    public long getConflictCount() {
+        return conflictCount.get();
+    }
+
+    /**
+     * @return number of updates given up after every attempt conflicted
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    private ReentrantLock stripe(Long accountId) {
+        return stripes[stripeIndex(accountId)];
+    }
+
+    private int stripeIndex(Long accountId) {
+        int hash = Long.hashCode(accountId) * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    /**
+     * Sleeps a random time up to the backoff times the attempt, so that the instances
+     * retrying the same account do not collide again.
+     */
+    private void backOff(int attempt) {
+        if (retryBackoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMs * attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a concurrent update");
+        }
+    }
+}
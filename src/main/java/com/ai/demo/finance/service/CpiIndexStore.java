@@ -0,0 +1,242 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.external.imf.Observation;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory monthly CPI of every country and indicator, the source of the inflation
+ * lookups. Each query reads at most two array slots: it takes constant time and does
+ * not allocate. Queries return percentages, {@code NaN} when a month they need is
+ * unknown.
+ * <p>
+ * Series are written to Redis by {@link Update#commit()} and loaded back on startup;
+ * the other instances reload a series when told on the {@link #INVALIDATION_CHANNEL}.
+ */
+@Component
+@Log4j2
+public class CpiIndexStore implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cpi-index-invalidation";
+    private static final Country[] COUNTRIES = Country.values();
+    private static final Indicator[] INDICATORS = Indicator.values();
+    private final RedisTemplate<String, CpiSeries> redisTemplate;
+    private final RedisMetrics redisMetrics;
+    private final AtomicReferenceArray<CpiSeries> series = new AtomicReferenceArray<>(COUNTRIES.length * INDICATORS.length);
+
+    public CpiIndexStore(RedisTemplate<String, CpiSeries> redisTemplate, RedisMetrics redisMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.redisMetrics = redisMetrics;
+    }
+
+    /**
+     * @return the index of the month, {@code NaN} when unknown
+     */
+    public double index(Country country, Indicator indicator, int monthOrdinal) {
+        CpiSeries cpiSeries = series.get(slot(country, indicator));
+        return cpiSeries == null ? Double.NaN : cpiSeries.valueAt(monthOrdinal);
+    }
+
+    /**
+     * @return the current series, to read several months of the same snapshot
+     */
+    public Optional<CpiSeries> series(Country country, Indicator indicator) {
+        return Optional.ofNullable(series.get(slot(country, indicator)));
+    }
+
+    /**
+     * @return the latest month with an observation, -1 when there is none
+     */
+    public int latestMonth(Country country, Indicator indicator) {
+        CpiSeries cpiSeries = series.get(slot(country, indicator));
+        return cpiSeries == null ? -1 : cpiSeries.getLastMonth();
+    }
+
+    /**
+     * @return the inflation between two months, in percent
+     */
+    public double change(Country country, Indicator indicator, int fromMonth, int toMonth) {
+        CpiSeries cpiSeries = series.get(slot(country, indicator));
+        if (cpiSeries == null) {
+            return Double.NaN;
+        }
+        return (cpiSeries.valueAt(toMonth) / cpiSeries.valueAt(fromMonth) - 1) * 100;
+    }
+
+    /**
+     * @return what an amount held from {@code fromMonth} to {@code toMonth} is worth,
+     *         per unit, {@code NaN} when the series is unknown
+     * @see CpiSeries#purchasingPower(int)
+     */
+    public double realValueFactor(Country country, Indicator indicator, int fromMonth, int toMonth) {
+        CpiSeries cpiSeries = series.get(slot(country, indicator));
+        if (cpiSeries == null) {
+            return Double.NaN;
+        }
+        return cpiSeries.purchasingPower(toMonth) / cpiSeries.purchasingPower(fromMonth);
+    }
+
+    public double monthOverMonth(Country country, Indicator indicator, int monthOrdinal) {
+        return change(country, indicator, monthOrdinal - 1, monthOrdinal);
+    }
+
+    public double yearOverYear(Country country, Indicator indicator, int monthOrdinal) {
+        return change(country, indicator, monthOrdinal - 12, monthOrdinal);
+    }
+
+    /**
+     * @return the inflation since December of the previous year, in percent
+     */
+    public double yearToDate(Country country, Indicator indicator, int monthOrdinal) {
+        return change(country, indicator, monthOrdinal - Math.floorMod(monthOrdinal, 12) - 1, monthOrdinal);
+    }
+
+    /**
+     * @return collects observations until {@link Update#commit()} applies them at once
+     */
+    public Update newUpdate() {
+        return new Update();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            List<String> keys = Arrays.stream(COUNTRIES)
+                    .flatMap(country -> Arrays.stream(INDICATORS).map(indicator -> CpiSeries.generateKey(country, indicator)))
+                    .toList();
+            List<CpiSeries> loaded = Optional.ofNullable(redisMetrics.record("MGET", () -> redisTemplate.opsForValue().multiGet(keys)))
+                    .orElseGet(List::of).stream()
+                    .filter(cpiSeries -> cpiSeries != null && cpiSeries.getCountry() != null && cpiSeries.getIndicator() != null)
+                    .toList();
+            loaded.forEach(this::put);
+            log.info("CPI index loaded for {} series", loaded.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not load the CPI index, it is filled by the next scan: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        CpiSeries cpiSeries = redisMetrics.record("GET", () -> redisTemplate.opsForValue().get(key));
+        if (cpiSeries != null) {
+            log.debug("CPI series {} reloaded", key);
+            put(cpiSeries);
+        }
+    }
+
+    private void put(CpiSeries cpiSeries) {
+        series.set(slot(cpiSeries.getCountry(), cpiSeries.getIndicator()), cpiSeries);
+    }
+
+    private static int slot(Country country, Indicator indicator) {
+        return country.ordinal() * INDICATORS.length + indicator.ordinal();
+    }
+
+    /**
+     * Observations of one scan. Not thread safe.
+     */
+    public final class Update implements Consumer<Observation> {
+
+        private final Map<Integer, PendingSeries> pending = new HashMap<>();
+
+        private Update() {
+        }
+
+        @Override
+        public void accept(Observation observation) {
+            record(observation.country(), observation.indicator(), YearMonth.parse(observation.timePeriod()),
+                    observation.value().doubleValue());
+        }
+
+        public void record(Country country, Indicator indicator, YearMonth month, double value) {
+            pending.computeIfAbsent(slot(country, indicator), key -> new PendingSeries(country, indicator))
+                    .set(CpiSeries.monthOrdinal(month), value);
+        }
+
+        /**
+         * Merges the recorded observations into the store and writes the series
+         * changed to Redis.
+         */
+        public void commit() {
+            for (PendingSeries pendingSeries : pending.values()) {
+                CpiSeries merged;
+                synchronized (CpiIndexStore.this) {
+                    CpiSeries current = series.get(slot(pendingSeries.country, pendingSeries.indicator));
+                    merged = current == null
+                            ? new CpiSeries(pendingSeries.country, pendingSeries.indicator, pendingSeries.firstMonth,
+                                    Arrays.copyOf(pendingSeries.values, pendingSeries.length))
+                            : current.merge(pendingSeries.firstMonth, Arrays.copyOf(pendingSeries.values, pendingSeries.length));
+                    put(merged);
+                }
+                String key = merged.getKey();
+                CpiSeries stored = merged;
+                redisMetrics.record("SET", () -> redisTemplate.opsForValue().set(key, stored));
+                redisMetrics.record("PUBLISH", () -> redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                        INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8))));
+            }
+            pending.clear();
+        }
+    }
+
+    private static final class PendingSeries {
+
+        private final Country country;
+        private final Indicator indicator;
+        private int firstMonth;
+        private double[] values = new double[0];
+        private int length;
+
+        private PendingSeries(Country country, Indicator indicator) {
+            this.country = country;
+            this.indicator = indicator;
+        }
+
+        void set(int month, double value) {
+            if (length == 0) {
+                firstMonth = month;
+                values = newValues(Math.max(values.length, 16));
+                length = 1;
+            } else if (month < firstMonth) {
+                int shift = firstMonth - month;
+                double[] grown = newValues(Math.max(values.length, length + shift) * 2);
+                System.arraycopy(values, 0, grown, shift, length);
+                values = grown;
+                firstMonth = month;
+                length += shift;
+            } else if (month - firstMonth >= length) {
+                length = month - firstMonth + 1;
+                if (length > values.length) {
+                    double[] grown = newValues(length * 2);
+                    System.arraycopy(values, 0, grown, 0, values.length);
+                    values = grown;
+                }
+            }
+            values[month - firstMonth] = value;
+        }
+
+        private static double[] newValues(int size) {
+            double[] newValues = new double[size];
+            Arrays.fill(newValues, Double.NaN);
+            return newValues;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ai.demo.finance.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traffic counters of the IMF client. Bytes are counted on the wire, before the gzip
+ * response bodies are decompressed. The leases are those of the connection pool, published
+ * by Reactor Netty as the {@code reactor.netty.connection.provider.*} gauges.
+ */
+@Component
+public class ImfClientStats {
+
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final AtomicLong notModifiedCount = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    public void recordConnection() {
+        connectionCount.incrementAndGet();
+    }
+
+    public void recordNotModified() {
+        notModifiedCount.incrementAndGet();
+    }
+
+    public void recordBytesReceived(long bytes) {
+        bytesReceived.addAndGet(bytes);
+    }
+
+    public void recordBytesSent(long bytes) {
+        bytesSent.addAndGet(bytes);
+    }
+
+    /**
+     * @return number of connections opened, the other requests reused a kept-alive one
+     */
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return number of requests answered with a 304 and served from the last response
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+}
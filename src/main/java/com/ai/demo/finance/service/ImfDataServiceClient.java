@@ -0,0 +1,193 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.CompactDataStreamParser;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.external.imf.Observation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking client for the IMF IFS CompactData API. The countries of the last response
+ * of every request are kept with its {@code ETag} and {@code Last-Modified} validators,
+ * so asking again for series that have not changed costs a 304 without a body. At most
+ * {@code imf.cache.max-responses} responses are kept, the least recently requested one
+ * making room for a new one. A response is only revalidated while the {@link CpiIndexStore}
+ * still holds the series of every one of its countries, as a 304 brings no observations
+ * to rebuild them; otherwise it is dropped and fetched again in full.
+ * <p>
+ * Responses are parsed as they arrive with a {@link CompactDataStreamParser}, every
+ * observation being handed to the caller rather than kept. Asking for decades of history
+ * does not take more memory.
+ */
+@Component
+@Log4j2
+public class ImfDataServiceClient {
+
+    private static final String FREQUENCY = "M";
+    private static final String KEY_SEPARATOR = ".";
+    private static final String REF_AREA_SEPARATOR = "+";
+    private final WebClient imfWebClient;
+    private final ImfClientStats imfClientStats;
+    private final CpiIndexStore cpiIndexStore;
+    private final Map<String, CachedResponse> cachedResponses;
+
+    public ImfDataServiceClient(WebClient imfWebClient, ImfClientStats imfClientStats, CpiIndexStore cpiIndexStore,
+            @Value("${imf.cache.max-responses:256}") int maxCachedResponses) {
+        this.imfWebClient = imfWebClient;
+        this.imfClientStats = imfClientStats;
+        this.cpiIndexStore = cpiIndexStore;
+        this.cachedResponses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxCachedResponses;
+            }
+        });
+    }
+
+    /**
+     * Fetches the monthly CPI series of several countries in a single request, using a
+     * multi reference area key such as {@code M.ES+US+BR.PCPI_IX}.
+     * @param countries the reference areas
+     * @param startPeriod first year of the series
+     * @param endPeriod last year of the series
+     * @param observationConsumer receives every observation as it is parsed; none when
+     *            the series are not modified since the last request
+     * @return the countries the IMF has data for
+     */
+    public Flux<Country> fetchMonthlyInflationRates(Collection<Country> countries, Integer startPeriod, Integer endPeriod,
+            Consumer<Observation> observationConsumer) {
+        String key = generateKey(countries);
+        String requestKey = key + "/" + startPeriod + "-" + endPeriod;
+        CachedResponse cachedResponse = revalidatable(requestKey);
+
+        return imfWebClient.get()
+                .uri(uriBuilder -> uriBuilder.pathSegment(key)
+                        .queryParam("startPeriod", startPeriod)
+                        .queryParam("endPeriod", endPeriod)
+                        .build())
+                .headers(headers -> {
+                    if (cachedResponse != null) {
+                        cachedResponse.addValidators(headers);
+                    }
+                })
+                .exchangeToMono(response -> readCountries(response, key, requestKey, cachedResponse, observationConsumer))
+                .flatMapIterable(returned -> returned);
+    }
+
+    private Mono<Set<Country>> readCountries(ClientResponse response, String key, String requestKey, CachedResponse cachedResponse,
+            Consumer<Observation> observationConsumer) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cachedResponse != null) {
+            log.debug("Inflation rates for {} not modified", key);
+            imfClientStats.recordNotModified();
+            return response.releaseBody().then(Mono.just(cachedResponse.countries()));
+        }
+        if (response.statusCode().isError()) {
+            return response.createError();
+        }
+
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        return Mono.defer(() -> {
+            Set<Country> countries = EnumSet.noneOf(Country.class);
+            Consumer<Observation> countryCollector = observation -> {
+                if (observation.country() != null) {
+                    countries.add(observation.country());
+                }
+            };
+            CompactDataStreamParser parser = new CompactDataStreamParser(countryCollector.andThen(observationConsumer));
+            return response.bodyToFlux(DataBuffer.class)
+                    .doOnNext(buffer -> feed(parser, buffer))
+                    .then(Mono.fromCallable(() -> {
+                        parser.endOfInput();
+                        return countries;
+                    }))
+                    .doFinally(signal -> closeQuietly(parser));
+        })
+                .doOnNext(countries -> log.debug("Retrieved inflation rates for {}: {}", key, countries))
+                .doOnNext(countries -> cache(requestKey, headers, countries));
+    }
+
+    private static void feed(CompactDataStreamParser parser, DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            parser.feed(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static void closeQuietly(CompactDataStreamParser parser) {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            log.debug("Could not close the CompactData parser", e);
+        }
+    }
+
+    /**
+     * @return the cached response of the request, {@code null} when there is none or when
+     * the series of one of its countries is no longer in the {@link CpiIndexStore}
+     */
+    private CachedResponse revalidatable(String requestKey) {
+        CachedResponse cachedResponse = cachedResponses.get(requestKey);
+        if (cachedResponse == null
+                || cachedResponse.countries().stream().allMatch(country -> cpiIndexStore.series(country, Indicator.PCPI_IX).isPresent())) {
+            return cachedResponse;
+        }
+        log.debug("Series of {} missing from the CPI index store, fetching them in full", requestKey);
+        cachedResponses.remove(requestKey);
+        return null;
+    }
+
+    private void cache(String requestKey, HttpHeaders headers, Set<Country> countries) {
+        String eTag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (eTag == null && lastModified == null) {
+            return;
+        }
+        cachedResponses.put(requestKey, new CachedResponse(eTag, lastModified, Set.copyOf(countries)));
+    }
+
+    static String generateKey(Collection<Country> countries) {
+        return FREQUENCY + KEY_SEPARATOR
+                + countries.stream().map(Country::name).collect(Collectors.joining(REF_AREA_SEPARATOR))
+                + KEY_SEPARATOR + Indicator.PCPI_IX.name();
+    }
+
+    /**
+     * No observations: they were handed to the caller when the response was first read.
+     */
+    private record CachedResponse(String eTag, String lastModified, Set<Country> countries) {
+
+        void addValidators(HttpHeaders headers) {
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+}
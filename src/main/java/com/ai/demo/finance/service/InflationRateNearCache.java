@@ -0,0 +1,130 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.model.cache.InflationRate;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process copy of the inflation rates read from Redis, keyed like Redis. Missing
+ * rates are cached too, so looking up a month not published yet does not reach Redis
+ * every time. Entries expire after {@code imf.near-cache.ttl.ms} and are invalidated
+ * on every instance through the {@link #INVALIDATION_CHANNEL} whenever a rate is
+ * written.
+ * <p>
+ * A load marks its key first, and only caches its result if the mark is still there
+ * when it completes: an invalidation arriving while Redis is read removes the mark, so
+ * the value read before the write is dropped instead of cached for the whole TTL.
+ */
+@Component
+@Log4j2
+public class InflationRateNearCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "inflation-rate-invalidation";
+    private static final int EVICTION_THRESHOLD = 1024;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public InflationRateNearCache(@Value("${imf.near-cache.ttl.ms:600000}") long ttlMs) {
+        this.ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+    }
+
+    /**
+     * @param key the Redis key of the rate
+     * @param loader reads the rate from Redis on a miss, returning null when absent
+     * @return the rate, empty when Redis has none
+     */
+    public Optional<InflationRate> get(String key, Function<String, InflationRate> loader) {
+        if (ttlNanos <= 0) {
+            missCount.incrementAndGet();
+            return Optional.ofNullable(loader.apply(key));
+        }
+
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - now > 0) {
+            hitCount.incrementAndGet();
+            return entry.inflationRate;
+        }
+
+        missCount.incrementAndGet();
+        if (entries.size() >= EVICTION_THRESHOLD) {
+            entries.values().removeIf(expired -> expired.expiresAt - now <= 0);
+        }
+        Entry loading = new Entry(Optional.empty(), now);
+        entries.put(key, loading);
+        Optional<InflationRate> inflationRate = Optional.ofNullable(loader.apply(key));
+        if (!entries.replace(key, loading, new Entry(inflationRate, now + ttlNanos))) {
+            log.debug("Inflation rate {} invalidated while loaded, not cached", key);
+        }
+        return inflationRate;
+    }
+
+    public void invalidate(String key) {
+        if (entries.remove(key) != null) {
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        log.debug("Inflation rate {} invalidated", key);
+        invalidate(key);
+    }
+
+    /**
+     * @return number of lookups answered locally
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of lookups that reached Redis
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of entries dropped by an invalidation
+     */
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * @return number of entries held, including expired ones not evicted yet
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Compared by identity, so that a load only replaces its own mark. The mark of a load
+     * in progress has expired already, so it is never answered as a hit.
+     */
+    private static final class Entry {
+
+        private final Optional<InflationRate> inflationRate;
+        private final long expiresAt;
+
+        private Entry(Optional<InflationRate> inflationRate, long expiresAt) {
+            this.inflationRate = inflationRate;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -3,124 +3,227 @@ package com.ai.demo.finance.service;
 import static com.ai.demo.finance.model.cache.InflationRateKeyGenerator.generateKey;
 
 import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.event.account.AccountNetAmountBatchEvent;
 import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
-import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.enums.Country;
-import com.ai.demo.finance.model.external.imf.CompactData;
-import com.ai.demo.finance.model.external.imf.DataSet;
-import com.ai.demo.finance.model.external.imf.IFSResponse;
 import com.ai.demo.finance.model.external.imf.Indicator;
-import com.ai.demo.finance.model.external.imf.RatePeriod;
-import com.ai.demo.finance.model.external.imf.Series;
 import com.ai.demo.finance.model.repository.UserRepository;
-import java.net.URI;
+import io.micrometer.core.annotation.Timed;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 @Log4j2
+@Timed(value = "finance.service", histogram = true)
 public class InflationService {
 
-    private final RestTemplate restTemplate;
-    private final String ifsBaseUrl;
+    private static final int RATE_SCALE = 2;
+    private final ImfDataServiceClient imfDataServiceClient;
     private final RedisTemplate<String, InflationRate> redisTemplate;
+    private final InflationRateNearCache nearCache;
+    private final RedisMetrics redisMetrics;
+    private final CpiIndexStore cpiIndexStore;
     private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
     private final UserRepository userRepository;
-
-    public InflationService(RestTemplate restTemplate,
-            @Value("${ifs.dataservice.base.url:http://dataservices.imf.org/REST/SDMX_JSON.svc/CompactData/IFS}") String ifsBaseUrl,
-            RedisTemplate<String, InflationRate> redisTemplate, ApplicationEventPublisher eventPublisher,
-            UserRepository userRepository) {
-        this.restTemplate = restTemplate;
-        this.ifsBaseUrl = ifsBaseUrl;
+    private final boolean bulkRecalculation;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int batchSize;
+
+    public InflationService(ImfDataServiceClient imfDataServiceClient,
+            RedisTemplate<String, InflationRate> redisTemplate, InflationRateNearCache nearCache, RedisMetrics redisMetrics,
+            CpiIndexStore cpiIndexStore, ApplicationEventPublisher eventPublisher, OutboxService outboxService,
+            UserRepository userRepository,
+            @Value("${imf.scan.bulk-recalculation:true}") boolean bulkRecalculation,
+            @Value("${imf.scan.chunk-size:1000}") int chunkSize,
+            @Value("${imf.scan.parallelism:4}") int parallelism,
+            @Value("${imf.scan.batch-size:20}") int batchSize) {
+        this.imfDataServiceClient = imfDataServiceClient;
         this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+        this.redisMetrics = redisMetrics;
+        this.cpiIndexStore = cpiIndexStore;
         this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
         this.userRepository = userRepository;
+        this.bulkRecalculation = bulkRecalculation;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
     }
 
+    /**
+     * Reads the rate of the current or else the previous month from the CPI index,
+     * falling back to the rates cached in Redis while the index has not been filled.
+     */
     public Optional<InflationRate> fetchLatestMonthlyInflationRateForYearToDate(Country country) {
-        String key = generateKey(country, LocalDate.now());
-        return Optional.ofNullable(redisTemplate.opsForValue().get(key))
-                .or(() -> Optional.ofNullable(redisTemplate.opsForValue().get(generateKey(country, LocalDate.now().minusMonths(1L)))));
-
-    }
-
-    private Optional<Series> fetchMonthlyInflationRate(Country country, Integer startPeriod, Integer endPeriod) {
-
-        String frequency = "M";
-        String param = frequency.concat(".").concat(country.name()).concat(".")
-                .concat(Indicator.PCPI_IX.name())
-                .concat("?startPeriod=" + startPeriod)
-                .concat("&endPeriod=" + endPeriod);
-        URI url = URI.create(ifsBaseUrl.concat("/").concat(param));
-        log.debug("Retrieved inflation rate: {}", url);
-
-        ResponseEntity<IFSResponse> response = restTemplate.getForEntity(url, IFSResponse.class);
-        log.info("Retrieved inflation rate: {}", response.getBody());
-
-        var body = response.getBody();
+        int currentMonth = CpiSeries.monthOrdinal(YearMonth.now());
+        Optional<InflationRate> indexed = monthlyInflationRate(country, currentMonth)
+                .or(() -> monthlyInflationRate(country, currentMonth - 1));
+        if (indexed.isPresent()) {
+            return indexed;
+        }
 
-        return Optional.ofNullable(body)
-                .map(IFSResponse::getCompactData)
-                .map(CompactData::getDataSet)
-                .map(DataSet::getSeries);
+        String key = generateKey(country, LocalDate.now());
+        return nearCache.get(key, this::readInflationRate)
+                .or(() -> nearCache.get(generateKey(country, LocalDate.now().minusMonths(1L)), this::readInflationRate));
     }
 
     @Scheduled(cron = "${imf.scheduler.cron}")
+    @Timed(value = "finance.inflation.scan", description = "Duration of the scheduled scan of every country", histogram = true)
     public void scan() {
         log.info("Starting scan");
+        List<CountryScanResult> results = scan(List.of(Country.values()));
+
+        results.stream().filter(result -> !result.succeeded())
+                .forEach(result -> log.error("Could not find inflation rate for country {}: {}", result.country().name(), result.error()));
+        log.info("Scan finished: {} of {} countries updated", results.stream().filter(CountryScanResult::succeeded).count(),
+                results.size());
+    }
+
+    /**
+     * Fetches, calculates and caches the inflation rate of the given countries. Countries
+     * are grouped into batches of {@code imf.scan.batch-size}, each batch being a single
+     * IMF request, and at most {@code imf.scan.parallelism} batches are fetched at a time.
+     * A failing country or batch does not stop the others.
+     * @param countries the countries to scan
+     * @return one result per country, in completion order
+     */
+    List<CountryScanResult> scan(List<Country> countries) {
         LocalDate now = LocalDate.now();
-        LocalDate previousMonth = now.minusMonths(1L);
+        LocalDate yearBeforePreviousMonth = now.minusMonths(13L);
 
-        for (Country country : Country.values()) {
+        return Flux.fromIterable(countries)
+                .buffer(batchSize)
+                .flatMap(batch -> scanBatch(batch, yearBeforePreviousMonth.getYear(), now.getYear()), parallelism)
+                .collectList()
+                .block();
+    }
 
-            Optional<Series> imfData = fetchMonthlyInflationRate(country, previousMonth.getYear(), now.getYear());
-            if (imfData.isEmpty()) {
-                log.error("Could not find inflation rate for country {}", country.name());
-                continue;
-            }
+    /**
+     * Every observation of the batch is recorded in the CPI index as it is parsed. When
+     * the IMF answers that nothing changed, the index already holds the observations of
+     * the response it answered first.
+     */
+    private Flux<CountryScanResult> scanBatch(List<Country> batch, Integer startPeriod, Integer endPeriod) {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        return imfDataServiceClient.fetchMonthlyInflationRates(batch, startPeriod, endPeriod, update)
+                .collect(Collectors.toSet())
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(countries -> update.commit())
+                .flatMapIterable(countries -> batch.stream()
+                        .map(country -> scanCountry(country, countries.contains(country)))
+                        .toList())
+                .onErrorResume(e -> Flux.fromIterable(batch).map(country -> CountryScanResult.failure(country, e.getMessage())));
+    }
 
-            Series series = imfData.get();
-            RatePeriod ratePeriodCalculated = series.calculateMonthInflationRate();
-            InflationRate inflationRate = cacheInflationRate(ratePeriodCalculated, country);
+    private CountryScanResult scanCountry(Country country, boolean returned) {
+        if (!returned) {
+            return CountryScanResult.failure(country, "no data returned by the IMF");
+        }
+        try {
+            int latestMonth = cpiIndexStore.latestMonth(country, Indicator.PCPI_IX);
+            Optional<InflationRate> monthlyInflationRate = monthlyInflationRate(country, latestMonth);
+            if (monthlyInflationRate.isEmpty()) {
+                return CountryScanResult.failure(country, "not enough observations to calculate the monthly rate");
+            }
+            InflationRate inflationRate = cacheInflationRate(monthlyInflationRate.get());
             sendEventToRecalculateRetirementGoals(inflationRate);
+            return CountryScanResult.success(country, inflationRate);
+        } catch (RuntimeException e) {
+            return CountryScanResult.failure(country, e.getMessage());
         }
-
     }
 
-    private InflationRate cacheInflationRate(RatePeriod ratePeriod, Country country) {
-        InflationRate inflationRate = InflationRate.builder().percentageRate(ratePeriod.getRate())
+    /**
+     * The month-over-month change of the CPI index, in percent, rounded to
+     * {@value #RATE_SCALE} decimals only once calculated.
+     */
+    private Optional<InflationRate> monthlyInflationRate(Country country, int month) {
+        double percentageRate = cpiIndexStore.monthOverMonth(country, Indicator.PCPI_IX, month);
+        if (Double.isNaN(percentageRate)) {
+            return Optional.empty();
+        }
+        return Optional.of(InflationRate.builder()
+                .percentageRate(BigDecimal.valueOf(percentageRate).setScale(RATE_SCALE, RoundingMode.HALF_UP))
                 .country(country)
-                .indicator(Indicator.PCPI_IX).period(ratePeriod.getTimePeriod())
-                .build();
-        redisTemplate.opsForValue().set(generateKey(inflationRate), inflationRate);
+                .indicator(Indicator.PCPI_IX).period(CpiSeries.yearMonth(month).toString())
+                .build());
+    }
+
+    private InflationRate readInflationRate(String key) {
+        return redisMetrics.record("GET", () -> redisTemplate.opsForValue().get(key));
+    }
+
+    private InflationRate cacheInflationRate(InflationRate inflationRate) {
+        String key = generateKey(inflationRate);
+        redisMetrics.record("SET", () -> redisTemplate.opsForValue().set(key, inflationRate));
+        nearCache.invalidate(key);
+        redisMetrics.record("PUBLISH", () -> redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                InflationRateNearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8))));
         log.info("Inflation Rate cached: {}", inflationRate);
         return inflationRate;
     }
 
+    /**
+     * Walks the users of the country in keyset pages of {@code imf.scan.chunk-size} ids.
+     * In bulk mode every page becomes a single set-based update of their accounts;
+     * otherwise one event per user is recorded in the outbox.
+     * @param inflationRate the inflation rate just cached for a country
+     */
     private void sendEventToRecalculateRetirementGoals(InflationRate inflationRate) {
-        int page = 0;
-        int size = 100;
-        Page<User> userPage;
+        Limit limit = Limit.of(chunkSize);
+        Long lastId = 0L;
+        List<Long> userIds;
         do {
-            Pageable pageRequest = PageRequest.of(page, size);
-            userPage = userRepository.findAllByCountry(inflationRate.getCountry(), pageRequest);
+            userIds = userRepository.findIdsByCountryAfter(inflationRate.getCountry(), lastId, limit);
+            if (userIds.isEmpty()) {
+                return;
+            }
 
-            userPage.getContent().forEach(user -> eventPublisher.publishEvent(new AccountNetAmountPerUserEvent(user.getId(), EventSource.SCAN)));
+            if (bulkRecalculation) {
+                eventPublisher.publishEvent(new AccountNetAmountBatchEvent(userIds, inflationRate, EventSource.SCAN));
+            } else {
+                outboxService.appendScanEvents(userIds.stream()
+                        .map(userId -> new AccountNetAmountPerUserEvent(userId, EventSource.SCAN))
+                        .toList());
+            }
 
-            page++;
-        } while (userPage.hasNext());
+            lastId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == chunkSize);
+    }
+
+    record CountryScanResult(Country country, InflationRate inflationRate, String error) {
+
+        static CountryScanResult success(Country country, InflationRate inflationRate) {
+            return new CountryScanResult(country, inflationRate, null);
+        }
+
+        static CountryScanResult failure(Country country, String error) {
+            return new CountryScanResult(country, null, error);
+        }
+
+        boolean succeeded() {
+            return error == null;
+        }
     }
 }
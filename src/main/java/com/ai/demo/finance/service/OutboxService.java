@@ -0,0 +1,74 @@
+package com.ai.demo.finance.service;
+
+import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
+import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
+import com.ai.demo.finance.model.OutboxEvent;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import com.ai.demo.finance.model.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records domain events in the outbox. Must be called within the transaction of the
+ * change raising the event, so either both are committed or none, except for the events
+ * raised without a change, like by a scan.
+ * <p>
+ * A net amount event is dispatched {@code events.account.coalescing-window.ms} after it
+ * was raised, together with every later event of the same user: one recalculation
+ * absorbs them all. A retirement goal event is dispatched
+ * {@code events.retirement-goal.batch-window.ms} after it was raised, so that the goals
+ * of the users whose events were raised meanwhile are read in the same micro-batch.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Duration coalescingWindow;
+    private final Duration batchWindow;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+            @Value("${events.account.coalescing-window.ms:200}") long coalescingWindowMs,
+            @Value("${events.retirement-goal.batch-window.ms:100}") long batchWindowMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.coalescingWindow = Duration.ofMillis(coalescingWindowMs);
+        this.batchWindow = Duration.ofMillis(batchWindowMs);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(AccountNetAmountPerUserEvent event) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEventType.ACCOUNT_NET_AMOUNT, event.userId(), event.source(),
+                coalescingWindow));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAccountNetAmountEvents(Collection<AccountNetAmountPerUserEvent> events) {
+        outboxEventRepository.saveAll(events.stream()
+                .map(event -> new OutboxEvent(OutboxEventType.ACCOUNT_NET_AMOUNT, event.userId(), event.source(),
+                        coalescingWindow))
+                .toList());
+    }
+
+    /**
+     * Records events raised without a change in a transaction of their own.
+     */
+    @Transactional
+    public void appendScanEvents(Collection<AccountNetAmountPerUserEvent> events) {
+        appendAccountNetAmountEvents(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(RetirementGoalEvent event) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEventType.RETIREMENT_GOAL, event.userId(), event.source(), batchWindow));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(Collection<RetirementGoalEvent> events) {
+        outboxEventRepository.saveAll(events.stream()
+                .map(event -> new OutboxEvent(OutboxEventType.RETIREMENT_GOAL, event.userId(), event.source(), batchWindow))
+                .toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.demo.finance.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Latency of the Redis commands, as the {@value #COMMAND_TIMER} histogram tagged by
+ * command. Neither the Jedis connections nor {@code RedisTemplate} are instrumented,
+ * so the services wrap each call.
+ */
+@Component
+public class RedisMetrics {
+
+    public static final String COMMAND_TIMER = "redis.commands";
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RedisMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String command, Supplier<T> call) {
+        return timer(command).record(call);
+    }
+
+    public void record(String command, Runnable call) {
+        timer(command).record(call);
+    }
+
+    /**
+     * @return the same value, timed from subscription until it completes or fails
+     */
+    public <T> Mono<T> record(String command, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doFinally(signal -> sample.stop(timer(command)));
+        });
+    }
+
+    private Timer timer(String command) {
+        return timers.computeIfAbsent(command, key -> Timer.builder(COMMAND_TIMER)
+                .description("Latency of the Redis commands")
+                .tag("command", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
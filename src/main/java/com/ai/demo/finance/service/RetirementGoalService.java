@@ -1,34 +1,118 @@
 package com.ai.demo.finance.service;
 
+import com.ai.demo.finance.dto.RetirementGoalsDTO;
 import com.ai.demo.finance.exception.InvalidOperationException;
 import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.model.cache.RetirementGoal;
+import io.micrometer.core.annotation.Timed;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
+@Timed(value = "finance.service", histogram = true)
 public class RetirementGoalService {
     private final RedisTemplate<String, RetirementGoal> redisTemplate;
+    private final ReactiveRedisTemplate<String, RetirementGoal> reactiveRedisTemplate;
+    private final RedisMetrics redisMetrics;
     private final Duration timeToLive;
+    private final int bulkMaxIds;
 
     public RetirementGoalService(RedisTemplate<String, RetirementGoal> template,
-            @Value("${redis.retirement-goal.ttl.mins:1440}") Long ttl) {
+            Optional<ReactiveRedisTemplate<String, RetirementGoal>> reactiveTemplate, RedisMetrics redisMetrics,
+            @Value("${redis.retirement-goal.ttl.mins:1440}") Long ttl,
+            @Value("${redis.retirement-goal.bulk.max-ids:500}") int bulkMaxIds) {
         this.redisTemplate = template;
+        this.reactiveRedisTemplate = reactiveTemplate.orElse(null);
+        this.redisMetrics = redisMetrics;
         this.timeToLive = Duration.ofMinutes(ttl);
+        this.bulkMaxIds = bulkMaxIds;
     }
 
     public void saveRetirementGoal(RetirementGoal retirementGoal) {
         if (retirementGoal == null) {
             throw new InvalidOperationException("retirementGoal is null");
         }
-        redisTemplate.opsForValue().set(retirementGoal.getKey(), retirementGoal, timeToLive);
+        redisMetrics.record("SET", () -> redisTemplate.opsForValue().set(retirementGoal.getKey(), retirementGoal, timeToLive));
+    }
+
+    /**
+     * Saves all the goals in a single Redis pipeline.
+     * @param retirementGoals the goals to save
+     */
+    public void saveRetirementGoals(Collection<RetirementGoal> retirementGoals) {
+        if (retirementGoals.isEmpty()) {
+            return;
+        }
+        redisMetrics.record("PIPELINE", () -> redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, RetirementGoal> valueOperations =
+                        ((RedisOperations<String, RetirementGoal>) operations).opsForValue();
+                retirementGoals.forEach(retirementGoal -> valueOperations.set(retirementGoal.getKey(), retirementGoal, timeToLive));
+                return null;
+            }
+        }));
     }
 
     public RetirementGoal getRetirementGoal(Long userId) {
-        return Optional.ofNullable(redisTemplate.opsForValue().get(String.valueOf(userId)))
+        return Optional.ofNullable(redisMetrics.record("GET", () -> redisTemplate.opsForValue().get(String.valueOf(userId))))
                 .orElseThrow(() -> new NotFoundResourceException("RetirementGoal not found for userId: " + userId));
     }
+
+    /**
+     * Non-blocking variant of {@link #getRetirementGoal(Long)}: no thread waits on Redis
+     * while the goal is read. Needs {@code redis.retirement-goal.reactive-reads}, which
+     * creates the reactive template.
+     * @param userId the user
+     * @return the goal, or an error with a {@link NotFoundResourceException} when absent
+     */
+    public Mono<RetirementGoal> findRetirementGoal(Long userId) {
+        if (reactiveRedisTemplate == null) {
+            return Mono.error(new IllegalStateException("Reactive reads are disabled, see redis.retirement-goal.reactive-reads"));
+        }
+        return redisMetrics.record("GET", reactiveRedisTemplate.opsForValue().get(String.valueOf(userId)))
+                .switchIfEmpty(Mono.error(() -> new NotFoundResourceException("RetirementGoal not found for userId: " + userId)));
+    }
+
+    /**
+     * Reads the goals of several users with a single MGET.
+     * @param userIds the users, duplicates are ignored
+     * @return the goals found, in the order requested, and the users without a goal
+     */
+    public RetirementGoalsDTO getRetirementGoals(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new InvalidOperationException("At least one userId is required");
+        }
+        List<Long> distinctUserIds = List.copyOf(new LinkedHashSet<>(userIds));
+        if (distinctUserIds.size() > bulkMaxIds) {
+            throw new InvalidOperationException("At most " + bulkMaxIds + " userIds can be requested at once");
+        }
+
+        List<String> keys = distinctUserIds.stream().map(String::valueOf).toList();
+        List<RetirementGoal> values = redisMetrics.record("MGET", () -> redisTemplate.opsForValue().multiGet(keys));
+        List<RetirementGoal> goals = new ArrayList<>(distinctUserIds.size());
+        List<Long> missingUserIds = new ArrayList<>();
+        for (int i = 0; i < distinctUserIds.size(); i++) {
+            RetirementGoal retirementGoal = values == null ? null : values.get(i);
+            if (retirementGoal == null) {
+                missingUserIds.add(distinctUserIds.get(i));
+            } else {
+                goals.add(retirementGoal);
+            }
+        }
+        return new RetirementGoalsDTO(goals, missingUserIds);
+    }
 }
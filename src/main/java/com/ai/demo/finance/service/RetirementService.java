@@ -8,19 +8,21 @@ import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.mapper.RetirementDetailMapper;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.repository.RetirementRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.mapstruct.factory.Mappers;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "finance.service", histogram = true)
 public class RetirementService {
 
     private static final RetirementDetailMapper MAPPER = Mappers.getMapper(RetirementDetailMapper.class);
     private final RetirementRepository retirementRepository;
     private final UserService userService;
-    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
     public RetirementDetailDTO createRetirementDetail(RetirementDetailDTO retirementDetail) {
         UserDTO user = userService.findByUsername(retirementDetail.username());
@@ -34,14 +36,14 @@ public class RetirementService {
                 .orElseThrow(() -> new NotFoundResourceException("Retirement not found"));
     }
 
+    @Transactional
     public RetirementDetailDTO updateRetirementDetail(Long id, RetirementDetailDTO dto) {
-        if (!retirementRepository.existsById(id)) {
-            throw new NotFoundResourceException("RetirementDetail not found with id " + id);
-        }
+        RetirementDetail current = retirementRepository.findById(id)
+                .orElseThrow(() -> new NotFoundResourceException("RetirementDetail not found with id " + id));
 
-        RetirementDetail retirementDetail = MAPPER.toRetirementDetail(dto);
+        RetirementDetail retirementDetail = MAPPER.toRetirementDetail(dto, current.getUserId());
         RetirementDetail saved = retirementRepository.save(retirementDetail);
-        eventPublisher.publishEvent(new RetirementGoalEvent(saved.getUserId(), EventSource.RETIREMENT_UPDATE));
+        outboxService.append(new RetirementGoalEvent(saved.getUserId(), EventSource.RETIREMENT_UPDATE));
         return MAPPER.toRetirementDetailDTO(saved);
 
     }
@@ -5,12 +5,14 @@ import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.mapper.UserMapper;
 import com.ai.demo.finance.model.User;
 import com.ai.demo.finance.model.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.mapstruct.factory.Mappers;
 import org.springframework.stereotype.Service;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "finance.service", histogram = true)
 public class UserService {
 
     private static final UserMapper MAPPER = Mappers.getMapper(UserMapper.class);
@@ -0,0 +1,105 @@
+package com.ai.demo.finance.benchmark;
+
+import com.ai.demo.finance.config.ObjectMapperConfig;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.CompactDataStreamParser;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares binding a whole CompactData response with streaming its observations, on a
+ * synthetic response of decades of monthly history. Run it with {@code -prof gc} to
+ * compare the allocation of both. The response is bound to the records below, the shape
+ * the client bound it to before it streamed it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactDataParserBenchmark {
+
+    @Param({"60", "600"})
+    private int series;
+
+    @Param("600")
+    private int monthsPerSeries;
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = syntheticResponse(series, monthsPerSeries);
+        System.out.printf("%nCompactData response: %d series, %.1f MB%n", series, response.length / (1024.0 * 1024.0));
+    }
+
+    @Benchmark
+    public BoundResponse bindWholeResponse() throws IOException {
+        return objectMapper.readValue(response, BoundResponse.class);
+    }
+
+    @Benchmark
+    public long streamObservations() throws IOException {
+        LongAdder observations = new LongAdder();
+        CompactDataStreamParser.parse(new ByteArrayInputStream(response), observation -> observations.increment());
+        return observations.sum();
+    }
+
+    private static byte[] syntheticResponse(int series, int monthsPerSeries) {
+        Country[] countries = Country.values();
+        YearMonth firstMonth = YearMonth.of(1970, 1);
+        StringBuilder json = new StringBuilder("{\"CompactData\":{\"DataSet\":{\"Series\":[");
+        for (int s = 0; s < series; s++) {
+            json.append(s == 0 ? "" : ",")
+                    .append("{\"@FREQ\":\"M\",\"@REF_AREA\":\"").append(countries[s % countries.length].name())
+                    .append("\",\"@INDICATOR\":\"PCPI_IX\",\"@UNIT_MULT\":\"0\",\"@BASE_YEAR\":\"2010=100\",\"@TIME_FORMAT\":\"P1M\",\"Obs\":[");
+            for (int m = 0; m < monthsPerSeries; m++) {
+                json.append(m == 0 ? "" : ",")
+                        .append("{\"@TIME_PERIOD\":\"").append(firstMonth.plusMonths(m))
+                        .append("\",\"@OBS_VALUE\":\"").append(100 + m * 0.173125731).append("\"}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    record BoundResponse(@JsonProperty("CompactData") BoundCompactData compactData) {
+    }
+
+    record BoundCompactData(@JsonProperty("DataSet") BoundDataSet dataSet) {
+    }
+
+    record BoundDataSet(@JsonProperty("Series") List<BoundSeries> series) {
+    }
+
+    record BoundSeries(@JsonProperty("@FREQ") String frequency, @JsonProperty("@REF_AREA") Country country,
+            @JsonProperty("@INDICATOR") Indicator indicator, @JsonProperty("@UNIT_MULT") String unitMult,
+            @JsonProperty("@BASE_YEAR") String baseYear, @JsonProperty("@TIME_FORMAT") String timeFormat,
+            @JsonProperty("Obs") List<BoundObservation> observations) {
+    }
+
+    record BoundObservation(@JsonProperty("@TIME_PERIOD") String timePeriod, @JsonProperty("@OBS_VALUE") BigDecimal value) {
+    }
+}
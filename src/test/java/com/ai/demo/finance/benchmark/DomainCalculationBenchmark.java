@@ -0,0 +1,96 @@
+package com.ai.demo.finance.benchmark;
+
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.cache.InflationRateKeyGenerator;
+import com.ai.demo.finance.model.enums.AccountType;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-call cost of the domain calculations run for every account, deposit and
+ * country. The retirement goal math is measured by
+ * {@code RetirementGoalCalculatorBenchmark}, next to the package-private calculator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainCalculationBenchmark {
+
+    private final Money deposit = Money.of("125.40");
+    private final InflationRate inflationRate = InflationRate.builder().percentageRate(new BigDecimal("2.35"))
+            .period("2024-06").country(Country.ES).indicator(Indicator.PCPI_IX).build();
+    private final LocalDate today = LocalDate.of(2024, 6, 18);
+    private final int month = CpiSeries.monthOrdinal(YearMonth.from(today));
+    private Account account;
+    private CpiSeries cpiSeries;
+
+    @Setup
+    public void setUp() {
+        account = Account.builder().id(1L).amount(Money.of("10000.00")).type(AccountType.SAVINGS)
+                .date(LocalDateTime.of(2020, 1, 15, 10, 0)).userId(1L).build();
+        double[] values = new double[month - CpiSeries.monthOrdinal(2000, 1) + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 70 + i * 0.21;
+        }
+        cpiSeries = new CpiSeries(Country.ES, Indicator.PCPI_IX, CpiSeries.monthOrdinal(2000, 1), values);
+    }
+
+    @Benchmark
+    public AccountHistory accountDeposit() {
+        return account.deposit(deposit);
+    }
+
+    @Benchmark
+    public AccountHistory accountDepositIndexed() {
+        return account.deposit(deposit, cpiSeries, month);
+    }
+
+    @Benchmark
+    public Money accountCalculateNetAmount() {
+        account.calculateNetAmount(inflationRate);
+        return account.getAmountNet();
+    }
+
+    @Benchmark
+    public Money accountCalculateNetAmountFromIndex() {
+        account.calculateNetAmount(cpiSeries, month);
+        return account.getAmountNet();
+    }
+
+    @Benchmark
+    public BigDecimal inflationRateCalculateRateFromPercentage() {
+        return inflationRate.calculateRateFromPercentage();
+    }
+
+    @Benchmark
+    public String keyGeneratorFromPeriod() {
+        return InflationRateKeyGenerator.generateKey(inflationRate);
+    }
+
+    @Benchmark
+    public String keyGeneratorFromDate() {
+        return InflationRateKeyGenerator.generateKey(Country.ES, today);
+    }
+}
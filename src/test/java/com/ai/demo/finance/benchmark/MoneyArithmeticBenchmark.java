@@ -0,0 +1,70 @@
+package com.ai.demo.finance.benchmark;
+
+import com.ai.demo.finance.model.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The arithmetic of a deposit, a net amount recalculation and a retirement goal over
+ * the balances of a thousand accounts, once with {@link BigDecimal} as before and once
+ * with the minor units of {@link Money}. Run it with {@code -prof gc}: the
+ * {@code Money} variants should report no allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyArithmeticBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    private final BigDecimal[] decimalBalances = new BigDecimal[ACCOUNTS];
+    private final long[] minorUnitBalances = new long[ACCOUNTS];
+    private final BigDecimal decimalDeposit = new BigDecimal("125.40");
+    private final long minorUnitDeposit = 12540;
+    private final BigDecimal decimalRate = new BigDecimal("0.97");
+    private final long rateInHundredths = 97;
+    private final BigDecimal decimalSavingNeeded = new BigDecimal("720000.00");
+    private final long minorUnitSavingNeeded = 72_000_000;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            decimalBalances[i] = BigDecimal.valueOf(1_000_000L + i * 7919L, 2);
+            minorUnitBalances[i] = 1_000_000L + i * 7919L;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal totalNet = BigDecimal.ZERO;
+        for (BigDecimal balance : decimalBalances) {
+            BigDecimal deposited = balance.add(decimalDeposit);
+            totalNet = totalNet.add(decimalRate.multiply(deposited));
+        }
+        return totalNet.divide(decimalSavingNeeded, 4, RoundingMode.HALF_UP).multiply(ONE_HUNDRED).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long money() {
+        long totalNet = 0;
+        for (long balance : minorUnitBalances) {
+            long deposited = Money.add(balance, minorUnitDeposit);
+            totalNet = Money.add(totalNet, Money.multiply(deposited, rateInHundredths, Money.SCALE));
+        }
+        return Money.percentage(totalNet, minorUnitSavingNeeded);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ai.demo.finance.benchmark;
+
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.model.cache.serializer.InflationRateRedisSerializer;
+import com.ai.demo.finance.model.cache.serializer.RetirementGoalRedisSerializer;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Compares the compact cache codec with the JDK serialization it replaces. The size of
+ * each encoding is printed on setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisCodecBenchmark {
+
+    private final RedisSerializer<Object> jdkSerializer = new JdkSerializationRedisSerializer();
+    private final InflationRateRedisSerializer inflationRateSerializer = new InflationRateRedisSerializer(false);
+    private final RetirementGoalRedisSerializer retirementGoalSerializer = new RetirementGoalRedisSerializer(false);
+    private InflationRate inflationRate;
+    private RetirementGoal retirementGoal;
+    private byte[] inflationRateJdk;
+    private byte[] inflationRateCompact;
+    private byte[] retirementGoalJdk;
+    private byte[] retirementGoalCompact;
+
+    @Setup
+    public void setUp() {
+        inflationRate = new InflationRate(new BigDecimal("0.26"), "2024-05", Country.ES, Indicator.PCPI_IX);
+        retirementGoal = new RetirementGoal(989299L, new BigDecimal("20.83"));
+        inflationRateJdk = jdkSerializer.serialize(inflationRate);
+        inflationRateCompact = inflationRateSerializer.serialize(inflationRate);
+        retirementGoalJdk = jdkSerializer.serialize(retirementGoal);
+        retirementGoalCompact = retirementGoalSerializer.serialize(retirementGoal);
+        System.out.printf("%nInflationRate: jdk %d bytes, compact %d bytes%n", inflationRateJdk.length, inflationRateCompact.length);
+        System.out.printf("RetirementGoal: jdk %d bytes, compact %d bytes%n", retirementGoalJdk.length, retirementGoalCompact.length);
+    }
+
+    @Benchmark
+    public byte[] inflationRateSerializeJdk() {
+        return jdkSerializer.serialize(inflationRate);
+    }
+
+    @Benchmark
+    public byte[] inflationRateSerializeCompact() {
+        return inflationRateSerializer.serialize(inflationRate);
+    }
+
+    @Benchmark
+    public Object inflationRateDeserializeJdk() {
+        return jdkSerializer.deserialize(inflationRateJdk);
+    }
+
+    @Benchmark
+    public InflationRate inflationRateDeserializeCompact() {
+        return inflationRateSerializer.deserialize(inflationRateCompact);
+    }
+
+    @Benchmark
+    public byte[] retirementGoalSerializeJdk() {
+        return jdkSerializer.serialize(retirementGoal);
+    }
+
+    @Benchmark
+    public byte[] retirementGoalSerializeCompact() {
+        return retirementGoalSerializer.serialize(retirementGoal);
+    }
+
+    @Benchmark
+    public Object retirementGoalDeserializeJdk() {
+        return jdkSerializer.deserialize(retirementGoalJdk);
+    }
+
+    @Benchmark
+    public RetirementGoal retirementGoalDeserializeCompact() {
+        return retirementGoalSerializer.deserialize(retirementGoalCompact);
+    }
+}
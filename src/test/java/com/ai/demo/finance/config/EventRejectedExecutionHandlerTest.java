@@ -0,0 +1,78 @@
+package com.ai.demo.finance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EventRejectedExecutionHandlerTest {
+
+    private ThreadPoolExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_caller_runs_when_queue_is_full() {
+        EventRejectedExecutionHandler handler = new EventRejectedExecutionHandler(EventRejectedExecutionHandler.Policy.CALLER_RUNS, 0);
+        executor = saturatedExecutor(handler);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        assertEquals(Thread.currentThread(), ranOn.get());
+        assertEquals(1, handler.getSaturatedCount());
+        assertEquals(0, handler.getRejectedCount());
+    }
+
+    @Test
+    void test_block_rejects_after_timeout() {
+        EventRejectedExecutionHandler handler = new EventRejectedExecutionHandler(EventRejectedExecutionHandler.Policy.BLOCK, 10);
+        executor = saturatedExecutor(handler);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, handler.getSaturatedCount());
+        assertEquals(1, handler.getRejectedCount());
+    }
+
+    @Test
+    void test_block_enqueues_once_space_is_freed() throws InterruptedException {
+        EventRejectedExecutionHandler handler = new EventRejectedExecutionHandler(EventRejectedExecutionHandler.Policy.BLOCK, 5000);
+        executor = saturatedExecutor(handler);
+        CountDownLatch executed = new CountDownLatch(1);
+
+        release.countDown();
+        executor.execute(executed::countDown);
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, handler.getRejectedCount());
+    }
+
+    private ThreadPoolExecutor saturatedExecutor(EventRejectedExecutionHandler handler) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), handler);
+        pool.execute(this::awaitRelease);
+        pool.execute(this::awaitRelease);
+        return pool;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
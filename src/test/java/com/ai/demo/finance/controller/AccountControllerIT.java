@@ -3,6 +3,7 @@ package com.ai.demo.finance.controller;
 import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
 import static com.ai.demo.finance.controller.ApiVersion.API_V1;
 import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -14,7 +15,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
 import com.ai.demo.finance.dto.AccountDTO;
 import com.ai.demo.finance.dto.BalanceDTO;
+import com.ai.demo.finance.dto.DepositDTO;
 import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.User;
 import com.ai.demo.finance.model.enums.Country;
@@ -25,6 +28,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -88,7 +92,7 @@ class AccountControllerIT {
     @Test
     void testGetAccount() throws Exception {
         Account saved = accountRepository.save(
-                Account.builder().amount(new BigDecimal("1000")).type(SAVINGS).date(LocalDateTime.now())
+                Account.builder().amount(Money.of("1000")).type(SAVINGS).date(LocalDateTime.now())
                         .userId(defaultUser.getId())
                         .build());
         Long id = saved.getId();
@@ -106,7 +110,7 @@ class AccountControllerIT {
     @Test
     void testUpdateAccount() throws Exception {
         Account saved = accountRepository.save(
-                Account.builder().amount(new BigDecimal("1000")).type(SAVINGS)
+                Account.builder().amount(Money.of("1000")).type(SAVINGS)
                         .userId(defaultUser.getId())
                         .date(LocalDateTime.now()).build());
         Long id = saved.getId();
@@ -119,7 +123,7 @@ class AccountControllerIT {
                 .content(asJsonString(dto)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(id))
-                .andExpect(jsonPath("$.amount").value("2000"))
+                .andExpect(jsonPath("$.amount").value("2000.0"))
                 .andExpect(jsonPath("$.type").value("SAVINGS"))
                 .andExpect(jsonPath("$.description").value("my"));
     }
@@ -127,7 +131,7 @@ class AccountControllerIT {
     @Test
     void testDeleteAccount() throws Exception {
         Account saved = accountRepository.save(
-                Account.builder().amount(new BigDecimal("1000")).type(SAVINGS)
+                Account.builder().amount(Money.of("1000")).type(SAVINGS)
                         .userId(defaultUser.getId())
                         .date(LocalDateTime.now()).build());
         Long id = saved.getId();
@@ -141,12 +145,12 @@ class AccountControllerIT {
     @Test
     void testDepositSuccess() throws Exception {
         Account saved = accountRepository.save(
-                Account.builder().amount(new BigDecimal("1000")).type(SAVINGS)
+                Account.builder().amount(Money.of("1000")).type(SAVINGS)
                         .userId(defaultUser.getId())
                         .date(LocalDateTime.now()).build());
         retirementRepository.save(RetirementDetail.builder()
                 .userId(defaultUser.getId())
-                .incomePerMonthDesired(BigDecimal.valueOf(1200))
+                .incomePerMonthDesired(Money.of(BigDecimal.valueOf(1200)))
                 .retirementDate(LocalDate.now().plusYears(30))
                 .lifeExpectation(LocalDate.now().plusYears(50))
                 .build());
@@ -174,7 +178,7 @@ class AccountControllerIT {
     @Test
     void testDepositInvalidAmount() throws Exception {
         Account saved = accountRepository.save(
-                Account.builder().amount(new BigDecimal("1000"))
+                Account.builder().amount(Money.of("1000"))
                         .userId(defaultUser.getId())
                         .type(SAVINGS).date(LocalDateTime.now()).build());
         Long id = saved.getId();
@@ -186,6 +190,89 @@ class AccountControllerIT {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testDepositFractionOfACent() throws Exception {
+        Account saved = accountRepository.save(
+                Account.builder().amount(Money.of("1000"))
+                        .userId(defaultUser.getId())
+                        .type(SAVINGS).date(LocalDateTime.now()).build());
+        Long id = saved.getId();
+        BalanceDTO balanceDTO = new BalanceDTO(new BigDecimal("10.005"));
+        mockMvc.perform(patch(AccountController.ENDPOINT + "/" + id + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ACCEPT_VERSION, API_V1)
+                .content(asJsonString(balanceDTO)))
+                .andExpect(status().isBadRequest());
+        assertEquals(Money.of("1000"), accountRepository.findById(id).orElseThrow().getAmount());
+    }
+
+    @Test
+    void testBatchDeposit() throws Exception {
+        Account saved = accountRepository.save(
+                Account.builder().amount(Money.of("1000"))
+                        .userId(defaultUser.getId())
+                        .type(SAVINGS).date(LocalDateTime.now()).build());
+        Long id = saved.getId();
+        List<DepositDTO> deposits = List.of(new DepositDTO(id, new BigDecimal("500")), new DepositDTO(999L, new BigDecimal("500")),
+                new DepositDTO(id, new BigDecimal("-500")), new DepositDTO(id, new BigDecimal("250")));
+        mockMvc.perform(post(AccountController.ENDPOINT + "/deposits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ACCEPT_VERSION, API_V1)
+                .content(asJsonString(deposits)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].balance").value("1500.0"))
+                .andExpect(jsonPath("$.results[1].error").value("Account not found"))
+                .andExpect(jsonPath("$.results[2].error").value("Amount must be greater than zero"))
+                .andExpect(jsonPath("$.results[3].balance").value("1750.0"));
+    }
+
+    @Test
+    void testBatchDepositEmpty() throws Exception {
+        mockMvc.perform(post(AccountController.ENDPOINT + "/deposits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ACCEPT_VERSION, API_V1)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBalanceHistory() throws Exception {
+        Account saved = accountRepository.save(
+                Account.builder().amount(Money.of("1000"))
+                        .userId(defaultUser.getId())
+                        .type(SAVINGS).date(LocalDateTime.now()).build());
+        Long id = saved.getId();
+        mockMvc.perform(post(AccountController.ENDPOINT + "/deposits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ACCEPT_VERSION, API_V1)
+                .content(asJsonString(List.of(new DepositDTO(id, new BigDecimal("500"))))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(AccountController.ENDPOINT + "/" + id + "/balance-history")
+                .param("granularity", "MONTH")
+                .header(ACCEPT_VERSION, API_V1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("MONTH"))
+                .andExpect(jsonPath("$.buckets.length()").value(1))
+                .andExpect(jsonPath("$.buckets[0].openingBalance").value("1000.0"))
+                .andExpect(jsonPath("$.buckets[0].closingBalance").value("1500.0"));
+        mockMvc.perform(get(AccountController.ENDPOINT + "/" + id + "/balance")
+                .header(ACCEPT_VERSION, API_V1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value("1500.0"));
+    }
+
+    @Test
+    void testBalanceHistoryReversedRange() throws Exception {
+        mockMvc.perform(get(AccountController.ENDPOINT + "/1/balance-history")
+                .param("from", "2024-02-01T00:00:00Z")
+                .param("to", "2024-01-01T00:00:00Z")
+                .header(ACCEPT_VERSION, API_V1))
+                .andExpect(status().isBadRequest());
+    }
+
     private String asJsonString(final Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
@@ -0,0 +1,334 @@
+package com.ai.demo.finance.controller;
+
+import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
+import static com.ai.demo.finance.controller.ApiVersion.API_V1;
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+
+import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
+import com.ai.demo.finance.dto.BalanceDTO;
+import com.ai.demo.finance.dto.DepositDTO;
+import com.ai.demo.finance.dto.DepositsResultDTO;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.RetirementDetail;
+import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountRepository;
+import com.ai.demo.finance.model.repository.RetirementRepository;
+import com.ai.demo.finance.model.repository.UserRepository;
+import com.ai.demo.finance.service.CpiIndexStore;
+import com.ai.demo.finance.service.RetirementGoalService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Deposits over HTTP with many concurrent clients against the whole application: H2,
+ * the outbox, the event consumers and the embedded Redis. Measures the sustained
+ * throughput, the latency percentiles of the deposits, the lag until the retirement
+ * goal of each user appears in Redis, and the deposits lost to concurrent updates of
+ * the same account. Each run appends a line to a CSV report, so the results can be
+ * tracked from one version to the next. It only runs on demand:
+ * {@code mvn test -Dtest=DepositLoadIT -Dloadtest.deposits=20000 -Dloadtest.concurrency=64}
+ * <p>
+ * Properties of the traffic:
+ * <ul>
+ * <li>{@code loadtest.users} users receiving deposits, 200 by default</li>
+ * <li>{@code loadtest.accounts-per-user} accounts of each user, 2 by default</li>
+ * <li>{@code loadtest.distribution} {@code uniform}, or {@code zipf} (the default) for a
+ * few hot users receiving most of the deposits</li>
+ * <li>{@code loadtest.seed} seed of the deposit sequence, so that runs are comparable</li>
+ * <li>{@code loadtest.batch-size} deposits sent at once to {@code POST /account/deposits},
+ * 1 by default for one {@code PATCH /account/{id}/deposit} each; the latencies are then
+ * those of the batches</li>
+ * <li>{@code loadtest.report} the CSV file, {@code target/loadtest/deposits.csv} by default</li>
+ * </ul>
+ */
+@EnabledIfSystemProperty(named = "loadtest.deposits", matches = "\\d+")
+@SpringBootTest(classes = {RedisConfigForIntegrationTest.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.ai.demo=INFO")
+@DirtiesContext
+@Log4j2
+class DepositLoadIT {
+
+    private static final String REPORT_HEADER = "timestamp,deposits,concurrency,users,accounts_per_user,distribution,"
+            + "deposits_per_s,p50_ms,p95_ms,p99_ms,p999_ms,max_ms,errors,lost_deposits,"
+            + "goal_lag_p50_ms,goal_lag_p99_ms,goal_lag_max_ms,goals_settled_ms,batch_size\n";
+    private static final Money DEPOSIT = Money.of("10.00");
+    private static final Money OPENING_BALANCE = Money.of("1000.00");
+    private static final Duration GOALS_TIMEOUT = Duration.ofMinutes(2);
+    private static final long GOALS_POLL_MS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private RetirementRepository retirementRepository;
+    @Autowired
+    private CpiIndexStore cpiIndexStore;
+    @Autowired
+    private RetirementGoalService retirementGoalService;
+    @Autowired
+    private RedisTemplate<String, RetirementGoal> retirementGoalRedisTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void concurrent_deposits() throws Exception {
+        int deposits = Integer.getInteger("loadtest.deposits");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        int users = Integer.getInteger("loadtest.users", 200);
+        int accountsPerUser = Integer.getInteger("loadtest.accounts-per-user", 2);
+        String distribution = System.getProperty("loadtest.distribution", "zipf");
+        long seed = Long.getLong("loadtest.seed", 42L);
+        int batchSize = Integer.getInteger("loadtest.batch-size", 1);
+        int requests = (deposits + batchSize - 1) / batchSize;
+
+        List<Long> userIds = givenUsers(users);
+        long[] accountIds = givenAccounts(userIds, accountsPerUser);
+        int[] targets = depositSequence(deposits, users, accountsPerUser, distribution, seed);
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("deposit-load")
+                .maxConnections(concurrency).pendingAcquireMaxCount(-1).build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .defaultHeader(ACCEPT_VERSION, API_V1)
+                .build();
+        ScheduledExecutorService goalPoller = Executors.newSingleThreadScheduledExecutor();
+        try {
+            long[] latencies = new long[requests];
+            AtomicInteger completed = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            AtomicLongArray firstDeposit = new AtomicLongArray(users);
+            AtomicLongArray goalSeen = new AtomicLongArray(users);
+            goalPoller.scheduleWithFixedDelay(() -> pollGoals(userIds, goalSeen), 0, GOALS_POLL_MS, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            Flux.range(0, requests)
+                    .flatMap(i -> {
+                        int from = i * batchSize;
+                        int to = Math.min(from + batchSize, deposits);
+                        long requestStart = System.nanoTime();
+                        return deposit(webClient, accountIds, Arrays.copyOfRange(targets, from, to))
+                                .doOnSuccess(applied -> {
+                                    long now = System.nanoTime();
+                                    latencies[i] = now - requestStart;
+                                    for (int j = from; j < to; j++) {
+                                        firstDeposit.compareAndSet(targets[j] / accountsPerUser, 0, now);
+                                    }
+                                    completed.addAndGet(applied);
+                                })
+                                .onErrorResume(e -> {
+                                    latencies[i] = System.nanoTime() - requestStart;
+                                    errors.incrementAndGet();
+                                    return Mono.empty();
+                                });
+                    }, concurrency)
+                    .blockLast(Duration.ofMinutes(30));
+            long end = System.nanoTime();
+
+            long settled = awaitGoals(firstDeposit, goalSeen, users);
+            goalPoller.shutdownNow();
+
+            Arrays.sort(latencies);
+            long[] goalLags = IntStream.range(0, users)
+                    .filter(user -> firstDeposit.get(user) != 0 && goalSeen.get(user) != 0)
+                    .mapToLong(user -> Math.max(goalSeen.get(user) - firstDeposit.get(user), 0))
+                    .sorted().toArray();
+            String line = String.join(",", Instant.now().toString(), String.valueOf(deposits), String.valueOf(concurrency),
+                    String.valueOf(users), String.valueOf(accountsPerUser), distribution,
+                    format(deposits / ((end - start) / 1e9)),
+                    format(percentileMs(latencies, 0.50)), format(percentileMs(latencies, 0.95)),
+                    format(percentileMs(latencies, 0.99)), format(percentileMs(latencies, 0.999)),
+                    format(percentileMs(latencies, 1.0)),
+                    String.valueOf(errors.get()), String.valueOf(lostDeposits(userIds, accountsPerUser, completed.get())),
+                    format(percentileMs(goalLags, 0.50)), format(percentileMs(goalLags, 0.99)), format(percentileMs(goalLags, 1.0)),
+                    settled < 0 ? "" : format(settled / 1e6), String.valueOf(batchSize));
+            log.info("Deposits with {} clients:\n{}{}", concurrency, REPORT_HEADER, line);
+            appendToReport(line);
+        } finally {
+            goalPoller.shutdownNow();
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+    /**
+     * @return the number of deposits applied
+     */
+    private static Mono<Integer> deposit(WebClient webClient, long[] accountIds, int[] targets) {
+        if (targets.length == 1) {
+            return webClient.patch()
+                    .uri(AccountController.ENDPOINT + "/{id}/deposit", accountIds[targets[0]])
+                    .bodyValue(new BalanceDTO(DEPOSIT.toBigDecimal()))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .thenReturn(1);
+        }
+        return webClient.post()
+                .uri(AccountController.ENDPOINT + "/deposits")
+                .bodyValue(Arrays.stream(targets).mapToObj(target -> new DepositDTO(accountIds[target], DEPOSIT.toBigDecimal())).toList())
+                .retrieve()
+                .bodyToMono(DepositsResultDTO.class)
+                .map(DepositsResultDTO::succeeded);
+    }
+
+    private List<Long> givenUsers(int users) {
+        YearMonth currentMonth = YearMonth.now();
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        update.record(Country.ES, Indicator.PCPI_IX, currentMonth.minusMonths(12), 100.0);
+        update.record(Country.ES, Indicator.PCPI_IX, currentMonth, 103.0);
+        update.commit();
+
+        List<User> saved = userRepository.saveAll(IntStream.range(0, users)
+                .mapToObj(i -> new User(null, "load-" + i, Country.ES)).toList());
+        List<Long> userIds = saved.stream().map(User::getId).toList();
+        retirementRepository.saveAll(userIds.stream().map(userId -> RetirementDetail.builder()
+                .userId(userId)
+                .incomePerMonthDesired(Money.of("2500.00"))
+                .retirementDate(LocalDate.now().plusYears(30))
+                .lifeExpectation(LocalDate.now().plusYears(55))
+                .build()).toList());
+        retirementGoalRedisTemplate.delete(userIds.stream().map(String::valueOf).toList());
+        return userIds;
+    }
+
+    private long[] givenAccounts(List<Long> userIds, int accountsPerUser) {
+        List<Account> accounts = new ArrayList<>(userIds.size() * accountsPerUser);
+        for (Long userId : userIds) {
+            for (int i = 0; i < accountsPerUser; i++) {
+                accounts.add(Account.builder().amount(OPENING_BALANCE).type(SAVINGS)
+                        .date(LocalDateTime.now()).userId(userId).build());
+            }
+        }
+        return accountRepository.saveAll(accounts).stream().mapToLong(Account::getId).toArray();
+    }
+
+    /**
+     * @return the index of the account receiving each deposit, the accounts of a user
+     * being next to each other
+     */
+    private static int[] depositSequence(int deposits, int users, int accountsPerUser, String distribution, long seed) {
+        Random random = new Random(seed);
+        double[] cumulative = new double[users];
+        double total = 0;
+        for (int i = 0; i < users; i++) {
+            total += "uniform".equals(distribution) ? 1.0 : 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        int[] targets = new int[deposits];
+        for (int i = 0; i < deposits; i++) {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            int user = Math.min(found < 0 ? -found - 1 : found, users - 1);
+            targets[i] = user * accountsPerUser + random.nextInt(accountsPerUser);
+        }
+        return targets;
+    }
+
+    private void pollGoals(List<Long> userIds, AtomicLongArray goalSeen) {
+        long now = System.nanoTime();
+        Map<Long, Integer> userIndexes = new HashMap<>(userIds.size() * 2);
+        for (int i = 0; i < userIds.size(); i++) {
+            userIndexes.put(userIds.get(i), i);
+        }
+        for (int from = 0; from < userIds.size(); from += 500) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + 500, userIds.size()));
+            List<Long> found = retirementGoalService.getRetirementGoals(chunk).goals().stream()
+                    .map(RetirementGoal::getUserId).toList();
+            for (Long userId : found) {
+                goalSeen.compareAndSet(userIndexes.get(userId), 0, now);
+            }
+        }
+    }
+
+    /**
+     * @return nanoseconds from the end of the deposits until every user deposited to
+     * has a goal, or -1 when some are still missing after {@link #GOALS_TIMEOUT}
+     */
+    private static long awaitGoals(AtomicLongArray firstDeposit, AtomicLongArray goalSeen, int users) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + GOALS_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            boolean settled = IntStream.range(0, users).allMatch(user -> firstDeposit.get(user) == 0 || goalSeen.get(user) != 0);
+            if (settled) {
+                return System.nanoTime() - start;
+            }
+            Thread.sleep(GOALS_POLL_MS);
+        }
+        log.warn("Some retirement goals did not appear within {}", GOALS_TIMEOUT);
+        return -1;
+    }
+
+    /**
+     * @return deposits acknowledged but missing from the balances, overwritten by a
+     * concurrent deposit to the same account
+     */
+    private long lostDeposits(List<Long> userIds, int accountsPerUser, int acknowledged) {
+        AtomicLong balances = new AtomicLong();
+        accountRepository.findAllByUserIdIn(userIds)
+                .forEach(account -> balances.addAndGet(account.getAmount().getMinorUnits()));
+        long opening = OPENING_BALANCE.getMinorUnits() * userIds.size() * accountsPerUser;
+        return acknowledged - (balances.get() - opening) / DEPOSIT.getMinorUnits();
+    }
+
+    private static void appendToReport(String line) throws IOException {
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest/deposits.csv"));
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        if (Files.notExists(report)) {
+            Files.writeString(report, REPORT_HEADER);
+        }
+        Files.writeString(report, line + "\n", StandardOpenOption.APPEND);
+    }
+
+    private static double percentileMs(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
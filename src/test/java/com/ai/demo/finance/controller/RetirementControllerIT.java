@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
 import com.ai.demo.finance.dto.RetirementDetailDTO;
+import com.ai.demo.finance.model.Money;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.User;
 import com.ai.demo.finance.model.enums.Country;
@@ -77,7 +78,7 @@ class RetirementControllerIT {
     void testGetRetirementDetail() throws Exception {
         RetirementDetail saved = retirementRepository.save(
                 RetirementDetail.builder().lifeExpectation(LocalDate.now().plusYears(50)).retirementDate(LocalDate.now())
-                        .incomePerMonthDesired(BigDecimal.TEN)
+                        .incomePerMonthDesired(Money.of(BigDecimal.TEN))
                         .userId(DEFAULT_USER.getId())
                         .build());
         Long id = saved.getId();
@@ -96,7 +97,7 @@ class RetirementControllerIT {
     void testUpdateRetirementDetail() throws Exception {
         RetirementDetail saved = retirementRepository.save(
                 RetirementDetail.builder().lifeExpectation(LocalDate.now().plusYears(50)).retirementDate(LocalDate.now())
-                        .incomePerMonthDesired(BigDecimal.TEN)
+                        .incomePerMonthDesired(Money.of(BigDecimal.TEN))
                         .userId(DEFAULT_USER.getId())
                         .build());
         Long id = saved.getId();
@@ -112,14 +113,14 @@ class RetirementControllerIT {
                 .andExpect(jsonPath("$.id").value(id))
                 .andExpect(jsonPath("$.lifeExpectation").value(dto.lifeExpectation().toString()))
                 .andExpect(jsonPath("$.retirementDate").value(dto.retirementDate().toString()))
-                .andExpect(jsonPath("$.incomePerMonthDesired").value(dto.incomePerMonthDesired()));
+                .andExpect(jsonPath("$.incomePerMonthDesired").value(dto.incomePerMonthDesired().doubleValue()));
     }
 
     @Test
     void testDeleteRetirementDetail() throws Exception {
         RetirementDetail saved = retirementRepository.save(
                 RetirementDetail.builder().lifeExpectation(LocalDate.now().plusYears(50)).retirementDate(LocalDate.now())
-                        .incomePerMonthDesired(BigDecimal.TEN)
+                        .incomePerMonthDesired(Money.of(BigDecimal.TEN))
                         .userId(DEFAULT_USER.getId())
                         .build());
         Long id = saved.getId();
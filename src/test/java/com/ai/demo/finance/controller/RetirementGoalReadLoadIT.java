@@ -0,0 +1,154 @@
+package com.ai.demo.finance.controller;
+
+import static com.ai.demo.finance.controller.ApiVersion.ACCEPT_VERSION;
+import static com.ai.demo.finance.controller.ApiVersion.API_V1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.service.RetirementGoalService;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Reads retirement goals over HTTP with many concurrent clients against a server with
+ * only a few request threads, once with blocking and once with reactive reads, and
+ * compares throughput and p99. It only runs on demand:
+ * {@code mvn test -Dtest=RetirementGoalReadLoadIT -Dloadtest.requests=50000 -Dloadtest.concurrency=512}
+ */
+@EnabledIfSystemProperty(named = "loadtest.requests", matches = "\\d+")
+@Log4j2
+class RetirementGoalReadLoadIT {
+
+    static final int REQUEST_THREADS = 8;
+    private static final int USERS = 1000;
+    private static final Path REPORT = Path.of("target", "loadtest", "retirement-goal-reads.txt");
+    private static final Map<String, Result> RESULTS = new ConcurrentSkipListMap<>();
+
+    @Nested
+    @TestPropertySource(properties = "redis.retirement-goal.reactive-reads=false")
+    class Blocking extends Scenario {
+
+        @Test
+        void blocking_reads() {
+            RESULTS.put("blocking", run());
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "redis.retirement-goal.reactive-reads=true")
+    class Reactive extends Scenario {
+
+        @Test
+        void reactive_reads() {
+            RESULTS.put("reactive", run());
+        }
+    }
+
+    @AfterAll
+    static void report() throws IOException {
+        StringBuilder report = new StringBuilder(String.format("%-10s %12s %12s %12s %10s%n", "mode", "requests", "req/s", "p50 (ms)", "p99 (ms)"));
+        RESULTS.forEach((mode, result) -> report.append(String.format("%-10s %12d %12.0f %12.2f %10.2f%n", mode, result.requests(),
+                result.throughput(), result.p50Ms(), result.p99Ms())));
+        log.info("Retirement goal reads with {} request threads:\n{}", REQUEST_THREADS, report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+    }
+
+    /**
+     * Each mode gets its own server, torn down afterwards so the next one can start the
+     * embedded Redis again.
+     */
+    @SpringBootTest(classes = {RedisConfigForIntegrationTest.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"server.tomcat.threads.max=" + REQUEST_THREADS, "logging.level.com.ai.demo=INFO"})
+    @DirtiesContext
+    abstract static class Scenario {
+
+        @Autowired
+        private RetirementGoalService retirementGoalService;
+
+        @LocalServerPort
+        private int port;
+
+        Result run() {
+            int requests = Integer.getInteger("loadtest.requests");
+            int concurrency = Integer.getInteger("loadtest.concurrency", 512);
+            retirementGoalService.saveRetirementGoals(LongStream.rangeClosed(1, USERS)
+                    .mapToObj(userId -> new RetirementGoal(userId, BigDecimal.valueOf(userId, 2))).toList());
+
+            ConnectionProvider connectionProvider = ConnectionProvider.builder("retirement-goal-load")
+                    .maxConnections(concurrency).pendingAcquireMaxCount(-1).build();
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .defaultHeader(ACCEPT_VERSION, API_V1)
+                    .build();
+            try {
+                load(webClient, Math.min(requests, concurrency * 4), concurrency);
+
+                long[] latencies = new long[requests];
+                AtomicInteger completed = new AtomicInteger();
+                long start = System.nanoTime();
+                load(webClient, requests, concurrency, latencies, completed);
+                long elapsed = System.nanoTime() - start;
+
+                assertEquals(requests, completed.get());
+                Arrays.sort(latencies);
+                return new Result(requests, requests / (elapsed / 1e9), percentileMs(latencies, 0.50), percentileMs(latencies, 0.99));
+            } finally {
+                connectionProvider.disposeLater().block();
+            }
+        }
+
+        private static void load(WebClient webClient, int requests, int concurrency) {
+            load(webClient, requests, concurrency, new long[requests], new AtomicInteger());
+        }
+
+        private static void load(WebClient webClient, int requests, int concurrency, long[] latencies, AtomicInteger completed) {
+            Flux.range(0, requests)
+                    .flatMap(i -> {
+                        long start = System.nanoTime();
+                        return webClient.get()
+                                .uri(RetirementGoalController.ENDPOINT + "/{id}", i % USERS + 1)
+                                .retrieve()
+                                .toBodilessEntity()
+                                .doOnSuccess(response -> {
+                                    latencies[i] = System.nanoTime() - start;
+                                    completed.incrementAndGet();
+                                });
+                    }, concurrency)
+                    .blockLast(Duration.ofMinutes(10));
+        }
+    }
+
+    private static double percentileMs(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Result(int requests, double throughput, double p50Ms, double p99Ms) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.ai.demo.finance.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class EventMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventMetrics eventMetrics = new EventMetrics(meterRegistry);
+
+    @Test
+    void should_run_handler_and_tag_by_event_type_and_source() {
+        AtomicInteger handled = new AtomicInteger();
+
+        eventMetrics.record(new RetirementGoalEvent(1L, EventSource.DEPOSIT), EventSource.DEPOSIT, handled::incrementAndGet);
+        eventMetrics.record(new RetirementGoalEvent(1L, null), null, handled::incrementAndGet);
+
+        assertEquals(2, handled.get());
+        assertEquals(1, meterRegistry.get(EventMetrics.EVENT_TIMER).tag("event", "RetirementGoalEvent")
+                .tag("source", "DEPOSIT").timer().count());
+        assertEquals(1, meterRegistry.get(EventMetrics.EVENT_TIMER).tag("source", "NONE").timer().count());
+    }
+}
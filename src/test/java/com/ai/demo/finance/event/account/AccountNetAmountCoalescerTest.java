@@ -0,0 +1,105 @@
+package com.ai.demo.finance.event.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.ai.demo.finance.event.EventMetrics;
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.exception.NotFoundResourceException;
+import com.ai.demo.finance.service.AccountService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNetAmountCoalescerTest {
+
+    @Mock
+    private AccountService accountService;
+    private ExecutorService executor;
+    private AccountNetAmountCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        coalescer = new AccountNetAmountCoalescer(accountService, executor, new EventMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_burst_of_events_for_same_user_is_recalculated_once() {
+        List<AccountNetAmountPerUserEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            events.add(new AccountNetAmountPerUserEvent(1L, EventSource.DEPOSIT));
+        }
+
+        assertEquals(Set.of(), coalescer.recalculate(events));
+
+        verify(accountService, times(1)).recalculateNetAmountPerUser(1L);
+        assertEquals(1, coalescer.getFlushCount());
+        assertEquals(50, coalescer.getAbsorbedCount());
+        assertEquals(0, coalescer.getRunningRecalculations());
+    }
+
+    @Test
+    void test_returns_once_every_user_is_recalculated_in_parallel() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(accountService).recalculateNetAmountPerUser(anyLong());
+
+        coalescer.recalculate(List.of(new AccountNetAmountPerUserEvent(1L, EventSource.DEPOSIT),
+                new AccountNetAmountPerUserEvent(2L, EventSource.ACCOUNT_CREATION),
+                new AccountNetAmountPerUserEvent(1L, EventSource.DEPOSIT)));
+
+        assertEquals(0, bothRunning.getCount());
+        verify(accountService).recalculateNetAmountPerUser(1L);
+        verify(accountService).recalculateNetAmountPerUser(2L);
+        assertEquals(2, coalescer.getFlushCount());
+    }
+
+    @Test
+    void test_recalculations_of_missing_users_are_dropped_not_reported() {
+        doThrow(new NotFoundResourceException("User not found")).when(accountService).recalculateNetAmountPerUser(9L);
+
+        Set<Long> failed = coalescer.recalculate(List.of(new AccountNetAmountPerUserEvent(9L, EventSource.DEPOSIT)));
+
+        assertEquals(Set.of(), failed);
+        assertEquals(1, coalescer.getDroppedCount());
+    }
+
+    @Test
+    void test_failed_recalculations_are_reported() {
+        doNothing().when(accountService).recalculateNetAmountPerUser(1L);
+        doThrow(new IllegalStateException("conflict")).when(accountService).recalculateNetAmountPerUser(2L);
+
+        Set<Long> failed = coalescer.recalculate(List.of(new AccountNetAmountPerUserEvent(1L, EventSource.DEPOSIT),
+                new AccountNetAmountPerUserEvent(2L, EventSource.DEPOSIT)));
+
+        assertEquals(Set.of(2L), failed);
+        verify(accountService).recalculateNetAmountPerUser(1L);
+    }
+}
@@ -0,0 +1,221 @@
+package com.ai.demo.finance.event.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.event.account.AccountNetAmountCoalescer;
+import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
+import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
+import com.ai.demo.finance.event.retirement.RetirementGoalEventConsumer;
+import com.ai.demo.finance.model.OutboxEvent;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import com.ai.demo.finance.model.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private AccountNetAmountCoalescer accountNetAmountCoalescer;
+    @Mock
+    private RetirementGoalEventConsumer retirementGoalEventConsumer;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxDispatcher outboxDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxDispatcher = new OutboxDispatcher(outboxEventRepository, accountNetAmountCoalescer, retirementGoalEventConsumer,
+                transactionManager, 2, 60_000, 1000, 8000, 5, 60_000);
+    }
+
+    @Test
+    void test_dispatch_claims_hands_over_and_deletes_pending_events_in_batches() {
+        List<OutboxEvent> first = List.of(outboxEvent(1L, OutboxEventType.ACCOUNT_NET_AMOUNT, 0),
+                outboxEvent(2L, OutboxEventType.RETIREMENT_GOAL, 0));
+        List<OutboxEvent> second = List.of(outboxEvent(3L, OutboxEventType.RETIREMENT_GOAL, 0));
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(first).thenReturn(second);
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), anyCollection())).thenReturn(first).thenReturn(second);
+        when(accountNetAmountCoalescer.recalculate(any())).thenReturn(Set.of());
+        when(retirementGoalEventConsumer.process(any())).thenReturn(Set.of());
+        when(outboxEventRepository.findFirstByParkedFalseOrderByIdAsc()).thenReturn(Optional.empty());
+
+        outboxDispatcher.dispatch();
+
+        verify(outboxEventRepository).claim(anyString(), any(), any(), eq(List.of(1L, 2L)));
+        verify(accountNetAmountCoalescer).recalculate(List.of(new AccountNetAmountPerUserEvent(10L, EventSource.DEPOSIT)));
+        verify(retirementGoalEventConsumer).process(List.of(new RetirementGoalEvent(20L, EventSource.DEPOSIT)));
+        verify(retirementGoalEventConsumer).process(List.of(new RetirementGoalEvent(30L, EventSource.DEPOSIT)));
+        verify(outboxEventRepository).deleteClaimed(anyString(), eq(List.of(1L, 2L)));
+        verify(outboxEventRepository).deleteClaimed(anyString(), eq(List.of(3L)));
+        assertEquals(3, outboxDispatcher.getDispatchedCount());
+        assertEquals(0, outboxDispatcher.getLagMs());
+    }
+
+    @Test
+    void test_dispatch_postpones_events_whose_consumer_failed_with_backoff() {
+        List<OutboxEvent> batch = List.of(outboxEvent(1L, OutboxEventType.ACCOUNT_NET_AMOUNT, 2),
+                outboxEvent(2L, OutboxEventType.ACCOUNT_NET_AMOUNT, 0));
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any())).thenReturn(batch);
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), anyCollection())).thenReturn(batch);
+        when(accountNetAmountCoalescer.recalculate(any())).thenReturn(Set.of(10L));
+        ArgumentCaptor<LocalDateTime> availableAt = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(2, outboxDispatcher.dispatchBatch());
+
+        verify(outboxEventRepository).postpone(anyString(), availableAt.capture(), eq(Set.of(1L)));
+        verify(outboxEventRepository).deleteClaimed(anyString(), eq(List.of(2L)));
+        assertTrue(!availableAt.getValue().isBefore(before.plusSeconds(4)));
+        assertEquals(1, outboxDispatcher.getFailedCount());
+        assertEquals(1, outboxDispatcher.getDispatchedCount());
+    }
+
+    @Test
+    void test_dispatch_postpones_events_whose_consumer_threw() {
+        List<OutboxEvent> batch = List.of(outboxEvent(1L, OutboxEventType.RETIREMENT_GOAL, 0));
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any())).thenReturn(batch);
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), anyCollection())).thenReturn(batch);
+        when(retirementGoalEventConsumer.process(any())).thenThrow(new IllegalStateException("executor shut down"));
+
+        outboxDispatcher.dispatchBatch();
+
+        verify(outboxEventRepository).postpone(anyString(), any(), eq(Set.of(1L)));
+        verify(outboxEventRepository, never()).deleteClaimed(anyString(), any());
+    }
+
+    @Test
+    void test_dispatch_takes_along_the_events_of_the_same_users_not_due_yet() {
+        OutboxEvent due = outboxEvent(1L, OutboxEventType.ACCOUNT_NET_AMOUNT, 0);
+        OutboxEvent waiting = outboxEvent(2L, OutboxEventType.ACCOUNT_NET_AMOUNT, 0, 10L);
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(List.of(due));
+        when(outboxEventRepository.findWaitingIds(OutboxEventType.ACCOUNT_NET_AMOUNT, Set.of(10L))).thenReturn(List.of(2L));
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), eq(List.of(1L, 2L)))).thenReturn(List.of(due, waiting));
+        when(accountNetAmountCoalescer.recalculate(any())).thenReturn(Set.of());
+
+        assertEquals(2, outboxDispatcher.dispatchBatch());
+
+        verify(outboxEventRepository).claimWaiting(anyString(), any(), eq(List.of(2L)));
+        verify(accountNetAmountCoalescer).recalculate(List.of(new AccountNetAmountPerUserEvent(10L, EventSource.DEPOSIT),
+                new AccountNetAmountPerUserEvent(10L, EventSource.DEPOSIT)));
+        verify(outboxEventRepository).deleteClaimed(anyString(), eq(List.of(1L, 2L)));
+    }
+
+    @Test
+    void test_dispatch_parks_events_failed_on_their_last_attempt() {
+        List<OutboxEvent> batch = List.of(outboxEvent(1L, OutboxEventType.ACCOUNT_NET_AMOUNT, 4),
+                outboxEvent(2L, OutboxEventType.ACCOUNT_NET_AMOUNT, 1));
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(batch);
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), anyCollection())).thenReturn(batch);
+        when(accountNetAmountCoalescer.recalculate(any())).thenReturn(Set.of(10L, 20L));
+
+        outboxDispatcher.dispatchBatch();
+
+        verify(outboxEventRepository).park(anyString(), eq(Set.of(1L)));
+        verify(outboxEventRepository).postpone(anyString(), any(), eq(Set.of(2L)));
+        verify(outboxEventRepository, never()).deleteClaimed(anyString(), any());
+        assertEquals(1, outboxDispatcher.getParkedCount());
+        assertEquals(2, outboxDispatcher.getFailedCount());
+    }
+
+    @Test
+    void test_dispatch_skips_events_claimed_by_another_instance() {
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(List.of(outboxEvent(1L, OutboxEventType.ACCOUNT_NET_AMOUNT, 0)));
+        when(outboxEventRepository.findByClaimedByAndIdIn(anyString(), anyCollection())).thenReturn(List.of());
+
+        assertEquals(0, outboxDispatcher.dispatchBatch());
+
+        verifyNoInteractions(accountNetAmountCoalescer, retirementGoalEventConsumer);
+        verify(outboxEventRepository, never()).deleteClaimed(anyString(), any());
+    }
+
+    @Test
+    void test_dispatch_does_nothing_when_outbox_is_empty() {
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(List.of());
+        when(outboxEventRepository.countByParkedFalse()).thenReturn(0L);
+
+        outboxDispatcher.dispatch();
+
+        verifyNoInteractions(accountNetAmountCoalescer, retirementGoalEventConsumer);
+        verify(outboxEventRepository, never()).claim(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void test_lag_is_age_of_oldest_pending_event() {
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(List.of());
+        when(outboxEventRepository.countByParkedFalse()).thenReturn(7L);
+        when(outboxEventRepository.findFirstByParkedFalseOrderByIdAsc()).thenReturn(Optional.of(OutboxEvent.builder()
+                .createdAt(LocalDateTime.now().minusMinutes(1)).build()));
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(7, outboxDispatcher.getPendingCount());
+        assertTrue(outboxDispatcher.getLagMs() >= 60_000);
+    }
+
+    @Test
+    void test_lag_is_not_refreshed_again_while_idle() {
+        when(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(any(), any()))
+                .thenReturn(List.of());
+        when(outboxEventRepository.countByParkedFalse()).thenReturn(0L);
+
+        outboxDispatcher.dispatch();
+        outboxDispatcher.dispatch();
+
+        verify(outboxEventRepository, times(1)).countByParkedFalse();
+        verify(outboxEventRepository, times(1)).findFirstByParkedFalseOrderByIdAsc();
+    }
+
+    @Test
+    void test_backoff_is_exponential_and_capped() {
+        assertEquals(Duration.ofSeconds(1), outboxDispatcher.backoff(0));
+        assertEquals(Duration.ofSeconds(4), outboxDispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(8), outboxDispatcher.backoff(10));
+    }
+
+    private static OutboxEvent outboxEvent(Long id, OutboxEventType type, int attempts) {
+        return outboxEvent(id, type, attempts, id * 10);
+    }
+
+    private static OutboxEvent outboxEvent(Long id, OutboxEventType type, int attempts, Long userId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .type(type)
+                .userId(userId)
+                .source(EventSource.DEPOSIT)
+                .createdAt(LocalDateTime.now())
+                .availableAt(LocalDateTime.now())
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ai.demo.finance.event.retirement;
+
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.RetirementDetail;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The retirement goal of one user, without the repository and the Redis write around
+ * it: the duration in months alone, and the whole percentage over their accounts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetirementGoalCalculatorBenchmark {
+
+    @Param({"1", "10"})
+    private int accountsPerUser;
+
+    private RetirementDetail retirementDetail;
+    private List<Account> accounts;
+
+    @Setup
+    public void setUp() {
+        retirementDetail = RetirementDetail.builder().userId(1L).incomePerMonthDesired(Money.of("2500.00"))
+                .retirementDate(LocalDate.of(2050, 1, 1)).lifeExpectation(LocalDate.of(2080, 6, 1)).build();
+        accounts = new ArrayList<>(accountsPerUser);
+        for (int i = 0; i < accountsPerUser; i++) {
+            accounts.add(Account.builder().userId(1L).amountNet(Money.ofMinorUnits(1_500_000L + i * 7919L)).build());
+        }
+    }
+
+    @Benchmark
+    public int retirementDurationInMonths() {
+        return RetirementGoalCalculator.calculateRetirementDurationInMonths(retirementDetail);
+    }
+
+    @Benchmark
+    public RetirementGoal retirementGoalPercentage() {
+        return RetirementGoalCalculator.calculateRetirementGoal(retirementDetail, accounts);
+    }
+}
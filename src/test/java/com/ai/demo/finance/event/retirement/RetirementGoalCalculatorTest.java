@@ -1,10 +1,12 @@
 package com.ai.demo.finance.event.retirement;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.ai.demo.finance.exception.InvalidOperationException;
 import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.cache.RetirementGoal;
 import com.ai.demo.finance.model.enums.AccountType;
@@ -40,15 +42,15 @@ class RetirementGoalCalculatorTest {
         LocalDate lifeExpectation = retirementDate.plusYears(30);
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("2000"))
+                .incomePerMonthDesired(Money.of("2000"))
                 .lifeExpectation(lifeExpectation)
                 .retirementDate(retirementDate)
                 .userId(USER_ID)
                 .build();
 
         List<Account> accounts = List.of(
-                Account.builder().amountNet(new BigDecimal("50000")).userId(USER_ID).build(),
-                Account.builder().amountNet(new BigDecimal("100000")).userId(USER_ID).build());
+                Account.builder().amountNet(Money.of("50000")).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("100000")).userId(USER_ID).build());
         when(accountRepository.findAllByUserId(USER_ID)).thenReturn(accounts);
 
         BigDecimal result = retirementGoalCalculator.calculateRetirementGoal(retirementDetail).getGoalPercentage();
@@ -62,14 +64,14 @@ class RetirementGoalCalculatorTest {
     void handles_retirement_duration_of_one_month() {
         // Arrange
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("2000"))
+                .incomePerMonthDesired(Money.of("2000"))
                 .lifeExpectation(LocalDate.of(2040, 2, 1))
                 .retirementDate(LocalDate.of(2040, 1, 1))
                 .userId(USER_ID)
                 .build();
 
         Account account = Account.builder()
-                .amountNet(new BigDecimal("2000"))
+                .amountNet(Money.of("2000"))
                 .type(AccountType.SAVINGS)
                 .date(LocalDateTime.now())
                 .userId(USER_ID)
@@ -89,21 +91,21 @@ class RetirementGoalCalculatorTest {
     void handles_retirement_duration_one_year() {
         // Arrange
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("2000"))
+                .incomePerMonthDesired(Money.of("2000"))
                 .lifeExpectation(LocalDate.of(2050, 1, 1))
                 .retirementDate(LocalDate.of(2049, 1, 1))
                 .userId(USER_ID)
                 .build();
 
         Account account1 = Account.builder()
-                .amountNet(new BigDecimal("5000"))
+                .amountNet(Money.of("5000"))
                 .type(AccountType.SAVINGS)
                 .date(LocalDateTime.now())
                 .userId(USER_ID)
                 .build();
 
         Account account2 = Account.builder()
-                .amountNet(new BigDecimal("3000"))
+                .amountNet(Money.of("3000"))
                 .type(AccountType.SAVINGS)
                 .date(LocalDateTime.now())
                 .userId(USER_ID)
@@ -123,15 +125,15 @@ class RetirementGoalCalculatorTest {
     void handles_retirement_date_equal_to_life_expectation_date() {
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("3000"))
+                .incomePerMonthDesired(Money.of("3000"))
                 .lifeExpectation(LocalDate.of(2050, 1, 1))
                 .retirementDate(LocalDate.of(2050, 1, 1))
                 .userId(USER_ID)
                 .build();
 
         List<Account> accounts = List.of(
-                Account.builder().amountNet(new BigDecimal("60000")).userId(USER_ID).build(),
-                Account.builder().amountNet(new BigDecimal("40000")).userId(USER_ID).build());
+                Account.builder().amountNet(Money.of("60000")).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("40000")).userId(USER_ID).build());
         when(accountRepository.findAllByUserId(USER_ID)).thenReturn(accounts);
 
         Assertions.assertThatThrownBy(() -> retirementGoalCalculator.calculateRetirementGoal(retirementDetail))
@@ -143,14 +145,14 @@ class RetirementGoalCalculatorTest {
     void handles_null_account_amounts() {
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("2000"))
+                .incomePerMonthDesired(Money.of("2000"))
                 .lifeExpectation(LocalDate.of(2050, 1, 1))
                 .retirementDate(LocalDate.of(2040, 1, 1))
                 .userId(USER_ID)
                 .build();
 
         List<Account> accounts = List.of(
-                Account.builder().amountNet(new BigDecimal("50000")).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("50000")).userId(USER_ID).build(),
                 Account.builder().amountNet(null).userId(USER_ID).build());
         when(accountRepository.findAllByUserId(USER_ID)).thenReturn(accounts);
 
@@ -163,29 +165,46 @@ class RetirementGoalCalculatorTest {
     void handles_large_values_for_savings_and_income() {
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("999999999999999999999999999999999999999999999999999999999999999"))
+                .incomePerMonthDesired(Money.of("1000000000000.00"))
                 .lifeExpectation(LocalDate.of(2100, 1, 1))
                 .retirementDate(LocalDate.of(2090, 1, 1))
                 .userId(USER_ID)
                 .build();
 
         List<Account> accounts = List.of(
-                Account.builder().amountNet(new BigDecimal("99999999999999999999999999999999999999999999999999999999999999")).userId(
-                        USER_ID).build(),
-                Account.builder().amountNet(new BigDecimal("88888888888888888888888888888888888888888888888888888888888888")).userId(
-                        USER_ID).build());
+                Account.builder().amountNet(Money.of("60000000000.00")).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("36000000000.00")).userId(USER_ID).build());
         when(accountRepository.findAllByUserId(USER_ID)).thenReturn(accounts);
 
         BigDecimal result = retirementGoalCalculator.calculateRetirementGoal(retirementDetail).getGoalPercentage();
 
-        assertEquals(new BigDecimal("0.16"), result);
+        assertEquals(new BigDecimal("0.08"), result);
+    }
+
+    @Test
+    void overflowing_savings_are_rejected_instead_of_wrapping_around() {
+
+        RetirementDetail retirementDetail = RetirementDetail.builder()
+                .incomePerMonthDesired(Money.of("2000"))
+                .lifeExpectation(LocalDate.of(2100, 1, 1))
+                .retirementDate(LocalDate.of(2090, 1, 1))
+                .userId(USER_ID)
+                .build();
+
+        List<Account> accounts = List.of(
+                Account.builder().amountNet(Money.ofMinorUnits(Long.MAX_VALUE)).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("1")).userId(USER_ID).build());
+        when(accountRepository.findAllByUserId(USER_ID)).thenReturn(accounts);
+
+        assertThrows(ArithmeticException.class, () -> retirementGoalCalculator.calculateRetirementGoal(retirementDetail));
+        Mockito.verifyNoInteractions(retirementGoalService);
     }
 
     @Test
     void test_handles_empty_account_list() {
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("2000"))
+                .incomePerMonthDesired(Money.of("2000"))
                 .retirementDate(LocalDate.of(2025, 1, 1))
                 .lifeExpectation(LocalDate.of(2045, 1, 1))
                 .userId(USER_ID)
@@ -203,7 +222,7 @@ class RetirementGoalCalculatorTest {
     void test_handles_null_account_amounts() {
 
         RetirementDetail retirementDetail = RetirementDetail.builder()
-                .incomePerMonthDesired(new BigDecimal("3000"))
+                .incomePerMonthDesired(Money.of("3000"))
                 .retirementDate(LocalDate.of(2030, 1, 1))
                 .lifeExpectation(LocalDate.of(2050, 1, 1))
                 .userId(USER_ID)
@@ -216,4 +235,32 @@ class RetirementGoalCalculatorTest {
                 .isInstanceOf(InvalidOperationException.class)
                 .hasMessage("Insufficient retirement information to calculate goal.");
     }
+
+    @Test
+    void calculates_retirement_goals_of_a_batch_with_one_account_query() {
+        LocalDate retirementDate = LocalDate.now().plusYears(50);
+        RetirementDetail withAccounts = RetirementDetail.builder()
+                .incomePerMonthDesired(Money.of("2000"))
+                .lifeExpectation(retirementDate.plusYears(30))
+                .retirementDate(retirementDate)
+                .userId(USER_ID)
+                .build();
+        RetirementDetail withoutAccounts = RetirementDetail.builder()
+                .incomePerMonthDesired(Money.of("2000"))
+                .lifeExpectation(retirementDate.plusYears(30))
+                .retirementDate(retirementDate)
+                .userId(2L)
+                .build();
+
+        when(accountRepository.findAllByUserIdIn(List.of(USER_ID, 2L))).thenReturn(List.of(
+                Account.builder().amountNet(Money.of("50000")).userId(USER_ID).build(),
+                Account.builder().amountNet(Money.of("100000")).userId(USER_ID).build()));
+
+        List<RetirementGoal> result = retirementGoalCalculator.calculateRetirementGoals(List.of(withAccounts, withoutAccounts));
+
+        List<RetirementGoal> goalsExpected = List.of(new RetirementGoal(USER_ID, new BigDecimal("20.83")));
+        Assertions.assertThat(result).usingRecursiveFieldByFieldElementComparator().isEqualTo(goalsExpected);
+        Mockito.verify(retirementGoalService).saveRetirementGoals(goalsExpected);
+        Mockito.verify(accountRepository, Mockito.never()).findAllByUserId(Mockito.anyLong());
+    }
 }
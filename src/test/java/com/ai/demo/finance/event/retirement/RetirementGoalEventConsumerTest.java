@@ -1,19 +1,20 @@
-
 package com.ai.demo.finance.event.retirement;
 
-import static org.mockito.Mockito.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.ai.demo.finance.event.EventMetrics;
 import com.ai.demo.finance.event.EventSource;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.repository.RetirementRepository;
-import java.util.Optional;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -26,33 +27,62 @@ class RetirementGoalEventConsumerTest {
     @Mock
     private RetirementGoalCalculator retirementGoalCalculator;
 
-    @InjectMocks
-    private RetirementGoalEventConsumer retirementGoalEventConsumer;
-
     @Test
     void test_event_processed_when_retirement_event_received() {
+        RetirementGoalEventConsumer retirementGoalEventConsumer = consumer(1);
         Long userId = 1L;
         RetirementGoalEvent event = new RetirementGoalEvent(userId, EventSource.RETIREMENT_UPDATE);
         RetirementDetail retirementDetail = mock(RetirementDetail.class);
 
-        when(retirementRepository.findByUserId(userId)).thenReturn(Optional.of(retirementDetail));
+        when(retirementRepository.findAllByUserIdIn(List.of(userId))).thenReturn(List.of(retirementDetail));
 
-        retirementGoalEventConsumer.processEvent(event);
+        assertEquals(Set.of(), retirementGoalEventConsumer.process(List.of(event)));
 
-        verify(retirementRepository).findByUserId(userId);
-        verify(retirementGoalCalculator).calculateRetirementGoal(retirementDetail);
+        verify(retirementRepository).findAllByUserIdIn(List.of(userId));
+        verify(retirementGoalCalculator).calculateRetirementGoals(List.of(retirementDetail));
     }
 
     @Test
     void test_retirement_detail_not_found_for_user_id() {
+        RetirementGoalEventConsumer retirementGoalEventConsumer = consumer(1);
         Long userId = 1L;
         RetirementGoalEvent event = new RetirementGoalEvent(userId, EventSource.RETIREMENT_UPDATE);
 
-        when(retirementRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(retirementRepository.findAllByUserIdIn(List.of(userId))).thenReturn(List.of());
+
+        retirementGoalEventConsumer.process(List.of(event));
+
+        verify(retirementRepository).findAllByUserIdIn(List.of(userId));
+        verify(retirementGoalCalculator).calculateRetirementGoals(List.of());
+    }
+
+    @Test
+    void test_distinct_users_are_processed_in_batches_of_one_query() {
+        RetirementGoalEventConsumer retirementGoalEventConsumer = consumer(3);
+        when(retirementRepository.findAllByUserIdIn(anyList())).thenReturn(List.of());
+
+        retirementGoalEventConsumer.process(List.of(new RetirementGoalEvent(1L, EventSource.SCAN),
+                new RetirementGoalEvent(2L, EventSource.SCAN), new RetirementGoalEvent(1L, EventSource.DEPOSIT),
+                new RetirementGoalEvent(3L, EventSource.SCAN), new RetirementGoalEvent(4L, EventSource.SCAN)));
+
+        verify(retirementRepository).findAllByUserIdIn(List.of(1L, 2L, 3L));
+        verify(retirementRepository).findAllByUserIdIn(List.of(4L));
+    }
 
-        retirementGoalEventConsumer.processEvent(event);
+    @Test
+    void test_users_of_a_failed_batch_are_reported() {
+        RetirementGoalEventConsumer retirementGoalEventConsumer = consumer(2);
+        when(retirementRepository.findAllByUserIdIn(List.of(1L, 2L))).thenReturn(List.of());
+        when(retirementRepository.findAllByUserIdIn(List.of(3L))).thenThrow(new IllegalStateException("database unavailable"));
+
+        Set<Long> failed = retirementGoalEventConsumer.process(List.of(new RetirementGoalEvent(1L, EventSource.SCAN),
+                new RetirementGoalEvent(2L, EventSource.SCAN), new RetirementGoalEvent(3L, EventSource.SCAN)));
+
+        assertEquals(Set.of(3L), failed);
+    }
 
-        verify(retirementRepository).findByUserId(userId);
-        verify(retirementGoalCalculator, never()).calculateRetirementGoal(any());
+    private RetirementGoalEventConsumer consumer(int batchSize) {
+        return new RetirementGoalEventConsumer(retirementRepository, retirementGoalCalculator, Runnable::run,
+                new EventMetrics(new SimpleMeterRegistry()), batchSize);
     }
-}
\ No newline at end of file
+}
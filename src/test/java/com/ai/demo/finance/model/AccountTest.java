@@ -6,10 +6,15 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.enums.AccountType;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -20,16 +25,16 @@ class AccountTest {
     @ValueSource(strings = {"0", "-1"})
     void test_add_invalid_balance_throws_exception(String balance) {
         Account account = Account.builder()
-                .amount(BigDecimal.TEN)
+                .amount(Money.of(BigDecimal.TEN))
                 .build();
-        BigDecimal deposit = BigDecimal.valueOf(Long.parseLong(balance));
+        Money deposit = Money.of(balance);
         assertThrows(InvalidOperationException.class, () -> account.deposit(deposit));
     }
 
     @Test
     void test_add_null_balance_throws_exception() {
         Account account = Account.builder()
-                .amount(BigDecimal.TEN)
+                .amount(Money.of(BigDecimal.TEN))
                 .build();
         assertThrows(InvalidOperationException.class, () -> account.deposit(null));
     }
@@ -38,11 +43,11 @@ class AccountTest {
     @Test
     void test_add_positive_balance_updates_amount() {
         Account account = Account.builder()
-                .amount(BigDecimal.valueOf(100))
+                .amount(Money.of(BigDecimal.valueOf(100)))
                 .build();
-        BigDecimal amountToAdd = BigDecimal.valueOf(50);
+        Money amountToAdd = Money.of("50");
         AccountHistory history = account.deposit(amountToAdd);
-        assertEquals(BigDecimal.valueOf(150), account.getAmount());
+        assertEquals(Money.of("150"), account.getAmount());
         assertNotNull(history);
     }
 
@@ -51,13 +56,13 @@ class AccountTest {
     void test_positive_balance_creates_new_history_entry() {
         // Arrange
         Account account = new Account();
-        BigDecimal initialAmount = new BigDecimal("100.00");
+        Money initialAmount = Money.of("100.00");
         Account.builder()
                 .amount(initialAmount)
                 .id(133L);
 
         // Act
-        AccountHistory history = account.deposit(new BigDecimal("50.00"));
+        AccountHistory history = account.deposit(Money.of("50.00"));
 
         // Assert
         assertNotNull(history);
@@ -72,24 +77,24 @@ class AccountTest {
     void test_positive_balance_appends_to_history() {
         // Initialize Account object
         Account account = Account.builder()
-                .amount(BigDecimal.valueOf(100))
+                .amount(Money.of(BigDecimal.valueOf(100)))
                 .id(1L)
                 .type(AccountType.SAVINGS)
                 .date(LocalDateTime.now())
                 .build();
 
         // Invoke addBalance method with positive balance
-        AccountHistory history = account.deposit(new BigDecimal("50"));
+        AccountHistory history = account.deposit(Money.of("50"));
 
         // Assertions
-        assertEquals(new BigDecimal("150"), account.getAmount());
+        assertEquals(Money.of("150"), account.getAmount());
         assertNotNull(history);
     }
 
     @Test
     void test_calculate_net_amount_with_valid_positive_inflation_rate() {
-        BigDecimal amount = new BigDecimal("1000");
-        BigDecimal expectedNetAmount = new BigDecimal("900.00");
+        Money amount = Money.of("1000");
+        Money expectedNetAmount = Money.of("900.00");
         InflationRate inflationRate = InflationRate.builder().percentageRate(BigDecimal.valueOf(10))
                 .build();
 
@@ -102,8 +107,8 @@ class AccountTest {
 
     @Test
     void test_calculate_net_amount_with_valid_negative_inflation_rate() {
-        BigDecimal amount = new BigDecimal("1000");
-        BigDecimal expectedNetAmount = new BigDecimal("1100.00");
+        Money amount = Money.of("1000");
+        Money expectedNetAmount = Money.of("1100.00");
         InflationRate inflationRate = InflationRate.builder().percentageRate(BigDecimal.valueOf(-10))
                 .build();
 
@@ -113,4 +118,45 @@ class AccountTest {
 
         assertEquals(expectedNetAmount, account.getAmountNet());
     }
+
+    @Test
+    void test_calculate_net_amount_values_each_deposit_since_its_month() {
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        CpiSeries cpiSeries = new CpiSeries(Country.ES, Indicator.PCPI_IX, now - 24,
+                new double[] {100.0, Double.NaN, 120.0});
+        Account account = Account.builder().amount(Money.of("1000"))
+                .date(LocalDateTime.now().minusMonths(24)).build();
+
+        account.deposit(Money.of("600"), cpiSeries, now);
+        account.calculateNetAmount(cpiSeries, now);
+
+        // the month deposited is after the last observation, so it takes the latest index
+        assertEquals(Money.of("1433.33"), account.getAmountNet());
+        assertEquals(Money.of("1600"), account.getAmount());
+    }
+
+    @Test
+    void test_indexed_deposit_rejected_before_indexing_the_balance() {
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        CpiSeries cpiSeries = new CpiSeries(Country.ES, Indicator.PCPI_IX, now, new double[] {100.0});
+        Account account = Account.builder().amount(Money.of("1000")).build();
+
+        assertThrows(InvalidOperationException.class, () -> account.deposit(Money.of("-1"), cpiSeries, now));
+
+        assertNull(account.getAmountIndexed());
+        assertEquals(Money.of("1000"), account.getAmount());
+    }
+
+    @Test
+    void test_calculate_net_amount_from_the_index_at_an_earlier_month() {
+        int opened = CpiSeries.monthOrdinal(2020, 1);
+        CpiSeries cpiSeries = new CpiSeries(Country.ES, Indicator.PCPI_IX, opened, new double[] {100.0, 104.0, 125.0});
+        Account account = Account.builder().amount(Money.of("500")).date(LocalDateTime.of(2020, 1, 15, 10, 0)).build();
+
+        account.calculateNetAmount(cpiSeries, opened + 2);
+        assertEquals(Money.of("400.00"), account.getAmountNet());
+
+        account.calculateNetAmount(cpiSeries, opened);
+        assertEquals(Money.of("500.00"), account.getAmountNet());
+    }
 }
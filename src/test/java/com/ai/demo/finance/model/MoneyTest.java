@@ -0,0 +1,65 @@
+package com.ai.demo.finance.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ai.demo.finance.exception.InvalidOperationException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class MoneyTest {
+
+    @ParameterizedTest
+    @CsvSource({"10.005, 1001", "10.004, 1000", "-10.005, -1001", "7, 700"})
+    void test_amounts_are_rounded_half_up_to_minor_units(String amount, long minorUnits) {
+        assertEquals(minorUnits, Money.of(amount).getMinorUnits());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10.01, 1001", "10.010000, 1001", "7, 700", "1E+2, 10000"})
+    void test_exact_amounts_keep_their_minor_units(String amount, long minorUnits) {
+        assertEquals(minorUnits, Money.ofExact(new BigDecimal(amount)).getMinorUnits());
+    }
+
+    @Test
+    void test_exact_amounts_reject_fractions_of_a_minor_unit() {
+        assertThrows(InvalidOperationException.class, () -> Money.ofExact(new BigDecimal("10.005")));
+    }
+
+    @Test
+    void test_arithmetic_rounds_like_big_decimal() {
+        Money amount = Money.of("1234.57");
+
+        assertEquals(new BigDecimal("1234.57").multiply(new BigDecimal("0.98")).setScale(2, RoundingMode.HALF_UP),
+                amount.times(98, 2).toBigDecimal());
+        assertEquals(Money.of("1111.11"), amount.times(0.9));
+        assertEquals(Money.of("1235.57"), amount.plus(Money.of("1")));
+        assertEquals(3, Money.divide(5, 2));
+        assertEquals(-3, Money.divide(-5, 2));
+        assertEquals(2083, Money.percentage(15_000_000, 72_000_000));
+    }
+
+    @Test
+    void test_overflow_throws_instead_of_wrapping_around() {
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.of("0.01")));
+        assertThrows(ArithmeticException.class, () -> max.times(101, 2));
+        assertThrows(ArithmeticException.class, () -> max.times(1.5));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinorUnits(1).times(Double.NaN));
+    }
+
+    @Test
+    void test_converter_keeps_two_decimal_places() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("5.00"), converter.convertToDatabaseColumn(Money.of("5")));
+        assertEquals(Money.of("5"), converter.convertToEntityAttribute(new BigDecimal("5.0000")));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
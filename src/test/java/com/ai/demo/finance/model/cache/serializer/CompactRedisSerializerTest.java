@@ -0,0 +1,100 @@
+package com.ai.demo.finance.model.cache.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.cache.RetirementGoal;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.math.BigDecimal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class CompactRedisSerializerTest {
+
+    private final InflationRateRedisSerializer inflationRateSerializer = new InflationRateRedisSerializer(false);
+    private final RetirementGoalRedisSerializer retirementGoalSerializer = new RetirementGoalRedisSerializer(false);
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    @Test
+    void test_inflation_rate_round_trip() {
+        InflationRate inflationRate = new InflationRate(new BigDecimal("-0.26"), "2024-05", Country.ES, Indicator.PCPI_IX);
+
+        byte[] bytes = inflationRateSerializer.serialize(inflationRate);
+
+        Assertions.assertThat(inflationRateSerializer.deserialize(bytes)).usingRecursiveComparison().isEqualTo(inflationRate);
+        assertTrue(bytes.length < jdkSerializer.serialize(inflationRate).length / 10);
+    }
+
+    @Test
+    void test_inflation_rate_round_trip_with_null_fields() {
+        InflationRate inflationRate = InflationRate.builder().country(Country.BR).build();
+
+        InflationRate result = inflationRateSerializer.deserialize(inflationRateSerializer.serialize(inflationRate));
+
+        Assertions.assertThat(result).usingRecursiveComparison().isEqualTo(inflationRate);
+    }
+
+    @Test
+    void test_retirement_goal_round_trip_with_large_decimal() {
+        RetirementGoal retirementGoal = new RetirementGoal(989299L, new BigDecimal("123456789012345678901234567890.123456"));
+
+        RetirementGoal result = retirementGoalSerializer.deserialize(retirementGoalSerializer.serialize(retirementGoal));
+
+        assertEquals(retirementGoal.getUserId(), result.getUserId());
+        assertEquals(retirementGoal.getGoalPercentage(), result.getGoalPercentage());
+    }
+
+    @Test
+    void test_reads_values_written_with_jdk_serialization() {
+        RetirementGoal retirementGoal = new RetirementGoal(1L, new BigDecimal("20.83"));
+
+        RetirementGoal result = retirementGoalSerializer.deserialize(jdkSerializer.serialize(retirementGoal));
+
+        assertEquals(new BigDecimal("20.83"), result.getGoalPercentage());
+    }
+
+    @Test
+    void test_legacy_writes_keep_jdk_serialization() {
+        RetirementGoal retirementGoal = new RetirementGoal(1L, new BigDecimal("20.83"));
+
+        byte[] bytes = new RetirementGoalRedisSerializer(true).serialize(retirementGoal);
+
+        assertArrayEquals(jdkSerializer.serialize(retirementGoal), bytes);
+        assertEquals(retirementGoal.getUserId(), retirementGoalSerializer.deserialize(bytes).getUserId());
+    }
+
+    @Test
+    void test_cpi_series_round_trip_keeps_missing_months() {
+        CpiSeriesRedisSerializer cpiSeriesSerializer = new CpiSeriesRedisSerializer();
+        CpiSeries cpiSeries = new CpiSeries(Country.US, Indicator.PCPI_IX, CpiSeries.monthOrdinal(2024, 1),
+                new double[] {309.685, Double.NaN, 312.23});
+
+        CpiSeries result = cpiSeriesSerializer.deserialize(cpiSeriesSerializer.serialize(cpiSeries));
+
+        assertEquals(Country.US, result.getCountry());
+        assertEquals(Indicator.PCPI_IX, result.getIndicator());
+        assertEquals(CpiSeries.monthOrdinal(2024, 1), result.getFirstMonth());
+        assertEquals(CpiSeries.monthOrdinal(2024, 3), result.getLastMonth());
+        assertArrayEquals(cpiSeries.getValues(), result.getValues());
+    }
+
+    @Test
+    void test_rejects_unknown_version() {
+        assertThrows(SerializationException.class, () -> retirementGoalSerializer.deserialize(new byte[] {9, 0, 0}));
+    }
+
+    @Test
+    void test_null_and_empty_values() {
+        assertEquals(0, inflationRateSerializer.serialize(null).length);
+        assertNull(inflationRateSerializer.deserialize(new byte[0]));
+        assertNull(inflationRateSerializer.deserialize(null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ai.demo.finance.model.external.imf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ai.demo.finance.model.enums.Country;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompactDataStreamParserTest {
+
+    @Test
+    void test_parse_observations_of_every_series_in_order() throws IOException {
+        List<Observation> observations = new ArrayList<>();
+
+        try (InputStream inputStream = getClass().getResourceAsStream("/json/ifs-multi-country-response.json")) {
+            CompactDataStreamParser.parse(inputStream, observations::add);
+        }
+
+        assertEquals(18, observations.size());
+        assertEquals(new Observation(Country.ES, Indicator.PCPI_IX, "2024-01", new BigDecimal("129.308147893353")), observations.get(0));
+        assertEquals(List.of(Country.ES, Country.US, Country.BR),
+                observations.stream().map(Observation::country).distinct().toList());
+    }
+
+    @Test
+    void test_parse_response_fed_one_byte_at_a_time() throws IOException {
+        byte[] response = ("{\"CompactData\":{\"DataSet\":{\"Series\":{\"@REF_AREA\":\"BR\",\"@INDICATOR\":\"PCPI_IX\","
+                + "\"Obs\":{\"@TIME_PERIOD\":\"2024-06\",\"@OBS_VALUE\":\"6714.93\"}}}}}").getBytes(StandardCharsets.UTF_8);
+        List<Observation> observations = new ArrayList<>();
+
+        try (CompactDataStreamParser parser = new CompactDataStreamParser(observations::add)) {
+            for (int i = 0; i < response.length; i++) {
+                parser.feed(response, i, 1);
+            }
+            parser.endOfInput();
+        }
+
+        assertEquals(List.of(new Observation(Country.BR, Indicator.PCPI_IX, "2024-06", new BigDecimal("6714.93"))), observations);
+    }
+
+    @Test
+    void test_skip_observations_of_unknown_reference_areas() throws IOException {
+        String response = "{\"CompactData\":{\"DataSet\":{\"Series\":["
+                + "{\"@REF_AREA\":\"XX\",\"@INDICATOR\":\"PCPI_IX\",\"Obs\":[{\"@TIME_PERIOD\":\"2024-06\",\"@OBS_VALUE\":\"1\"}]},"
+                + "{\"@REF_AREA\":\"US\",\"@INDICATOR\":\"PCPI_IX\",\"Obs\":[{\"@TIME_PERIOD\":\"2024-06\",\"@OBS_VALUE\":2}]}]}}}";
+        List<Observation> observations = new ArrayList<>();
+
+        CompactDataStreamParser.parse(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)), observations::add);
+
+        assertEquals(List.of(new Observation(Country.US, Indicator.PCPI_IX, "2024-06", new BigDecimal("2"))), observations);
+    }
+
+    @Test
+    void test_truncated_response_fails() {
+        byte[] response = "{\"CompactData\":{\"DataSet\":{\"Series\":[".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> CompactDataStreamParser.parse(new ByteArrayInputStream(response), observation -> {
+        }));
+    }
+}
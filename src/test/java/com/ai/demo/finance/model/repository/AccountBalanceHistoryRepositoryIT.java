@@ -0,0 +1,159 @@
+package com.ai.demo.finance.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.enums.BalanceGranularity;
+import com.ai.demo.finance.model.repository.AccountBalanceHistoryRepository.BalanceBucket;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DataJpaTest
+@Import({AccountBalanceHistoryRepository.class, AccountHistoryBatchRepository.class})
+@Log4j2
+class AccountBalanceHistoryRepositoryIT {
+
+    private static final long ACCOUNT_ID = 7L;
+    private static final OffsetDateTime MONDAY = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private AccountBalanceHistoryRepository balanceHistoryRepository;
+    @Autowired
+    private AccountHistoryRepository historyRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AccountHistoryBatchRepository historyBatchRepository;
+
+    @BeforeEach
+    void setUp() {
+        // 100 deposited at each of these instants, starting from 1000
+        givenDeposits(MONDAY.plusHours(9), MONDAY.plusHours(18), MONDAY.plusDays(1).plusHours(10), MONDAY.plusDays(9),
+                MONDAY.plusMonths(1).plusHours(2));
+        givenHistory(8L, MONDAY.plusHours(12), "5.00");
+        entityManager.flush();
+    }
+
+    @Test
+    void daily_buckets_with_opening_and_closing_balances() {
+        assertEquals(List.of(
+                bucket(MONDAY, "1000.00", "1200.00"),
+                bucket(MONDAY.plusDays(1), "1200.00", "1300.00"),
+                bucket(MONDAY.plusDays(2), "1300.00", "1300.00")),
+                balanceHistoryRepository.findBuckets(ACCOUNT_ID, BalanceGranularity.DAY, MONDAY, 3, Money.of("1500.00")));
+    }
+
+    @Test
+    void weekly_and_monthly_buckets() {
+        assertEquals(List.of(
+                bucket(MONDAY, "1000.00", "1300.00"),
+                bucket(MONDAY.plusWeeks(1), "1300.00", "1400.00"),
+                bucket(MONDAY.plusWeeks(2), "1400.00", "1400.00")),
+                balanceHistoryRepository.findBuckets(ACCOUNT_ID, BalanceGranularity.WEEK, MONDAY, 3, Money.of("1500.00")));
+        assertEquals(List.of(
+                bucket(MONDAY, "1000.00", "1400.00"),
+                bucket(MONDAY.plusMonths(1), "1400.00", "1500.00")),
+                balanceHistoryRepository.findBuckets(ACCOUNT_ID, BalanceGranularity.MONTH, MONDAY, 2, Money.of("1500.00")));
+    }
+
+    @Test
+    void buckets_after_the_last_deposit_hold_the_current_balance() {
+        assertEquals(List.of(
+                bucket(MONDAY.plusMonths(1), "1400.00", "1500.00"),
+                bucket(MONDAY.plusMonths(1).plusDays(1), "1500.00", "1500.00")),
+                balanceHistoryRepository.findBuckets(ACCOUNT_ID, BalanceGranularity.DAY, MONDAY.plusMonths(1), 2,
+                        Money.of("1500.00")));
+    }
+
+    @Test
+    void balance_at_is_the_one_before_the_next_deposit() {
+        assertEquals(Optional.of(Money.of("1000.00")), balanceHistoryRepository.findBalanceAt(ACCOUNT_ID, MONDAY));
+        assertEquals(Optional.of(Money.of("1100.00")), balanceHistoryRepository.findBalanceAt(ACCOUNT_ID, MONDAY.plusHours(9)));
+        assertEquals(Optional.of(Money.of("1300.00")), balanceHistoryRepository.findBalanceAt(ACCOUNT_ID,
+                MONDAY.plusDays(5).withOffsetSameInstant(ZoneOffset.ofHours(2))));
+        assertTrue(balanceHistoryRepository.findBalanceAt(ACCOUNT_ID, MONDAY.plusMonths(1).plusHours(2)).isEmpty());
+    }
+
+    @Test
+    void history_written_in_another_default_zone_is_compared_in_utc() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            long accountId = 11L;
+            OffsetDateTime deposited = MONDAY.plusHours(22);
+            historyBatchRepository.insertAll(List.of(AccountHistory.builder().id(900L).accountId(accountId)
+                    .amount(Money.of("50.00")).date(deposited.atZoneSameInstant(ZoneId.systemDefault())).build()));
+
+            assertEquals(Optional.of(Money.of("50.00")), balanceHistoryRepository.findBalanceAt(accountId, deposited.minusMinutes(1)));
+            assertTrue(balanceHistoryRepository.findBalanceAt(accountId, deposited).isEmpty());
+            assertEquals(List.of(bucket(MONDAY, "50.00", "80.00"), bucket(MONDAY.plusDays(1), "80.00", "80.00")),
+                    balanceHistoryRepository.findBuckets(accountId, BalanceGranularity.DAY,
+                            MONDAY.withOffsetSameInstant(ZoneOffset.ofHours(-3)), 2, Money.of("80.00")));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.history-rows", matches = "\\d+")
+    void buckets_of_an_account_with_millions_of_deposits() {
+        int rows = Integer.getInteger("benchmark.history-rows");
+        long accountId = 9L;
+        jdbcTemplate.update("""
+                INSERT INTO account_history (id, account_id, amount, date)
+                SELECT 1000000000 + x, ?, x, TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00' + x * INTERVAL '1' MINUTE
+                FROM SYSTEM_RANGE(1, ?)
+                """, accountId, rows);
+        jdbcTemplate.update("INSERT INTO account_history (id, account_id, amount, date) SELECT 2000000000 + x, 10, x, "
+                + "TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00' FROM SYSTEM_RANGE(1, ?)", rows);
+        OffsetDateTime from = OffsetDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT amount FROM account_history WHERE account_id = 9 "
+                + "AND date > TIMESTAMP WITH TIME ZONE '2020-02-01 00:00:00+00' ORDER BY account_id, date, id FETCH FIRST ROW ONLY", String.class));
+        log.info("Plan of the balance at an instant:\n{}", plan);
+        for (BalanceGranularity granularity : BalanceGranularity.values()) {
+            int count = (int) Math.min(granularity.getUnit().between(from, from.plusYears(10)), 1000);
+            long start = System.nanoTime();
+            List<BalanceBucket> buckets = balanceHistoryRepository.findBuckets(accountId, granularity, from, count, Money.ZERO);
+            log.info("{} {} buckets of {} deposits in {} ms", buckets.size(), granularity, rows, (System.nanoTime() - start) / 1_000_000);
+        }
+        long start = System.nanoTime();
+        balanceHistoryRepository.findBalanceAt(accountId, from.plusDays(100));
+        log.info("Balance at an instant in {} us", (System.nanoTime() - start) / 1_000);
+        assertTrue(plan.contains("IDX_ACCOUNT_DATE"), plan);
+    }
+
+    private void givenDeposits(OffsetDateTime... dates) {
+        Money balance = Money.of("1000.00");
+        for (OffsetDateTime date : dates) {
+            givenHistory(ACCOUNT_ID, date, balance.toBigDecimal().toPlainString());
+            balance = balance.plus(Money.of("100.00"));
+        }
+    }
+
+    private void givenHistory(Long accountId, OffsetDateTime date, String amount) {
+        historyRepository.save(AccountHistory.builder().accountId(accountId).amount(Money.of(amount))
+                .date(date.toZonedDateTime()).build());
+    }
+
+    private static BalanceBucket bucket(OffsetDateTime start, String opening, String closing) {
+        return new BalanceBucket(start, Money.of(opening), Money.of(closing));
+    }
+}
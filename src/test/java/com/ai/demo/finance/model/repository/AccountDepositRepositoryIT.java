@@ -0,0 +1,150 @@
+package com.ai.demo.finance.model.repository;
+
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.repository.AccountDepositRepository.DepositTarget;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@Import(AccountDepositRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountDepositRepositoryIT {
+
+    @Autowired
+    private AccountDepositRepository accountDepositRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void atomic_deposits_off_by_default_and_a_single_statement_on_h2() {
+        assertFalse(accountDepositRepository.isEnabled());
+        assertTrue(new AccountDepositRepository(namedParameterJdbcTemplate, true, true).isSingleStatement());
+        assertFalse(new AccountDepositRepository(namedParameterJdbcTemplate, true, false).isSingleStatement());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void deposit_increments_balance_and_records_previous_one(boolean deltaTables) {
+        Account account = givenAccount("deposit-" + deltaTables, Country.BR, null);
+
+        ZonedDateTime date = ZonedDateTime.of(2024, 3, 1, 10, 15, 0, 0, ZoneId.systemDefault());
+
+        Account deposited = transactionTemplate.execute(status -> depositRepository(deltaTables)
+                .deposit(account.getId(), Money.of("10.50"), Map.of(), 1_000_001L + (deltaTables ? 0 : 10), date))
+                .orElseThrow();
+
+        assertEquals(Money.of("1010.50"), deposited.getAmount());
+        assertEquals(account.getUserId(), deposited.getUserId());
+        assertEquals(SAVINGS, deposited.getType());
+        assertEquals(account.getVersion() + 1, deposited.getVersion());
+        assertEquals(List.of(1_000_001L + (deltaTables ? 0 : 10)), jdbcTemplate.queryForList(
+                "SELECT id FROM account_history WHERE account_id = ?", Long.class, account.getId()));
+        assertEquals(List.of(new BigDecimal("1000.00")), jdbcTemplate.queryForList(
+                "SELECT amount FROM account_history WHERE account_id = ?", BigDecimal.class, account.getId()));
+        assertTrue(date.toOffsetDateTime().isEqual(jdbcTemplate.queryForObject(
+                "SELECT date FROM account_history WHERE account_id = ?", OffsetDateTime.class, account.getId())));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void deposit_is_indexed_for_the_country_of_the_account(boolean deltaTables) {
+        Account account = givenAccount("indexed-" + deltaTables, Country.ES, Money.of("500.00"));
+
+        Account deposited = transactionTemplate.execute(status -> depositRepository(deltaTables)
+                .deposit(account.getId(), Money.of("10.00"), Map.of(Country.ES, Money.of("8.00"), Country.US, Money.of("9.00")),
+                        1_000_002L + (deltaTables ? 0 : 10), ZonedDateTime.now()))
+                .orElseThrow();
+
+        assertEquals(Money.of("1010.00"), deposited.getAmount());
+        assertEquals(Money.of("508.00"), deposited.getAmountIndexed());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void deposit_not_applied_when_account_must_be_indexed_first(boolean deltaTables) {
+        Account account = givenAccount("unindexed-" + deltaTables, Country.ES, null);
+
+        assertTrue(transactionTemplate.execute(status -> depositRepository(deltaTables)
+                .deposit(account.getId(), Money.of("10.00"), Map.of(Country.ES, Money.of("8.00")), 1_000_003L, ZonedDateTime.now()))
+                .isEmpty());
+
+        assertEquals(Money.of("1000.00"), accountRepository.findById(account.getId()).orElseThrow().getAmount());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_history WHERE account_id = ?", Long.class,
+                account.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void deposit_not_applied_when_account_does_not_exist(boolean deltaTables) {
+        assertTrue(depositRepository(deltaTables).deposit(-1L, Money.of("10.00"), Map.of(), 1_000_004L, ZonedDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void batch_locks_accounts_with_their_country_and_writes_balances() {
+        Account first = givenAccount("batch-first", Country.BR, null);
+        Account second = givenAccount("batch-second", Country.ES, Money.of("500.00"));
+
+        List<DepositTarget> targets = accountDepositRepository.lockForDeposit(List.of(first.getId(), second.getId(), -1L));
+        assertEquals(List.of(first.getId(), second.getId()), targets.stream().map(target -> target.account().getId()).toList());
+        assertEquals(List.of(Country.BR, Country.ES), targets.stream().map(DepositTarget::country).toList());
+
+        targets.forEach(target -> target.account().deposit(Money.of("25.00")));
+        accountDepositRepository.updateBalances(targets.stream().map(DepositTarget::account).toList());
+
+        Account updated = accountRepository.findById(second.getId()).orElseThrow();
+        assertEquals(Money.of("1025.00"), updated.getAmount());
+        assertEquals(Money.of("500.00"), updated.getAmountIndexed());
+        assertEquals(second.getVersion() + 1, updated.getVersion());
+        assertEquals(Money.of("1025.00"), accountRepository.findById(first.getId()).orElseThrow().getAmount());
+    }
+
+    private AccountDepositRepository depositRepository(boolean deltaTables) {
+        return new AccountDepositRepository(namedParameterJdbcTemplate, true, deltaTables);
+    }
+
+    private Account givenAccount(String username, Country country, Money amountIndexed) {
+        Long userId = userRepository.save(new User(null, username, country)).getId();
+        return accountRepository.save(Account.builder().amount(Money.of("1000.00")).amountIndexed(amountIndexed)
+                .type(SAVINGS).date(LocalDateTime.now()).userId(userId).build());
+    }
+}
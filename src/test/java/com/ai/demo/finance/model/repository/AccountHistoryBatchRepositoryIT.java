@@ -0,0 +1,68 @@
+package com.ai.demo.finance.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Import(AccountHistoryBatchRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountHistoryBatchRepositoryIT {
+
+    @Autowired
+    private AccountHistoryBatchRepository historyBatchRepository;
+    @Autowired
+    private AccountHistoryRepository historyRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void id_blocks_do_not_collide_with_hibernate_ids() {
+        Set<Long> ids = new HashSet<>();
+        List<AccountHistory> batch = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            long first = historyBatchRepository.nextIdBlock();
+            LongStream.range(first, first + AccountHistory.ID_ALLOCATION_SIZE)
+                    .forEach(id -> batch.add(history(id, 1L)));
+            for (int i = 0; i < AccountHistory.ID_ALLOCATION_SIZE + 1; i++) {
+                ids.add(historyRepository.save(history(null, 2L)).getId());
+            }
+        }
+        historyBatchRepository.insertAll(batch);
+        batch.forEach(history -> ids.add(history.getId()));
+
+        assertEquals(batch.size() + 3 * (AccountHistory.ID_ALLOCATION_SIZE + 1), ids.size());
+        assertEquals(ids.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_history WHERE account_id IN (1, 2)", Long.class));
+    }
+
+    @Test
+    void rows_inserted_with_their_ids() {
+        long first = historyBatchRepository.nextIdBlock();
+
+        historyBatchRepository.insertAll(List.of(history(first, 3L), history(first + 1, 3L)));
+
+        List<Long> inserted = jdbcTemplate.queryForList("SELECT id FROM account_history WHERE account_id = 3 ORDER BY id", Long.class);
+        assertEquals(List.of(first, first + 1), inserted);
+        assertTrue(historyRepository.findById(first).isPresent());
+    }
+
+    private static AccountHistory history(Long id, Long accountId) {
+        return AccountHistory.builder().id(id).accountId(accountId).amount(Money.of("100.00")).date(ZonedDateTime.now()).build();
+    }
+}
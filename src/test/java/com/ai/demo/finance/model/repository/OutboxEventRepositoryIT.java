@@ -0,0 +1,132 @@
+package com.ai.demo.finance.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.model.OutboxEvent;
+import com.ai.demo.finance.model.enums.OutboxEventType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxEventRepositoryIT {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        outboxEventRepository.deleteAll();
+        ids = outboxEventRepository.saveAll(List.of(
+                        new OutboxEvent(OutboxEventType.ACCOUNT_NET_AMOUNT, 1L, EventSource.DEPOSIT),
+                        new OutboxEvent(OutboxEventType.RETIREMENT_GOAL, 2L, EventSource.DEPOSIT)))
+                .stream().map(OutboxEvent::getId).toList();
+    }
+
+    @Test
+    void rows_claimed_by_a_dispatcher_are_left_to_it_until_the_claim_expires() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(2, claim("first", now.plusMinutes(5), now));
+        assertEquals(0, claim("second", now.plusMinutes(5), now));
+        assertEquals(2, outboxEventRepository.findByClaimedByAndIdIn("first", ids).size());
+        assertTrue(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(now.plusMinutes(1),
+                Limit.of(10)).isEmpty());
+
+        LocalDateTime expired = now.plusMinutes(6);
+        assertEquals(2, claim("second", expired.plusMinutes(5), expired));
+        assertEquals(2, outboxEventRepository.findByClaimedByAndIdIn("second", ids).size());
+    }
+
+    @Test
+    void rows_are_only_deleted_by_the_dispatcher_holding_them() {
+        LocalDateTime now = LocalDateTime.now();
+        claim("first", now.plusMinutes(5), now);
+
+        assertEquals(0, deleteClaimed("second"));
+        assertEquals(2, deleteClaimed("first"));
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void postponed_rows_are_released() {
+        LocalDateTime now = LocalDateTime.now();
+        claim("first", now.plusMinutes(5), now);
+
+        assertEquals(0, postpone("second", now.plusSeconds(1)));
+        assertEquals(2, postpone("first", now.plusSeconds(1)));
+
+        assertTrue(outboxEventRepository.findByClaimedByAndIdIn("first", ids).isEmpty());
+        assertEquals(2, claim("second", now.plusMinutes(5), now.plusSeconds(2)));
+        assertTrue(outboxEventRepository.findAll().stream().allMatch(outboxEvent -> outboxEvent.getAttempts() == 1));
+    }
+
+    @Test
+    void rows_of_the_same_users_not_due_yet_are_claimed_with_the_due_ones() {
+        Duration window = Duration.ofMinutes(1);
+        Long sameUser = outboxEventRepository.save(
+                new OutboxEvent(OutboxEventType.ACCOUNT_NET_AMOUNT, 1L, EventSource.DEPOSIT, window)).getId();
+        outboxEventRepository.save(new OutboxEvent(OutboxEventType.ACCOUNT_NET_AMOUNT, 3L, EventSource.DEPOSIT, window));
+        outboxEventRepository.save(new OutboxEvent(OutboxEventType.RETIREMENT_GOAL, 1L, EventSource.DEPOSIT, window));
+        LocalDateTime now = LocalDateTime.now();
+        claim("first", now.plusMinutes(5), now);
+
+        List<Long> waiting = outboxEventRepository.findWaitingIds(OutboxEventType.ACCOUNT_NET_AMOUNT, List.of(1L));
+
+        assertEquals(List.of(sameUser), waiting);
+        assertEquals(0, transactionTemplate.execute(status -> outboxEventRepository.claimWaiting("second", now.plusMinutes(5),
+                ids)).intValue());
+        assertEquals(1, transactionTemplate.execute(status -> outboxEventRepository.claimWaiting("first", now.plusMinutes(5),
+                waiting)).intValue());
+        assertTrue(outboxEventRepository.findWaitingIds(OutboxEventType.ACCOUNT_NET_AMOUNT, List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void parked_rows_are_never_claimed_again() {
+        LocalDateTime now = LocalDateTime.now();
+        claim("first", now.plusMinutes(5), now);
+
+        assertEquals(0, park("second"));
+        assertEquals(2, park("first"));
+
+        LocalDateTime later = now.plusMinutes(10);
+        assertTrue(outboxEventRepository.findByParkedFalseAndAvailableAtLessThanEqualOrderByAvailableAtAscIdAsc(later,
+                Limit.of(10)).isEmpty());
+        assertEquals(0, claim("second", later.plusMinutes(5), later));
+        assertEquals(0, outboxEventRepository.countByParkedFalse());
+        assertEquals(2, outboxEventRepository.count());
+    }
+
+    private int postpone(String claimedBy, LocalDateTime availableAt) {
+        return transactionTemplate.execute(status -> outboxEventRepository.postpone(claimedBy, availableAt, ids));
+    }
+
+    private int park(String claimedBy) {
+        return transactionTemplate.execute(status -> outboxEventRepository.park(claimedBy, ids));
+    }
+
+    private int deleteClaimed(String claimedBy) {
+        return transactionTemplate.execute(status -> outboxEventRepository.deleteClaimed(claimedBy, ids));
+    }
+
+    private int claim(String claimedBy, LocalDateTime expiresAt, LocalDateTime now) {
+        return transactionTemplate.execute(status -> outboxEventRepository.claim(claimedBy, expiresAt, now, ids));
+    }
+}
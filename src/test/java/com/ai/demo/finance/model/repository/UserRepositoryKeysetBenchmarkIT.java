@@ -0,0 +1,89 @@
+package com.ai.demo.finance.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ai.demo.finance.model.enums.Country;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares the latency of a keyset page with an offset page (plus its count query) at
+ * increasing depths. Seeding millions of users takes a while, so it only runs on demand:
+ * {@code mvn test -Dtest=UserRepositoryKeysetBenchmarkIT -Dbenchmark.users=5000000}
+ */
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark.users", matches = "\\d+")
+@Log4j2
+class UserRepositoryKeysetBenchmarkIT {
+
+    private static final long FIRST_ID = 10_000_000L;
+    private static final long SEED_CHUNK = 250_000L;
+    private static final int PAGE_SIZE = 1000;
+    private static final int REPETITIONS = 5;
+    private static final double[] DEPTHS = {0.0, 0.25, 0.5, 0.75, 0.99};
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long users;
+
+    @BeforeAll
+    void seed() {
+        users = Long.getLong("benchmark.users");
+        for (long from = FIRST_ID; from < FIRST_ID + users; from += SEED_CHUNK) {
+            jdbcTemplate.update("INSERT INTO app_user (id, country, username) "
+                    + "SELECT X, 'BR', CONCAT('u', X) FROM SYSTEM_RANGE(?, ?)", from, Math.min(from + SEED_CHUNK, FIRST_ID + users) - 1);
+        }
+        log.info("Seeded {} users", users);
+    }
+
+    @Test
+    void keyset_page_latency_is_flat_across_depths() {
+        log.info(String.format("%-8s %14s %14s", "depth", "keyset (ms)", "offset (ms)"));
+        for (double depth : DEPTHS) {
+            long offset = (long) (users * depth);
+
+            double keysetMs = medianMs(() -> userRepository.findIdsByCountryAfter(Country.BR, FIRST_ID - 1 + offset, Limit.of(PAGE_SIZE)));
+            double offsetMs = medianMs(() -> {
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_user WHERE country = 'BR'", Long.class);
+                return jdbcTemplate.queryForList("SELECT id FROM app_user WHERE country = 'BR' ORDER BY country, id LIMIT ? OFFSET ?",
+                        Long.class, PAGE_SIZE, offset);
+            });
+
+            log.info(String.format("%-8.2f %14.2f %14.2f", depth, keysetMs, offsetMs));
+        }
+
+        List<Long> firstPage = userRepository.findIdsByCountryAfter(Country.BR, 0L, Limit.of(PAGE_SIZE));
+        assertEquals(PAGE_SIZE, firstPage.size());
+        assertEquals(FIRST_ID, firstPage.get(0));
+    }
+
+    private static double medianMs(Supplier<List<Long>> page) {
+        page.get();
+        long[] samples = new long[REPETITIONS];
+        for (int i = 0; i < REPETITIONS; i++) {
+            long start = System.nanoTime();
+            page.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[REPETITIONS / 2] / 1_000_000.0;
+    }
+}
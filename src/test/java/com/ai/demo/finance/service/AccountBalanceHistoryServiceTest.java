@@ -0,0 +1,119 @@
+package com.ai.demo.finance.service;
+
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.dto.AccountBalanceDTO;
+import com.ai.demo.finance.dto.BalanceBucketDTO;
+import com.ai.demo.finance.dto.BalanceHistoryDTO;
+import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.exception.NotFoundResourceException;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.enums.BalanceGranularity;
+import com.ai.demo.finance.model.repository.AccountBalanceHistoryRepository;
+import com.ai.demo.finance.model.repository.AccountBalanceHistoryRepository.BalanceBucket;
+import com.ai.demo.finance.model.repository.AccountRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceHistoryServiceTest {
+
+    private static final OffsetDateTime OPENING = OffsetDateTime.of(2024, 1, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountBalanceHistoryRepository balanceHistoryRepository;
+    private AccountBalanceHistoryService balanceHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        balanceHistoryService = new AccountBalanceHistoryService(accountRepository, balanceHistoryRepository, 40);
+    }
+
+    @Test
+    void test_balance_history_widened_to_whole_buckets() {
+        givenAccount();
+        OffsetDateTime monday = OffsetDateTime.of(2024, 1, 15, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(balanceHistoryRepository.findBuckets(1L, BalanceGranularity.WEEK, monday, 2, Money.of("500.00")))
+                .thenReturn(List.of(new BalanceBucket(monday, Money.of("100.00"), Money.of("300.00")),
+                        new BalanceBucket(monday.plusWeeks(1), Money.of("300.00"), Money.of("500.00"))));
+
+        BalanceHistoryDTO history = balanceHistoryService.balanceHistory(1L, BalanceGranularity.WEEK,
+                monday.plusDays(2), monday.plusDays(8));
+
+        assertEquals(monday, history.from());
+        assertEquals(monday.plusWeeks(2), history.to());
+        assertEquals(List.of(new BalanceBucketDTO(monday, new BigDecimal("100.00"), new BigDecimal("300.00")),
+                new BalanceBucketDTO(monday.plusWeeks(1), new BigDecimal("300.00"), new BigDecimal("500.00"))), history.buckets());
+    }
+
+    @Test
+    void test_balance_history_starts_on_the_bucket_the_account_was_opened_in() {
+        givenAccount();
+
+        BalanceHistoryDTO history = balanceHistoryService.balanceHistory(1L, null, OPENING.minusYears(1), OPENING.plusDays(3));
+
+        assertEquals(BalanceGranularity.DAY, history.granularity());
+        assertEquals(OPENING.truncatedTo(ChronoUnit.DAYS), history.from());
+        verify(balanceHistoryRepository).findBuckets(eq(1L), eq(BalanceGranularity.DAY), eq(history.from()), eq(4), any());
+    }
+
+    @Test
+    void test_balance_history_rejects_reversed_or_oversized_range() {
+        assertThrows(InvalidOperationException.class,
+                () -> balanceHistoryService.balanceHistory(1L, BalanceGranularity.DAY, OPENING, OPENING.minusDays(1)));
+        verifyNoInteractions(accountRepository);
+
+        givenAccount();
+        assertThrows(InvalidOperationException.class,
+                () -> balanceHistoryService.balanceHistory(1L, BalanceGranularity.DAY, OPENING, OPENING.plusDays(40)));
+        verifyNoInteractions(balanceHistoryRepository);
+    }
+
+    @Test
+    void test_balance_history_account_not_found() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundResourceException.class, () -> balanceHistoryService.balanceHistory(1L, null, null, null));
+        verify(balanceHistoryRepository, never()).findBuckets(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void test_balance_at_from_history_or_current_balance() {
+        givenAccount();
+        when(balanceHistoryRepository.findBalanceAt(1L, OPENING.plusDays(1))).thenReturn(Optional.of(Money.of("100.00")));
+
+        assertEquals(new AccountBalanceDTO(1L, OPENING.plusDays(1), new BigDecimal("100.00")),
+                balanceHistoryService.balanceAt(1L, OPENING.plusDays(1)));
+        assertEquals(new BigDecimal("500.00"), balanceHistoryService.balanceAt(1L, OPENING.plusDays(2)).balance());
+        assertEquals(new BigDecimal("0.00"), balanceHistoryService.balanceAt(1L, OPENING.minusDays(1)).balance());
+    }
+
+    private void givenAccount() {
+        LocalDateTime opening = OPENING.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(
+                new Account(1L, "my", Money.of("500.00"), null, SAVINGS, opening, 7L, null, 0L)));
+    }
+}
@@ -0,0 +1,153 @@
+package com.ai.demo.finance.service;
+
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.dto.DepositDTO;
+import com.ai.demo.finance.dto.DepositResultDTO;
+import com.ai.demo.finance.dto.DepositsResultDTO;
+import com.ai.demo.finance.event.EventSource;
+import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
+import com.ai.demo.finance.exception.InvalidOperationException;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountDepositRepository;
+import com.ai.demo.finance.model.repository.AccountDepositRepository.DepositTarget;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccountDepositBatchServiceTest {
+
+    @Mock
+    private AccountDepositRepository accountDepositRepository;
+    @Mock
+    private AccountHistoryAppender historyAppender;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private CpiIndexStore cpiIndexStore;
+    private AccountDepositBatchService accountDepositBatchService;
+
+    @BeforeEach
+    void setUp() {
+        accountDepositBatchService = new AccountDepositBatchService(accountDepositRepository, historyAppender, outboxService, cpiIndexStore, 3);
+    }
+
+    @Test
+    void test_batch_deposit_applied_with_one_event_per_user() {
+        when(accountDepositRepository.lockForDeposit(any())).thenReturn(List.of(
+                target(1L, "100.00", 7L, Country.US), target(2L, "50.00", 7L, Country.US)));
+
+        DepositsResultDTO result = accountDepositBatchService.deposit(List.of(
+                deposit(1L, "10.00"), deposit(2L, "5.00"), deposit(1L, "20.00")));
+
+        assertEquals(3, result.succeeded());
+        assertEquals(0, result.failed());
+        assertEquals(List.of(new DepositResultDTO(1L, new BigDecimal("110.00"), null),
+                new DepositResultDTO(2L, new BigDecimal("55.00"), null),
+                new DepositResultDTO(1L, new BigDecimal("130.00"), null)), result.results());
+
+        ArgumentCaptor<Collection<Account>> accounts = ArgumentCaptor.forClass(Collection.class);
+        verify(accountDepositRepository).updateBalances(accounts.capture());
+        assertEquals(List.of(Money.of("130.00"), Money.of("55.00")),
+                accounts.getValue().stream().map(Account::getAmount).toList());
+        ArgumentCaptor<Collection<AccountHistory>> history = ArgumentCaptor.forClass(Collection.class);
+        verify(historyAppender).appendAll(history.capture());
+        assertEquals(List.of(Money.of("100.00"), Money.of("50.00"), Money.of("110.00")),
+                history.getValue().stream().map(AccountHistory::getAmount).toList());
+        verify(outboxService).appendAccountNetAmountEvents(List.of(new AccountNetAmountPerUserEvent(7L, EventSource.DEPOSIT)));
+    }
+
+    @Test
+    void test_batch_deposit_reports_failed_items_and_applies_the_others() {
+        when(accountDepositRepository.lockForDeposit(any())).thenReturn(List.of(target(1L, "100.00", 7L, Country.US)));
+
+        DepositsResultDTO result = accountDepositBatchService.deposit(List.of(
+                deposit(1L, "-10.00"), deposit(9L, "10.00"), deposit(1L, "10.00")));
+
+        assertEquals(1, result.succeeded());
+        assertEquals(2, result.failed());
+        assertEquals("Amount must be greater than zero", result.results().get(0).error());
+        assertEquals("Account not found", result.results().get(1).error());
+        assertNull(result.results().get(2).error());
+        verify(accountDepositRepository).lockForDeposit(Set.of(1L, 9L));
+        verify(outboxService).appendAccountNetAmountEvents(List.of(new AccountNetAmountPerUserEvent(7L, EventSource.DEPOSIT)));
+    }
+
+    @Test
+    void test_batch_deposit_nothing_written_when_every_item_failed() {
+        DepositsResultDTO result = accountDepositBatchService.deposit(List.of(deposit(null, "10.00"), deposit(1L, null),
+                deposit(1L, "10.005")));
+
+        assertEquals(0, result.succeeded());
+        assertEquals(3, result.failed());
+        assertEquals("Amount must have at most 2 decimals", result.results().get(2).error());
+        verify(accountDepositRepository, never()).updateBalances(any());
+        verify(historyAppender, never()).appendAll(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void test_batch_deposit_indexed_with_the_cpi_of_the_country() {
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        when(cpiIndexStore.series(Country.ES, Indicator.PCPI_IX))
+                .thenReturn(Optional.of(new CpiSeries(Country.ES, Indicator.PCPI_IX, now - 12, cpi(100.0, 12, 125.0))));
+        Account indexed = new Account(1L, "my", Money.of("100.00"), null, SAVINGS, LocalDateTime.now(), 7L, Money.of("80.00"), 0L);
+        when(accountDepositRepository.lockForDeposit(any())).thenReturn(List.of(new DepositTarget(indexed, Country.ES)));
+
+        accountDepositBatchService.deposit(List.of(deposit(1L, "100.00")));
+
+        assertEquals(Money.of("200.00"), indexed.getAmount());
+        assertEquals(Money.of("205.00"), indexed.getAmountIndexed());
+    }
+
+    @Test
+    void test_batch_deposit_rejects_empty_or_oversized_batch() {
+        assertThrows(InvalidOperationException.class, () -> accountDepositBatchService.deposit(Collections.emptyList()));
+        List<DepositDTO> oversized = new ArrayList<>(Collections.nCopies(4, deposit(1L, "10.00")));
+        assertThrows(InvalidOperationException.class, () -> accountDepositBatchService.deposit(oversized));
+        verifyNoInteractions(accountDepositRepository, historyAppender, outboxService);
+    }
+
+    private static DepositTarget target(Long id, String amount, Long userId, Country country) {
+        return new DepositTarget(new Account(id, "my", Money.of(amount), null, SAVINGS, LocalDateTime.now(), userId, null, 0L), country);
+    }
+
+    private static DepositDTO deposit(Long accountId, String amount) {
+        return new DepositDTO(accountId, amount == null ? null : new BigDecimal(amount));
+    }
+
+    private static double[] cpi(double first, int months, double last) {
+        double[] values = new double[months + 1];
+        Arrays.fill(values, Double.NaN);
+        values[0] = first;
+        values[months] = last;
+        return values;
+    }
+}
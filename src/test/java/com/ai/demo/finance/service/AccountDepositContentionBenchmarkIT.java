@@ -0,0 +1,111 @@
+package com.ai.demo.finance.service;
+
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
+import com.ai.demo.finance.dto.BalanceDTO;
+import com.ai.demo.finance.exception.ConcurrentUpdateException;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.repository.AccountRepository;
+import com.ai.demo.finance.model.repository.UserRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Deposits from a growing number of threads into a handful of accounts, and checks that
+ * every deposit acknowledged is in the balances while throughput holds as threads are
+ * added. It only runs on demand:
+ * {@code mvn test -Dtest=AccountDepositContentionBenchmarkIT -Dbenchmark.deposits=20000 -Dbenchmark.accounts=4 -Dbenchmark.threads=1,8,32,64}
+ */
+@SpringBootTest(classes = {RedisConfigForIntegrationTest.class}, properties = "logging.level.com.ai.demo=INFO")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmark.deposits", matches = "\\d+")
+@Log4j2
+class AccountDepositContentionBenchmarkIT {
+
+    private static final Path REPORT = Path.of("target", "benchmark", "deposit-contention.txt");
+    private static final Money OPENING_BALANCE = Money.of("1000.00");
+    private static final BalanceDTO DEPOSIT = new BalanceDTO(Money.of("10.00").toBigDecimal());
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountUpdateExecutor accountUpdateExecutor;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void no_deposit_is_lost_under_same_account_contention() throws InterruptedException, IOException {
+        int deposits = Integer.getInteger("benchmark.deposits");
+        int accounts = Integer.getInteger("benchmark.accounts", 4);
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1,8,32,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Long userId = userRepository.save(new User(null, "contention", Country.ES)).getId();
+
+        StringBuilder report = new StringBuilder(String.format("%8s %10s %12s %12s %10s%n",
+                "threads", "accounts", "deposits/s", "conflicts", "gave up"));
+        for (int threads : threadCounts) {
+            List<Long> accountIds = givenAccounts(userId, accounts);
+            long conflictsBefore = accountUpdateExecutor.getConflictCount();
+            AtomicInteger acknowledged = new AtomicInteger();
+            AtomicInteger gaveUp = new AtomicInteger();
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            for (int i = 0; i < deposits; i++) {
+                Long accountId = accountIds.get(i % accounts);
+                pool.execute(() -> {
+                    try {
+                        accountService.deposit(accountId, DEPOSIT);
+                        acknowledged.incrementAndGet();
+                    } catch (ConcurrentUpdateException e) {
+                        gaveUp.incrementAndGet();
+                    }
+                });
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.MINUTES));
+            double throughput = deposits / ((System.nanoTime() - start) / 1e9);
+
+            long balances = accountRepository.findAllById(accountIds).stream()
+                    .mapToLong(account -> account.getAmount().getMinorUnits()).sum();
+            assertEquals(OPENING_BALANCE.getMinorUnits() * accounts + acknowledged.get() * Money.of(DEPOSIT.amount()).getMinorUnits(),
+                    balances, "deposits lost with " + threads + " threads");
+            report.append(String.format("%8d %10d %12.0f %12d %10d%n", threads, accounts, throughput,
+                    accountUpdateExecutor.getConflictCount() - conflictsBefore, gaveUp.get()));
+        }
+        log.info("Deposits into the same accounts:\n{}", report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+    }
+
+    private List<Long> givenAccounts(Long userId, int accounts) {
+        List<Account> created = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            created.add(Account.builder().amount(OPENING_BALANCE).type(SAVINGS).date(LocalDateTime.now()).userId(userId).build());
+        }
+        return accountRepository.saveAll(created).stream().map(Account::getId).toList();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.repository.AccountHistoryBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class AccountHistoryAppenderTest {
+
+    @Mock
+    private AccountHistoryBatchRepository historyBatchRepository;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> inserted = new ArrayList<>();
+    private AccountHistoryAppender historyAppender;
+
+    @BeforeEach
+    void setUp() {
+        historyAppender = new AccountHistoryAppender(historyBatchRepository, meterRegistry, 3);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void should_insert_buffered_rows_on_commit_only() {
+        givenInsertsRecorded();
+        when(historyBatchRepository.nextIdBlock()).thenReturn(1L);
+
+        historyAppender.append(history(10L));
+        historyAppender.append(history(11L));
+
+        verify(historyBatchRepository, never()).insertAll(any());
+        assertEquals(2, historyAppender.getBufferedCount());
+
+        commit();
+
+        assertEquals(List.of(List.of(1L, 2L)), inserted);
+        assertEquals(0, historyAppender.getBufferedCount());
+        assertEquals(2, historyAppender.getFlushedCount());
+        assertEquals(1, meterRegistry.get(AccountHistoryAppender.FLUSH_TIMER).timer().count());
+    }
+
+    @Test
+    void should_flush_when_the_buffer_is_full() {
+        givenInsertsRecorded();
+        when(historyBatchRepository.nextIdBlock()).thenReturn(1L);
+
+        historyAppender.appendAll(List.of(history(10L), history(11L), history(12L), history(13L)));
+
+        assertEquals(List.of(List.of(1L, 2L, 3L)), inserted);
+        assertEquals(1, historyAppender.getBufferedCount());
+
+        commit();
+
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L)), inserted);
+    }
+
+    @Test
+    void should_take_one_block_of_ids_per_allocation_size() {
+        givenInsertsRecorded();
+        when(historyBatchRepository.nextIdBlock()).thenReturn(1L, 501L);
+        historyAppender = new AccountHistoryAppender(historyBatchRepository, meterRegistry, 1000);
+
+        historyAppender.appendAll(LongStream.range(0, AccountHistory.ID_ALLOCATION_SIZE + 1).mapToObj(this::history).toList());
+        commit();
+
+        List<Long> ids = inserted.get(0);
+        assertEquals(1L, ids.get(0));
+        assertEquals((long) AccountHistory.ID_ALLOCATION_SIZE, ids.get(AccountHistory.ID_ALLOCATION_SIZE - 1));
+        assertEquals(501L, ids.get(AccountHistory.ID_ALLOCATION_SIZE));
+        assertEquals(2, historyAppender.getIdBlockCount());
+        verify(historyBatchRepository, times(2)).nextIdBlock();
+    }
+
+    @Test
+    void should_hand_out_single_ids_from_the_same_blocks() {
+        givenInsertsRecorded();
+        when(historyBatchRepository.nextIdBlock()).thenReturn(1L);
+
+        assertEquals(1L, historyAppender.nextId());
+        historyAppender.append(history(10L));
+        commit();
+        assertEquals(3L, historyAppender.nextId());
+
+        assertEquals(List.of(List.of(2L)), inserted);
+        assertEquals(1, historyAppender.getIdBlockCount());
+    }
+
+    @Test
+    void should_discard_buffered_rows_on_rollback() {
+        historyAppender.append(history(10L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(historyBatchRepository, never()).insertAll(any());
+        assertEquals(0, historyAppender.getBufferedCount());
+    }
+
+    @Test
+    void should_reject_rows_outside_a_transaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThrows(IllegalTransactionStateException.class, () -> historyAppender.append(history(10L)));
+    }
+
+    private void givenInsertsRecorded() {
+        doAnswer(invocation -> {
+            Collection<AccountHistory> rows = invocation.getArgument(0);
+            inserted.add(rows.stream().map(AccountHistory::getId).toList());
+            return null;
+        }).when(historyBatchRepository).insertAll(any());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private AccountHistory history(long accountId) {
+        return AccountHistory.builder().accountId(accountId).amount(Money.of("100.00")).date(ZonedDateTime.now()).build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ai.demo.finance.service;
+
+import static com.ai.demo.finance.model.enums.AccountType.SAVINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
+import com.ai.demo.finance.dto.BalanceDTO;
+import com.ai.demo.finance.model.Account;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountRepository;
+import com.ai.demo.finance.model.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(classes = {RedisConfigForIntegrationTest.class})
+@DirtiesContext
+class AccountNetAmountRecalculationIT {
+
+    private static final int DEPOSITS = 200;
+    private static final BalanceDTO DEPOSIT = new BalanceDTO(Money.of("10.00").toBigDecimal());
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountUpdateExecutor accountUpdateExecutor;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CpiIndexStore cpiIndexStore;
+
+    @Test
+    void recalculation_racing_with_deposits_neither_fails_nor_loses_them() {
+        givenFlatCpi(Country.ES);
+        Long userId = userRepository.save(new User(null, "net-race", Country.ES)).getId();
+        Long accountId = accountRepository.save(Account.builder().amount(Money.of("1000.00")).type(SAVINGS)
+                .date(LocalDateTime.now()).userId(userId).build()).getId();
+        long exhaustedBefore = accountUpdateExecutor.getExhaustedCount();
+
+        ExecutorService threads = Executors.newFixedThreadPool(3);
+        AtomicBoolean depositing = new AtomicBoolean(true);
+        AtomicInteger recalculations = new AtomicInteger();
+        List<CompletableFuture<Void>> deposits = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            deposits.add(CompletableFuture.runAsync(() -> {
+                for (int d = 0; d < DEPOSITS / 2; d++) {
+                    accountService.deposit(accountId, DEPOSIT);
+                }
+            }, threads));
+        }
+        CompletableFuture<Void> recalculating = CompletableFuture.runAsync(() -> {
+            while (depositing.get()) {
+                accountService.recalculateNetAmountPerUser(userId);
+                recalculations.incrementAndGet();
+            }
+        }, threads);
+
+        CompletableFuture.allOf(deposits.toArray(CompletableFuture[]::new)).join();
+        depositing.set(false);
+        recalculating.join();
+        threads.shutdown();
+        accountService.recalculateNetAmountPerUser(userId);
+
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        assertEquals(Money.of("3000.00"), account.getAmount());
+        assertEquals(account.getAmount(), account.getAmountNet());
+        assertTrue(recalculations.get() > 0);
+        assertEquals(exhaustedBefore, accountUpdateExecutor.getExhaustedCount());
+    }
+
+    /**
+     * The same index every month, so the net amount is the balance.
+     */
+    private void givenFlatCpi(Country country) {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        YearMonth now = YearMonth.now();
+        for (int month = 0; month <= 12; month++) {
+            update.record(country, Indicator.PCPI_IX, now.minusMonths(month), 100.0);
+        }
+        update.commit();
+    }
+}
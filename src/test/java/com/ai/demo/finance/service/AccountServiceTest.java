@@ -8,9 +8,13 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.ai.demo.finance.dto.AccountDTO;
@@ -19,18 +23,25 @@ import com.ai.demo.finance.dto.UserDTO;
 import com.ai.demo.finance.event.EventSource;
 import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
 import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
+import com.ai.demo.finance.exception.ConcurrentUpdateException;
+import com.ai.demo.finance.exception.InvalidOperationException;
 import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.model.Account;
 import com.ai.demo.finance.model.AccountHistory;
+import com.ai.demo.finance.model.Money;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.enums.Country;
-import com.ai.demo.finance.model.repository.AccountHistoryRepository;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.repository.AccountDepositRepository;
 import com.ai.demo.finance.model.repository.AccountRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,8 +49,10 @@ import org.mockito.AdditionalAnswers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class AccountServiceTest {
@@ -47,13 +60,19 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private AccountHistoryRepository historyRepository;
+    private AccountHistoryAppender historyAppender;
+    @Mock
+    private AccountDepositRepository accountDepositRepository;
     @Mock
     private UserService userService;
     @Mock
-    private ApplicationEventPublisher eventPublisher;
+    private OutboxService outboxService;
     @Mock
     private InflationService inflationService;
+    @Mock
+    private CpiIndexStore cpiIndexStore;
+    @Spy
+    private AccountUpdateExecutor accountUpdateExecutor = new AccountUpdateExecutor(mock(PlatformTransactionManager.class), 16, 3, 0);
     @InjectMocks
     private AccountService accountService;
 
@@ -61,7 +80,7 @@ class AccountServiceTest {
     void test_create_account_success() {
         // Arrange
         ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
-        AccountDTO dto = new AccountDTO(1L, "my", new BigDecimal("1000"), SAVINGS, "john");
+        AccountDTO dto = new AccountDTO(1L, "my", new BigDecimal("1000.00"), SAVINGS, "john");
 
         when(userService.findByUsername("john")).thenReturn(new UserDTO(2L, "john", Country.BR));
         when(accountRepository.save(accountCaptor.capture())).then(AdditionalAnswers.returnsFirstArg());
@@ -74,7 +93,7 @@ class AccountServiceTest {
 
         Account accountCaptorValue = accountCaptor.getValue();
         assertNull(accountCaptorValue.getId());
-        verify(eventPublisher).publishEvent(new AccountNetAmountPerUserEvent(2L, EventSource.ACCOUNT_CREATION));
+        verify(outboxService).append(new AccountNetAmountPerUserEvent(2L, EventSource.ACCOUNT_CREATION));
     }
 
     @Test
@@ -92,7 +111,7 @@ class AccountServiceTest {
     void test_finding_existing_account_by_id() {
         // Arrange
         Long id = 1L;
-        Account account = Account.builder().id(id).amount(new BigDecimal("1000")).type(SAVINGS).date(LocalDateTime.now()).build();
+        Account account = Account.builder().id(id).amount(Money.of("1000")).type(SAVINGS).date(LocalDateTime.now()).build();
 
         when(accountRepository.findById(id)).thenReturn(Optional.of(account));
 
@@ -105,14 +124,17 @@ class AccountServiceTest {
     void test_update_account_success() {
         // Arrange
         Long id = 1L;
-        AccountDTO dto = new AccountDTO(id, "my", new BigDecimal("2000"), SAVINGS, null);
+        AccountDTO dto = new AccountDTO(id, "my", new BigDecimal("2000.00"), SAVINGS, null);
+        Account current = Account.builder().id(id).amount(Money.of("1000.00")).type(SAVINGS).version(7L).build();
+        ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
 
-        when(accountRepository.existsById(id)).thenReturn(true);
-        when(accountRepository.save(any(Account.class))).then(AdditionalAnswers.returnsFirstArg());
+        when(accountRepository.findById(id)).thenReturn(Optional.of(current));
+        when(accountRepository.save(accountCaptor.capture())).then(AdditionalAnswers.returnsFirstArg());
 
         // Act & Assert
         AccountDTO updated = accountService.updateAccount(id, dto);
         assertEquals(dto, updated);
+        assertEquals(7L, accountCaptor.getValue().getVersion());
     }
 
     @Test
@@ -121,7 +143,7 @@ class AccountServiceTest {
         Long id = 1L;
         AccountDTO dto = new AccountDTO(id, "my", new BigDecimal("2000"), SAVINGS, "john");
 
-        when(accountRepository.existsById(id)).thenReturn(false);
+        when(accountRepository.findById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NotFoundResourceException.class, () -> accountService.updateAccount(id, dto));
@@ -157,21 +179,21 @@ class AccountServiceTest {
         BalanceDTO balanceDTO = new BalanceDTO(depositAmount);
 
         long userId = 39L;
-        Account account = new Account(accountId, "my", new BigDecimal("200.00"), null, SAVINGS, LocalDateTime.now(), userId);
-        AccountHistory accountHistory = new AccountHistory(account);
-        Account updatedAccount = new Account(accountId, "my", new BigDecimal("300.00"), null, SAVINGS, LocalDateTime.now(), userId);
+        Account account = new Account(accountId, "my", Money.of("200.00"), null, SAVINGS, LocalDateTime.now(), userId, null, 0L);
+        Account updatedAccount = new Account(accountId, "my", Money.of("300.00"), null, SAVINGS, LocalDateTime.now(), userId, null, 0L);
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(accountRepository.findCountryById(accountId)).thenReturn(Optional.of(Country.US));
         when(accountRepository.save(account)).thenReturn(updatedAccount);
-        when(historyRepository.save(any(AccountHistory.class))).thenReturn(accountHistory);
 
         AccountDTO result = accountService.deposit(accountId, balanceDTO);
 
         assertNotNull(result);
-        assertEquals(updatedAccount.getAmount(), result.amount());
+        assertEquals(updatedAccount.getAmount().toBigDecimal(), result.amount());
         verify(accountRepository).save(any(Account.class));
-        verify(historyRepository).save(any(AccountHistory.class));
-        verify(eventPublisher).publishEvent(new AccountNetAmountPerUserEvent(userId, EventSource.DEPOSIT));
+        verifyNoInteractions(userService);
+        verify(historyAppender).append(any(AccountHistory.class));
+        verify(outboxService).append(new AccountNetAmountPerUserEvent(userId, EventSource.DEPOSIT));
     }
 
     @Test
@@ -184,8 +206,110 @@ class AccountServiceTest {
 
         assertThrows(NotFoundResourceException.class, () -> accountService.deposit(accountId, balanceDTO));
         verify(accountRepository, never()).save(any(Account.class));
-        verify(historyRepository, never()).save(any(AccountHistory.class));
-        verify(eventPublisher, never()).publishEvent(any(RetirementGoalEvent.class));
+        verify(historyAppender, never()).append(any(AccountHistory.class));
+        verify(outboxService, never()).append(any(RetirementGoalEvent.class));
+    }
+
+    @Test
+    void test_atomic_deposit_without_loading_the_account() {
+        Long accountId = 1L;
+        long userId = 39L;
+        when(accountDepositRepository.isEnabled()).thenReturn(true);
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        when(cpiIndexStore.series(Country.ES, Indicator.PCPI_IX))
+                .thenReturn(Optional.of(new CpiSeries(Country.ES, Indicator.PCPI_IX, now - 12, cpi(100.0, 12, 125.0))));
+        when(historyAppender.nextId()).thenReturn(51L);
+        when(accountDepositRepository.deposit(eq(accountId), eq(Money.of("100.00")), eq(Map.of(Country.ES, Money.of("125.00"))),
+                eq(51L), any()))
+                .thenReturn(Optional.of(Account.builder().id(accountId).amount(Money.of("300.00")).userId(userId).type(SAVINGS).build()));
+
+        AccountDTO result = accountService.deposit(accountId, new BalanceDTO(new BigDecimal("100.00")));
+
+        assertEquals(new BigDecimal("300.00"), result.amount());
+        verify(accountRepository, never()).findById(any());
+        verify(accountRepository, never()).findCountryById(any());
+        verifyNoInteractions(userService);
+        verify(historyAppender, never()).append(any(AccountHistory.class));
+        verify(outboxService).append(new AccountNetAmountPerUserEvent(userId, EventSource.DEPOSIT));
+    }
+
+    @Test
+    void test_atomic_deposit_rejects_non_positive_amount() {
+        BalanceDTO balanceDTO = new BalanceDTO(new BigDecimal("-500.00"));
+
+        assertThrows(InvalidOperationException.class, () -> accountService.deposit(1L, balanceDTO));
+        verify(accountDepositRepository, never()).deposit(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void test_deposit_rejects_fractions_of_a_cent() {
+        BalanceDTO balanceDTO = new BalanceDTO(new BigDecimal("10.005"));
+
+        assertThrows(InvalidOperationException.class, () -> accountService.deposit(1L, balanceDTO));
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void test_update_account_rejects_fractions_of_a_cent() {
+        AccountDTO dto = new AccountDTO(1L, "my", new BigDecimal("1000.001"), SAVINGS, "john");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(
+                Account.builder().id(1L).amount(Money.of("1000.00")).userId(2L).type(SAVINGS).build()));
+
+        assertThrows(InvalidOperationException.class, () -> accountService.updateAccount(1L, dto));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void test_atomic_deposit_falls_back_to_the_entity_when_not_applied() {
+        Long accountId = 1L;
+        long userId = 39L;
+        when(accountDepositRepository.isEnabled()).thenReturn(true);
+        when(accountDepositRepository.deposit(any(), any(), any(), anyLong(), any())).thenReturn(Optional.empty());
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(
+                Account.builder().id(accountId).amount(Money.of("200.00")).userId(userId).type(SAVINGS).build()));
+        when(accountRepository.findCountryById(accountId)).thenReturn(Optional.of(Country.US));
+        when(accountRepository.save(any(Account.class))).then(AdditionalAnswers.returnsFirstArg());
+
+        AccountDTO result = accountService.deposit(accountId, new BalanceDTO(new BigDecimal("100.00")));
+
+        assertEquals(new BigDecimal("300.00"), result.amount());
+        verify(historyAppender).append(any(AccountHistory.class));
+        verify(outboxService).append(new AccountNetAmountPerUserEvent(userId, EventSource.DEPOSIT));
+    }
+
+    @Test
+    void test_deposit_retried_on_concurrent_update_with_fresh_balance() {
+        Long accountId = 1L;
+        long userId = 39L;
+        when(accountRepository.findById(accountId))
+                .thenReturn(Optional.of(Account.builder().id(accountId).amount(Money.of("200.00")).userId(userId).type(SAVINGS).build()))
+                .thenReturn(Optional.of(Account.builder().id(accountId).amount(Money.of("250.00")).userId(userId).type(SAVINGS).build()));
+        when(accountRepository.findCountryById(accountId)).thenReturn(Optional.of(Country.US));
+        when(accountRepository.save(any(Account.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, accountId))
+                .then(AdditionalAnswers.returnsFirstArg());
+
+        AccountDTO result = accountService.deposit(accountId, new BalanceDTO(new BigDecimal("100.00")));
+
+        assertEquals(new BigDecimal("350.00"), result.amount());
+        verify(accountRepository, times(2)).save(any(Account.class));
+        assertEquals(1, accountUpdateExecutor.getConflictCount());
+    }
+
+    @Test
+    void test_deposit_gives_up_after_bounded_attempts() {
+        Long accountId = 1L;
+        long userId = 39L;
+        when(accountRepository.findById(accountId))
+                .thenAnswer(invocation -> Optional.of(Account.builder().id(accountId).amount(Money.of("200.00")).userId(userId).type(SAVINGS).build()));
+        when(accountRepository.findCountryById(accountId)).thenReturn(Optional.of(Country.US));
+        when(accountRepository.save(any(Account.class))).thenThrow(new ObjectOptimisticLockingFailureException(Account.class, accountId));
+
+        BalanceDTO balanceDTO = new BalanceDTO(new BigDecimal("100.00"));
+        assertThrows(ConcurrentUpdateException.class, () -> accountService.deposit(accountId, balanceDTO));
+        verify(accountRepository, times(3)).save(any(Account.class));
+        verify(outboxService, never()).append(any(AccountNetAmountPerUserEvent.class));
+        assertEquals(1, accountUpdateExecutor.getExhaustedCount());
     }
 
     // Successfully recalculates net amount for all accounts of a user when
@@ -195,8 +319,8 @@ class AccountServiceTest {
         Long userId = 1L;
         UserDTO userDTO = new UserDTO(userId, "testuser", Country.US);
         InflationRate inflationRate = InflationRate.builder().percentageRate(BigDecimal.valueOf(2)).country(Country.US).build();
-        Account account1 = Account.builder().id(1L).amount(BigDecimal.valueOf(100)).userId(userId).build();
-        Account account2 = Account.builder().id(2L).amount(BigDecimal.valueOf(200)).userId(userId).build();
+        Account account1 = Account.builder().id(1L).amount(Money.of(BigDecimal.valueOf(100))).userId(userId).build();
+        Account account2 = Account.builder().id(2L).amount(Money.of(BigDecimal.valueOf(200))).userId(userId).build();
         List<Account> accounts = Arrays.asList(account1, account2);
 
         when(userService.findById(userId)).thenReturn(userDTO);
@@ -206,7 +330,7 @@ class AccountServiceTest {
         accountService.recalculateNetAmountPerUser(userId);
 
         verify(accountRepository, times(1)).saveAll(accounts);
-        verify(eventPublisher, times(1)).publishEvent(any(RetirementGoalEvent.class));
+        verify(outboxService, times(1)).append(any(RetirementGoalEvent.class));
     }
 
     // Handles scenario where no accounts are found for the user
@@ -224,15 +348,15 @@ class AccountServiceTest {
         accountService.recalculateNetAmountPerUser(userId);
 
         verify(accountRepository, times(1)).saveAll(accounts);
-        verify(eventPublisher, times(1)).publishEvent(any(RetirementGoalEvent.class));
+        verify(outboxService, times(1)).append(any(RetirementGoalEvent.class));
     }
 
     @Test
     void test_recalculate_net_amount_no_inflation_rate() {
         Long userId = 1L;
         UserDTO userDTO = new UserDTO(userId, "testuser", Country.US);
-        Account account1 = Account.builder().id(1L).amount(BigDecimal.valueOf(100)).userId(userId).build();
-        Account account2 = Account.builder().id(2L).amount(BigDecimal.valueOf(200)).userId(userId).build();
+        Account account1 = Account.builder().id(1L).amount(Money.of(BigDecimal.valueOf(100))).userId(userId).build();
+        Account account2 = Account.builder().id(2L).amount(Money.of(BigDecimal.valueOf(200))).userId(userId).build();
         List<Account> accounts = Arrays.asList(account1, account2);
 
         when(userService.findById(userId)).thenReturn(userDTO);
@@ -241,7 +365,72 @@ class AccountServiceTest {
         accountService.recalculateNetAmountPerUser(userId);
 
         verify(accountRepository, never()).saveAll(accounts);
-        verify(eventPublisher, never()).publishEvent(any(RetirementGoalEvent.class));
+        verify(outboxService, never()).append(any(RetirementGoalEvent.class));
+    }
+
+    @Test
+    void test_recalculate_net_amount_per_users_in_bulk() {
+        List<Long> userIds = List.of(1L, 2L);
+        InflationRate inflationRate = InflationRate.builder().percentageRate(BigDecimal.valueOf(2)).country(Country.US).build();
+
+        when(accountRepository.updateNetAmountByUserIds(new BigDecimal("0.98"), userIds)).thenReturn(3);
+
+        int updated = accountService.recalculateNetAmountPerUsers(userIds, inflationRate);
+
+        assertEquals(3, updated);
+        verify(accountRepository, never()).findAllByUserId(any());
+        verify(outboxService).appendAll(List.of(
+                new RetirementGoalEvent(1L, EventSource.RECALCULATION_NET_AMOUNT),
+                new RetirementGoalEvent(2L, EventSource.RECALCULATION_NET_AMOUNT)));
     }
 
+    @Test
+    void test_recalculate_net_amount_from_the_cpi_index_since_the_deposit_month() {
+        Long userId = 1L;
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        CpiSeries cpiSeries = new CpiSeries(Country.US, Indicator.PCPI_IX, now - 12, cpi(100.0, 12, 110.0));
+        Account openedAYearAgo = Account.builder().id(1L).amount(Money.of(BigDecimal.valueOf(1100))).userId(userId)
+                .date(LocalDateTime.now().minusMonths(12)).build();
+        Account openedNow = Account.builder().id(2L).amount(Money.of(BigDecimal.valueOf(1100))).userId(userId).build();
+
+        when(userService.findById(userId)).thenReturn(new UserDTO(userId, "testuser", Country.US));
+        when(cpiIndexStore.series(Country.US, Indicator.PCPI_IX)).thenReturn(Optional.of(cpiSeries));
+        when(accountRepository.findAllByUserId(userId)).thenReturn(List.of(openedAYearAgo, openedNow));
+
+        accountService.recalculateNetAmountPerUser(userId);
+
+        assertEquals(Money.of("1000.00"), openedAYearAgo.getAmountNet());
+        assertEquals(Money.of("1100.00"), openedNow.getAmountNet());
+        verify(inflationService, never()).fetchLatestMonthlyInflationRateForYearToDate(any());
+        verify(outboxService).append(new RetirementGoalEvent(userId, EventSource.RECALCULATION_NET_AMOUNT));
+    }
+
+    @Test
+    void test_recalculate_net_amount_per_users_in_bulk_from_the_cpi_index() {
+        List<Long> userIds = List.of(1L, 2L);
+        int now = CpiSeries.monthOrdinal(YearMonth.now());
+        CpiSeries cpiSeries = new CpiSeries(Country.US, Indicator.PCPI_IX, now - 12, cpi(100.0, 12, 125.0));
+        InflationRate inflationRate = InflationRate.builder().percentageRate(BigDecimal.valueOf(2)).country(Country.US).build();
+        Account notIndexed = Account.builder().id(3L).amount(Money.of(BigDecimal.valueOf(125))).userId(2L)
+                .date(LocalDateTime.now().minusMonths(12)).build();
+
+        when(cpiIndexStore.series(Country.US, Indicator.PCPI_IX)).thenReturn(Optional.of(cpiSeries));
+        when(accountRepository.updateNetAmountFromIndexByUserIds(BigDecimal.valueOf(0.8), userIds)).thenReturn(2);
+        when(accountRepository.findAllByUserIdInAndAmountIndexedIsNull(userIds)).thenReturn(List.of(notIndexed));
+
+        int updated = accountService.recalculateNetAmountPerUsers(userIds, inflationRate);
+
+        assertEquals(3, updated);
+        assertEquals(Money.of("100.00"), notIndexed.getAmountNet());
+        verify(accountRepository).saveAll(List.of(notIndexed));
+        verify(accountRepository, never()).updateNetAmountByUserIds(any(), any());
+    }
+
+    private static double[] cpi(double first, int months, double last) {
+        double[] values = new double[months + 1];
+        Arrays.fill(values, Double.NaN);
+        values[0] = first;
+        values[months] = last;
+        return values;
+    }
 }
@@ -0,0 +1,95 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import com.ai.demo.finance.exception.ConcurrentUpdateException;
+import com.ai.demo.finance.model.Account;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AccountUpdateExecutorTest {
+
+    private final AccountUpdateExecutor executor = new AccountUpdateExecutor(mock(PlatformTransactionManager.class), 4, 3, 0);
+
+    @Test
+    void should_serialize_updates_of_the_same_account() throws InterruptedException {
+        long[] balances = new long[3];
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 16 * 200; i++) {
+            int account = i % balances.length;
+            threads.execute(() -> executor.execute((long) account, () -> {
+                long read = balances[account];
+                Thread.yield();
+                balances[account] = read + 1;
+                return null;
+            }));
+        }
+        threads.shutdown();
+        assertEquals(true, threads.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertArrayEquals(new long[] {1067, 1067, 1066}, balances);
+    }
+
+    @Test
+    void should_serialize_updates_of_several_accounts_with_those_of_each_account() throws InterruptedException {
+        long[] balances = new long[3];
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 16 * 200; i++) {
+            int account = i % balances.length;
+            threads.execute(() -> executor.execute((long) account, () -> {
+                long read = balances[account];
+                Thread.yield();
+                balances[account] = read + 1;
+                return null;
+            }));
+            threads.execute(() -> executor.execute(List.of(2L, 0L, 1L), () -> {
+                long[] read = balances.clone();
+                Thread.yield();
+                System.arraycopy(read, 0, balances, 0, read.length);
+                return null;
+            }));
+        }
+        threads.shutdown();
+        assertEquals(true, threads.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertArrayEquals(new long[] {1067, 1067, 1066}, balances);
+    }
+
+    @Test
+    void should_retry_conflicts_until_the_update_succeeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, 1L);
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(2, executor.getConflictCount());
+        assertEquals(0, executor.getExhaustedCount());
+    }
+
+    @Test
+    void should_give_up_after_max_attempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> executor.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Account.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, executor.getExhaustedCount());
+    }
+}
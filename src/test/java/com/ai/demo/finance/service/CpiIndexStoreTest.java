@@ -0,0 +1,142 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.external.imf.Observation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+@ExtendWith(MockitoExtension.class)
+class CpiIndexStoreTest {
+
+    private static final double DELTA = 1e-9;
+    private static final int JUNE_2024 = CpiSeries.monthOrdinal(2024, 6);
+    @Mock
+    private RedisTemplate<String, CpiSeries> redisTemplate;
+    @Mock
+    private ValueOperations<String, CpiSeries> valueOperations;
+    private CpiIndexStore cpiIndexStore;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cpiIndexStore = new CpiIndexStore(redisTemplate, new RedisMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void test_inflation_over_the_month_the_year_and_the_year_to_date() {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2023, 6), 100.0);
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2023, 12), 104.0);
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2024, 5), 108.0);
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2024, 6), 110.0);
+        update.commit();
+
+        assertEquals(JUNE_2024, cpiIndexStore.latestMonth(Country.ES, Indicator.PCPI_IX));
+        assertEquals(110.0, cpiIndexStore.index(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+        assertEquals((110.0 / 108.0 - 1) * 100, cpiIndexStore.monthOverMonth(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+        assertEquals(10.0, cpiIndexStore.yearOverYear(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+        assertEquals((110.0 / 104.0 - 1) * 100, cpiIndexStore.yearToDate(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+        assertEquals((108.0 / 104.0 - 1) * 100,
+                cpiIndexStore.change(Country.ES, Indicator.PCPI_IX, CpiSeries.monthOrdinal(2023, 12), CpiSeries.monthOrdinal(2024, 5)), DELTA);
+    }
+
+    @Test
+    void test_unknown_months_and_series_give_nan() {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2024, 6), 110.0);
+        update.commit();
+
+        assertTrue(Double.isNaN(cpiIndexStore.monthOverMonth(Country.ES, Indicator.PCPI_IX, JUNE_2024)));
+        assertTrue(Double.isNaN(cpiIndexStore.monthOverMonth(Country.BR, Indicator.PCPI_IX, JUNE_2024)));
+        assertEquals(-1, cpiIndexStore.latestMonth(Country.US, Indicator.PCPI_IX));
+    }
+
+    @Test
+    void test_real_value_factor_carries_the_index_over_missing_months() {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2023, 6), 100.0);
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2023, 12), 104.0);
+        update.record(Country.ES, Indicator.PCPI_IX, YearMonth.of(2024, 6), 110.0);
+        update.commit();
+
+        int june2023 = CpiSeries.monthOrdinal(2023, 6);
+        assertEquals(100.0 / 110.0, cpiIndexStore.realValueFactor(Country.ES, Indicator.PCPI_IX, june2023, JUNE_2024), DELTA);
+        assertEquals(104.0 / 110.0, cpiIndexStore.realValueFactor(Country.ES, Indicator.PCPI_IX, june2023 + 8, JUNE_2024), DELTA);
+        assertEquals(100.0 / 110.0, cpiIndexStore.realValueFactor(Country.ES, Indicator.PCPI_IX, june2023 - 30, JUNE_2024 + 3), DELTA);
+        assertTrue(Double.isNaN(cpiIndexStore.realValueFactor(Country.BR, Indicator.PCPI_IX, june2023, JUNE_2024)));
+    }
+
+    @Test
+    void test_updates_are_merged_into_the_stored_series() {
+        CpiIndexStore.Update history = cpiIndexStore.newUpdate();
+        history.accept(new Observation(Country.BR, Indicator.PCPI_IX, "2024-04", new BigDecimal("100")));
+        history.accept(new Observation(Country.BR, Indicator.PCPI_IX, "2024-05", new BigDecimal("101")));
+        history.commit();
+        CpiIndexStore.Update latest = cpiIndexStore.newUpdate();
+        latest.accept(new Observation(Country.BR, Indicator.PCPI_IX, "2024-06", new BigDecimal("103")));
+        latest.accept(new Observation(Country.BR, Indicator.PCPI_IX, "2024-01", new BigDecimal("99")));
+        latest.commit();
+
+        assertEquals(3.0, cpiIndexStore.change(Country.BR, Indicator.PCPI_IX, JUNE_2024 - 2, JUNE_2024), DELTA);
+        assertEquals(99.0, cpiIndexStore.index(Country.BR, Indicator.PCPI_IX, JUNE_2024 - 5), DELTA);
+        assertTrue(Double.isNaN(cpiIndexStore.index(Country.BR, Indicator.PCPI_IX, JUNE_2024 - 3)));
+    }
+
+    @Test
+    void test_commit_writes_the_series_to_redis_and_notifies_the_other_instances() {
+        CpiIndexStore.Update update = cpiIndexStore.newUpdate();
+        update.record(Country.US, Indicator.PCPI_IX, YearMonth.of(2024, 6), 313.0);
+        update.commit();
+
+        ArgumentCaptor<CpiSeries> captor = ArgumentCaptor.forClass(CpiSeries.class);
+        verify(valueOperations).set(eq("CPI|US|PCPI_IX"), captor.capture());
+        assertEquals(313.0, captor.getValue().valueAt(JUNE_2024), DELTA);
+        verify(redisTemplate).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void test_load_and_reload_series_from_redis() {
+        CpiSeries spain = new CpiSeries(Country.ES, Indicator.PCPI_IX, JUNE_2024 - 1, new double[] {100.0, 101.0});
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            CpiSeries[] values = new CpiSeries[invocation.<List<String>>getArgument(0).size()];
+            values[0] = spain;
+            return Arrays.asList(values);
+        });
+
+        cpiIndexStore.load();
+
+        assertEquals(1.0, cpiIndexStore.monthOverMonth(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+
+        when(valueOperations.get("CPI|ES|PCPI_IX"))
+                .thenReturn(new CpiSeries(Country.ES, Indicator.PCPI_IX, JUNE_2024 - 1, new double[] {100.0, 102.0}));
+        cpiIndexStore.onMessage(new DefaultMessage(CpiIndexStore.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "CPI|ES|PCPI_IX".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(2.0, cpiIndexStore.monthOverMonth(Country.ES, Indicator.PCPI_IX, JUNE_2024), DELTA);
+    }
+}
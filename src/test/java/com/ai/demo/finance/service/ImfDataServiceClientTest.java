@@ -0,0 +1,172 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ai.demo.finance.config.ImfWebClientConfig;
+import com.ai.demo.finance.config.ObjectMapperConfig;
+import com.ai.demo.finance.model.cache.CpiSeries;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.external.imf.Observation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+class ImfDataServiceClientTest {
+
+    private static final Consumer<Observation> IGNORED = observation -> {
+    };
+
+    private ImfDataServiceStub imfDataServiceStub;
+    private ImfDataServiceClient imfDataServiceClient;
+    private ImfClientStats imfClientStats;
+    private ConnectionProvider connectionProvider;
+    private WebClient imfWebClient;
+    private CpiIndexStore cpiIndexStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cpiIndexStore = mock(CpiIndexStore.class);
+        when(cpiIndexStore.series(any(), eq(Indicator.PCPI_IX)))
+                .thenReturn(Optional.of(new CpiSeries(Country.ES, Indicator.PCPI_IX, 0, new double[] {100.0})));
+        imfDataServiceStub = new ImfDataServiceStub("/examples/imf-dataservice-response-example.json");
+        WebClient.Builder builder = WebClient.builder()
+                .codecs(configurer -> configurer.defaultCodecs()
+                        .jackson2JsonDecoder(new Jackson2JsonDecoder(new ObjectMapperConfig().objectMapper())));
+        ImfWebClientConfig imfWebClientConfig = new ImfWebClientConfig();
+        imfClientStats = new ImfClientStats();
+        connectionProvider = imfWebClientConfig.imfConnectionProvider(2, 30000, 5000);
+        imfWebClient = imfWebClientConfig.imfWebClient(builder, connectionProvider, imfClientStats, imfDataServiceStub.baseUrl(), 5000);
+        imfDataServiceClient = new ImfDataServiceClient(imfWebClient, imfClientStats, cpiIndexStore, 256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        imfDataServiceStub.close();
+    }
+
+    @Test
+    void test_fetch_single_country_series() {
+        List<Observation> observations = new ArrayList<>();
+
+        List<Country> countries = imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, observations::add)
+                .collectList().block();
+
+        Assertions.assertThat(countries).containsExactly(Country.ES);
+        Assertions.assertThat(observations).extracting(Observation::timePeriod)
+                .containsExactly("2024-01", "2024-02", "2024-03", "2024-04", "2024-05", "2024-06");
+        assertEquals("/IFS/M.ES.PCPI_IX", imfDataServiceStub.requests().get(0).getRawPath());
+        assertEquals("startPeriod=2024&endPeriod=2024", imfDataServiceStub.requests().get(0).getRawQuery());
+    }
+
+    @Test
+    void test_fetch_several_countries_in_one_request() {
+        imfDataServiceStub.respondWith("/json/ifs-multi-country-response.json");
+        List<Observation> observations = new ArrayList<>();
+
+        List<Country> countries = imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.values()), 2023, 2024, observations::add)
+                .collectList().block();
+
+        Assertions.assertThat(countries).containsExactlyInAnyOrder(Country.ES, Country.US, Country.BR);
+        Assertions.assertThat(imfDataServiceStub.requests()).hasSize(1);
+        Assertions.assertThat(observations).hasSize(18);
+        assertEquals("/IFS/M.ES+US+BR.PCPI_IX", imfDataServiceStub.requests().get(0).getRawPath());
+    }
+
+    @Test
+    void test_requests_and_decodes_gzip_bodies() {
+        List<Country> countries = imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, IGNORED)
+                .collectList().block();
+
+        Assertions.assertThat(countries).hasSize(1);
+        Assertions.assertThat(imfDataServiceStub.requestHeaders().get(0).getFirst("Accept-Encoding")).contains("gzip");
+        Assertions.assertThat(imfClientStats.getBytesReceived()).isPositive();
+        Assertions.assertThat(imfClientStats.getBytesSent()).isPositive();
+    }
+
+    @Test
+    void test_unchanged_series_are_revalidated_with_their_etag() {
+        imfDataServiceStub.respondWithETag("\"v1\"");
+
+        List<Observation> observations = new ArrayList<>();
+
+        imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, observations::add).collectList().block();
+        List<Country> second = imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, observations::add)
+                .collectList().block();
+
+        Assertions.assertThat(second).containsExactly(Country.ES);
+        Assertions.assertThat(observations).hasSize(6);
+        assertEquals("\"v1\"", imfDataServiceStub.requestHeaders().get(1).getFirst("If-None-Match"));
+        assertEquals(1, imfClientStats.getNotModifiedCount());
+        assertEquals(2, imfDataServiceStub.requests().size());
+    }
+
+    @Test
+    void test_series_missing_from_the_index_store_are_fetched_in_full() {
+        imfDataServiceStub.respondWithETag("\"v1\"");
+        List<Observation> observations = new ArrayList<>();
+
+        imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, observations::add).collectList().block();
+        when(cpiIndexStore.series(Country.ES, Indicator.PCPI_IX)).thenReturn(Optional.empty());
+        List<Country> second = imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, observations::add)
+                .collectList().block();
+
+        Assertions.assertThat(second).containsExactly(Country.ES);
+        Assertions.assertThat(observations).hasSize(12);
+        Assertions.assertThat(imfDataServiceStub.requestHeaders().get(1).getFirst("If-None-Match")).isNull();
+        assertEquals(0, imfClientStats.getNotModifiedCount());
+    }
+
+    @Test
+    void test_least_recently_requested_response_is_dropped_first() {
+        imfDataServiceStub.respondWithETag("\"v1\"");
+        ImfDataServiceClient client = new ImfDataServiceClient(imfWebClient, imfClientStats, cpiIndexStore, 2);
+
+        for (int year : List.of(2022, 2023, 2022, 2024, 2022, 2023)) {
+            client.fetchMonthlyInflationRates(List.of(Country.ES), year, year, IGNORED).collectList().block();
+        }
+
+        Assertions.assertThat(imfDataServiceStub.requestHeaders())
+                .extracting(headers -> headers.getFirst("If-None-Match"))
+                .containsExactly(null, null, "\"v1\"", null, "\"v1\"", null);
+    }
+
+    @Test
+    void test_connection_pool_publishes_its_leases() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            imfDataServiceClient.fetchMonthlyInflationRates(List.of(Country.ES), 2024, 2024, IGNORED).collectList().block();
+
+            Gauge total = registry.find("reactor.netty.connection.provider.total.connections").tag("name", "imf").gauge();
+            Assertions.assertThat(total).isNotNull();
+            assertEquals(1.0, total.value());
+            Assertions.assertThat(registry.find("reactor.netty.connection.provider.active.connections").tag("name", "imf")
+                    .gauge()).isNotNull();
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void test_generate_multi_reference_area_key() {
+        assertEquals("M.ES+BR.PCPI_IX", ImfDataServiceClient.generateKey(List.of(Country.ES, Country.BR)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ai.demo.finance.service;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the IMF CompactData API. Answers every request with the given
+ * classpath resource, gzipped when the client accepts it, and records the requested
+ * URIs and headers. With an ETag set, a request revalidating it gets a 304.
+ */
+class ImfDataServiceStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<URI> requests = new CopyOnWriteArrayList<>();
+    private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+    private volatile String responseResource;
+    private volatile String eTag;
+
+    ImfDataServiceStub(String responseResource) throws IOException {
+        this.responseResource = responseResource;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI());
+            requestHeaders.add(exchange.getRequestHeaders());
+            exchange.getRequestBody().readAllBytes();
+            if (eTag != null) {
+                exchange.getResponseHeaders().add("ETag", eTag);
+                if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+            }
+
+            byte[] body = readResource(this.responseResource);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/IFS";
+    }
+
+    void respondWith(String responseResource) {
+        this.responseResource = responseResource;
+    }
+
+    void respondWithETag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    List<URI> requests() {
+        return requests;
+    }
+
+    List<Headers> requestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] readResource(String resource) {
+        try (InputStream inputStream = ImfDataServiceStub.class.getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Resource not found: " + resource);
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
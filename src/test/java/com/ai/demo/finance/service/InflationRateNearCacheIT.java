@@ -0,0 +1,80 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.config.RedisConfigForIntegrationTest;
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Runs with the Redis listener the other tests disable, so that an invalidation
+ * published by one instance reaches the near cache of another one.
+ */
+@SpringBootTest(classes = {RedisConfigForIntegrationTest.class}, properties = "redis.listener.enabled=true")
+@DirtiesContext
+class InflationRateNearCacheIT {
+
+    private static final String KEY = "INFLATION|ES|2024-05";
+    private static final InflationRate INFLATION_RATE = new InflationRate(new BigDecimal("0.26"), "2024-05", Country.ES,
+            Indicator.PCPI_IX);
+
+    @Autowired
+    private InflationRateNearCache nearCache;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private JedisConnectionFactory jedisConnectionFactory;
+
+    @Test
+    void invalidation_published_by_one_instance_drops_the_entry_of_another() throws InterruptedException {
+        InflationRateNearCache otherInstance = new InflationRateNearCache(60_000L);
+        CountDownLatch delivered = new CountDownLatch(1);
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            otherInstance.onMessage(message, pattern);
+            delivered.countDown();
+        }, new ChannelTopic(InflationRateNearCache.INVALIDATION_CHANNEL));
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, InflationRate> loader = key -> {
+            loads.incrementAndGet();
+            return INFLATION_RATE;
+        };
+        otherInstance.get(KEY, loader);
+        nearCache.get(KEY, loader);
+        long invalidatedBefore = nearCache.getInvalidationCount();
+
+        // the subscription of the listener just added completes asynchronously
+        for (int attempt = 0; attempt < 50 && delivered.getCount() > 0; attempt++) {
+            try (RedisConnection connection = jedisConnectionFactory.getConnection()) {
+                connection.publish(InflationRateNearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                        KEY.getBytes(StandardCharsets.UTF_8));
+            }
+            delivered.await(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(0, delivered.getCount());
+        assertTrue(otherInstance.getInvalidationCount() >= 1);
+        otherInstance.get(KEY, loader);
+        assertEquals(3, loads.get());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (nearCache.getInvalidationCount() == invalidatedBefore && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertTrue(nearCache.getInvalidationCount() > invalidatedBefore);
+    }
+}
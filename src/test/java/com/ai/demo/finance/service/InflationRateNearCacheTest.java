@@ -0,0 +1,107 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.demo.finance.model.cache.InflationRate;
+import com.ai.demo.finance.model.enums.Country;
+import com.ai.demo.finance.model.external.imf.Indicator;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+class InflationRateNearCacheTest {
+
+    private static final String KEY = "INFLATION|ES|2024-05";
+    private static final InflationRate INFLATION_RATE = new InflationRate(new BigDecimal("0.26"), "2024-05", Country.ES,
+            Indicator.PCPI_IX);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, InflationRate> loader = key -> {
+        loads.incrementAndGet();
+        return INFLATION_RATE;
+    };
+
+    @Test
+    void test_second_lookup_is_answered_locally() {
+        InflationRateNearCache nearCache = new InflationRateNearCache(60_000L);
+
+        assertEquals(Optional.of(INFLATION_RATE), nearCache.get(KEY, loader));
+        assertEquals(Optional.of(INFLATION_RATE), nearCache.get(KEY, loader));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, nearCache.getHitCount());
+        assertEquals(1, nearCache.getMissCount());
+    }
+
+    @Test
+    void test_missing_rate_is_cached() {
+        InflationRateNearCache nearCache = new InflationRateNearCache(60_000L);
+        Function<String, InflationRate> absent = key -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        assertFalse(nearCache.get(KEY, absent).isPresent());
+        assertFalse(nearCache.get(KEY, absent).isPresent());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void test_invalidation_message_drops_entry() {
+        InflationRateNearCache nearCache = new InflationRateNearCache(60_000L);
+        nearCache.get(KEY, loader);
+
+        nearCache.onMessage(new DefaultMessage(InflationRateNearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                KEY.getBytes(StandardCharsets.UTF_8)), null);
+        nearCache.get(KEY, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, nearCache.getInvalidationCount());
+    }
+
+    @Test
+    void test_rate_loaded_before_an_invalidation_is_not_cached() {
+        InflationRateNearCache nearCache = new InflationRateNearCache(60_000L);
+        Function<String, InflationRate> invalidatedWhileLoading = key -> {
+            loads.incrementAndGet();
+            nearCache.invalidate(key);
+            return INFLATION_RATE;
+        };
+
+        assertEquals(Optional.of(INFLATION_RATE), nearCache.get(KEY, invalidatedWhileLoading));
+        nearCache.get(KEY, loader);
+        nearCache.get(KEY, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, nearCache.getHitCount());
+    }
+
+    @Test
+    void test_expired_entry_is_reloaded() throws InterruptedException {
+        InflationRateNearCache nearCache = new InflationRateNearCache(10L);
+        nearCache.get(KEY, loader);
+
+        Thread.sleep(20L);
+        nearCache.get(KEY, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void test_disabled_when_ttl_is_zero() {
+        InflationRateNearCache nearCache = new InflationRateNearCache(0L);
+
+        nearCache.get(KEY, loader);
+        nearCache.get(KEY, loader);
+
+        assertEquals(2, loads.get());
+        assertTrue(nearCache.getSize() == 0);
+    }
+}
@@ -4,28 +4,36 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.ai.demo.finance.config.ObjectMapperConfig;
+import com.ai.demo.finance.event.account.AccountNetAmountBatchEvent;
 import com.ai.demo.finance.event.account.AccountNetAmountPerUserEvent;
-import com.ai.demo.finance.model.User;
+import com.ai.demo.finance.model.cache.CpiSeries;
 import com.ai.demo.finance.model.cache.InflationRate;
 import com.ai.demo.finance.model.cache.InflationRateKeyGenerator;
 import com.ai.demo.finance.model.enums.Country;
-import com.ai.demo.finance.model.external.imf.IFSResponse;
+import com.ai.demo.finance.model.external.imf.CompactDataStreamParser;
 import com.ai.demo.finance.model.external.imf.Indicator;
+import com.ai.demo.finance.model.external.imf.Observation;
 import com.ai.demo.finance.model.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.net.URI;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,29 +44,39 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Flux;
 
 @ExtendWith(MockitoExtension.class)
 class InflationServiceTest {
+    private static final int BATCHES = 2;
     @Mock
-    private RestTemplate restTemplate;
+    private ImfDataServiceClient imfDataServiceClient;
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private RedisTemplate<String, InflationRate> redisTemplate;
     @Mock
+    private ValueOperations<String, InflationRate> valueOperations;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private RedisTemplate<String, CpiSeries> cpiSeriesRedisTemplate;
+    @Mock
     private ApplicationEventPublisher eventPublisher;
     @Mock
+    private OutboxService outboxService;
+    @Mock
     private UserRepository userRepository;
 
+    private final RedisMetrics redisMetrics = new RedisMetrics(new SimpleMeterRegistry());
     private InflationService inflationService;
 
     @BeforeEach
     public void setUp() {
-        inflationService = new InflationService(restTemplate, "http://imf",
-                redisTemplate,
-                eventPublisher, userRepository);
+        // batches are scanned concurrently, deep stubs could hand each one its own mock
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        inflationService = new InflationService(imfDataServiceClient,
+                redisTemplate, new InflationRateNearCache(60_000L), redisMetrics,
+                new CpiIndexStore(cpiSeriesRedisTemplate, redisMetrics), eventPublisher, outboxService, userRepository, false, 100, 2, 2);
     }
 
     // Retrieves the inflation rate for the current month if available in the cache
@@ -120,65 +138,158 @@ class InflationServiceTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void test_repeated_lookups_are_answered_by_the_near_cache() {
+        Country country = Country.US;
+        String key = InflationRateKeyGenerator.generateKey(country, LocalDate.now());
+        InflationRate expectedRate = new InflationRate(BigDecimal.valueOf(2.5), LocalDate.now().toString(), country, Indicator.PCPI_IX);
+
+        when(redisTemplate.opsForValue().get(key)).thenReturn(expectedRate);
+
+        inflationService.fetchLatestMonthlyInflationRateForYearToDate(country);
+        Optional<InflationRate> result = inflationService.fetchLatestMonthlyInflationRateForYearToDate(country);
+
+        assertEquals(Optional.of(expectedRate), result);
+        verify(redisTemplate.opsForValue(), times(1)).get(key);
+    }
+
     // Handles empty IMF data response gracefully
     @Test
     void test_handle_scan_empty_imf_data_response() {
-        when(restTemplate.getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class)))
-                .thenReturn(ResponseEntity.of(Optional.empty()));
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any())).thenReturn(Flux.empty());
 
         inflationService.scan();
 
-        verify(restTemplate, times(Country.values().length))
-                .getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class));
+        verify(imfDataServiceClient, times(BATCHES)).fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any());
         Mockito.verifyNoInteractions(redisTemplate, eventPublisher, userRepository);
     }
 
     @Test
-    void test_handle_scan_publish_retirement_goal_event() throws IOException {
-
-        ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
-        IFSResponse ifsResponse = objectMapper.readValue(
-                InflationServiceTest.class.getResourceAsStream("/json/ifs-valid-response.json"), IFSResponse.class);
+    void test_handle_scan_records_net_amount_events_in_outbox() {
 
-        ArgumentCaptor<AccountNetAmountPerUserEvent> captor = ArgumentCaptor.forClass(
-                AccountNetAmountPerUserEvent.class);
+        ArgumentCaptor<Collection<AccountNetAmountPerUserEvent>> captor = ArgumentCaptor.forClass(Collection.class);
 
-        when(restTemplate.getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class)))
-                .thenReturn(ResponseEntity.of(Optional.of(ifsResponse)));
-        when(userRepository.findAllByCountry(any(), any()))
-                .thenReturn(new PageImpl<>(Arrays.asList(
-                        User.builder().id(98939L).build(),
-                        User.builder().id(1233L).build())));
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any())).thenAnswer(invocation -> readSeries(invocation.getArgument(0), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), eq(0L), any())).thenReturn(List.of(1233L, 98939L));
 
         inflationService.scan();
 
-        verify(restTemplate, times(Country.values().length))
-                .getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class));
-        verify(eventPublisher, times(6)).publishEvent(captor.capture());
+        verify(imfDataServiceClient, times(BATCHES)).fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any());
+        verify(outboxService, times(Country.values().length)).appendScanEvents(captor.capture());
+        Mockito.verifyNoInteractions(eventPublisher);
 
-        List<AccountNetAmountPerUserEvent> allEvents = captor.getAllValues();
+        List<AccountNetAmountPerUserEvent> allEvents = captor.getAllValues().stream().flatMap(Collection::stream).toList();
+        Assertions.assertThat(allEvents).hasSize(Country.values().length * 2);
         Assertions.assertThat(allEvents).extracting("userId").containsOnlyElementsOf(Arrays.asList(98939L, 1233L));
     }
 
     @Test
-    void test_handle_scan_cache_into_redis() throws IOException {
+    void test_handle_scan_publish_one_batch_event_per_keyset_page_in_bulk_mode() {
+        InflationService bulkInflationService = new InflationService(imfDataServiceClient, redisTemplate,
+                new InflationRateNearCache(60_000L), redisMetrics, new CpiIndexStore(cpiSeriesRedisTemplate, redisMetrics),
+                eventPublisher, outboxService, userRepository, true, 2, 2, 2);
+        ArgumentCaptor<AccountNetAmountBatchEvent> captor = ArgumentCaptor.forClass(AccountNetAmountBatchEvent.class);
+
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any())).thenAnswer(invocation -> readSeries(invocation.getArgument(0), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), eq(0L), any())).thenReturn(List.of(1233L, 98939L));
+        when(userRepository.findIdsByCountryAfter(any(), eq(98939L), any())).thenReturn(List.of(100000L));
+
+        bulkInflationService.scan();
+
+        verify(eventPublisher, times(Country.values().length * 2)).publishEvent(captor.capture());
+        verify(userRepository, Mockito.never()).findIdsByCountryAfter(any(), eq(100000L), any());
+        Assertions.assertThat(captor.getAllValues())
+                .allSatisfy(event -> Assertions.assertThat(event.inflationRate()).isNotNull())
+                .extracting(AccountNetAmountBatchEvent::userIds)
+                .containsOnly(List.of(1233L, 98939L), List.of(100000L));
+    }
 
-        ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
-        IFSResponse ifsResponse = objectMapper.readValue(
-                InflationServiceTest.class.getResourceAsStream("/json/ifs-valid-response.json"), IFSResponse.class);
+    @Test
+    void test_handle_scan_cache_into_redis() {
 
-        when(restTemplate.getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class)))
-                .thenReturn(ResponseEntity.of(Optional.of(ifsResponse)));
-        when(userRepository.findAllByCountry(any(), any()))
-                .thenReturn(new PageImpl<>(Arrays.asList(
-                        User.builder().id(98939L).build(),
-                        User.builder().id(1233L).build())));
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any())).thenAnswer(invocation -> readSeries(invocation.getArgument(0), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), eq(0L), any())).thenReturn(List.of(1233L, 98939L));
 
         inflationService.scan();
 
-        verify(restTemplate, times(Country.values().length))
-                .getForEntity(Mockito.any(URI.class), Mockito.eq(IFSResponse.class));
+        verify(imfDataServiceClient, times(BATCHES)).fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any());
         verify(redisTemplate.opsForValue(), times(Country.values().length)).set(anyString(), any(InflationRate.class));
+        verify(redisTemplate, times(Country.values().length)).execute(any(RedisCallback.class));
+    }
+
+    /**
+     * (132.509950998045 / 132.012804931932 - 1) * 100 = 0.3766: rounded once it is a
+     * percentage, not when it is still a ratio, as that published 0.00.
+     */
+    @Test
+    void test_handle_scan_caches_the_month_over_month_rate_of_the_index() {
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> readSeries(invocation.getArgument(0), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), anyLong(), any())).thenReturn(List.of());
+
+        List<InflationService.CountryScanResult> results = inflationService.scan(List.of(Country.ES));
+
+        Assertions.assertThat(results).singleElement().satisfies(result -> {
+            assertTrue(result.succeeded());
+            assertEquals(new BigDecimal("0.38"), result.inflationRate().getPercentageRate());
+            assertEquals("2024-06", result.inflationRate().getPeriod());
+        });
+        verify(valueOperations).set("INFLATION|ES|2024-06", results.get(0).inflationRate());
+    }
+
+    @Test
+    void test_handle_scan_countries_missing_from_the_response_do_not_stop_the_others() {
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> readSeries(invocation.<List<Country>>getArgument(0).stream()
+                        .filter(country -> country != Country.US).toList(), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), anyLong(), any())).thenReturn(List.of());
+
+        List<InflationService.CountryScanResult> results = inflationService.scan(List.of(Country.values()));
+
+        Assertions.assertThat(results).hasSize(Country.values().length);
+        Assertions.assertThat(results).filteredOn(result -> !result.succeeded())
+                .singleElement()
+                .satisfies(result -> {
+                    assertEquals(Country.US, result.country());
+                    assertEquals("no data returned by the IMF", result.error());
+                });
+        verify(redisTemplate.opsForValue(), times(Country.values().length - 1)).set(anyString(), any(InflationRate.class));
+    }
+
+    @Test
+    void test_handle_scan_failure_of_one_batch_does_not_stop_the_others() {
+        when(imfDataServiceClient.fetchMonthlyInflationRates(anyList(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<List<Country>>getArgument(0).contains(Country.US)
+                        ? Flux.error(new IllegalStateException("IMF unavailable"))
+                        : readSeries(invocation.getArgument(0), invocation.getArgument(3)));
+        when(userRepository.findIdsByCountryAfter(any(), anyLong(), any())).thenReturn(List.of());
+
+        List<InflationService.CountryScanResult> results = inflationService.scan(List.of(Country.values()));
+
+        Assertions.assertThat(results).filteredOn(result -> !result.succeeded())
+                .extracting(InflationService.CountryScanResult::country, InflationService.CountryScanResult::error)
+                .containsExactlyInAnyOrder(
+                        Assertions.tuple(Country.ES, "IMF unavailable"),
+                        Assertions.tuple(Country.US, "IMF unavailable"));
+        Assertions.assertThat(results).filteredOn(InflationService.CountryScanResult::succeeded)
+                .extracting(InflationService.CountryScanResult::country)
+                .containsExactly(Country.BR);
+    }
+
+    /**
+     * Hands the observations of the valid response to the consumer as the client would,
+     * once for each country.
+     */
+    private static Flux<Country> readSeries(List<Country> countries, Consumer<Observation> observationConsumer)
+            throws IOException {
+        List<Observation> observations = new ArrayList<>();
+        CompactDataStreamParser.parse(InflationServiceTest.class.getResourceAsStream("/json/ifs-valid-response.json"),
+                observations::add);
+        for (Country country : countries) {
+            observations.forEach(observation -> observationConsumer.accept(new Observation(country, observation.indicator(),
+                    observation.timePeriod(), observation.value())));
+        }
+        return Flux.fromIterable(countries);
     }
 
 }
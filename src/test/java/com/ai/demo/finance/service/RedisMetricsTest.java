@@ -0,0 +1,34 @@
+package com.ai.demo.finance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class RedisMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RedisMetrics redisMetrics = new RedisMetrics(meterRegistry);
+
+    @Test
+    void should_time_each_command_under_its_own_tag() {
+        assertEquals("value", redisMetrics.record("GET", () -> "value"));
+        redisMetrics.record("GET", () -> "value");
+        redisMetrics.record("SET", () -> { });
+
+        assertEquals(2, meterRegistry.get(RedisMetrics.COMMAND_TIMER).tag("command", "GET").timer().count());
+        assertEquals(1, meterRegistry.get(RedisMetrics.COMMAND_TIMER).tag("command", "SET").timer().count());
+    }
+
+    @Test
+    void should_time_reactive_command_from_subscription_until_it_completes_or_fails() {
+        Mono<String> get = redisMetrics.record("GET", Mono.just("value"));
+        assertEquals(0, meterRegistry.find(RedisMetrics.COMMAND_TIMER).timers().size());
+
+        assertEquals("value", get.block());
+        redisMetrics.record("GET", Mono.error(new IllegalStateException("down"))).onErrorResume(e -> Mono.empty()).block();
+
+        assertEquals(2, meterRegistry.get(RedisMetrics.COMMAND_TIMER).tag("command", "GET").timer().count());
+    }
+}
@@ -2,33 +2,46 @@ package com.ai.demo.finance.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.ai.demo.finance.dto.RetirementGoalsDTO;
 import com.ai.demo.finance.exception.InvalidOperationException;
 import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.model.cache.RetirementGoal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 class RetirementGoalServiceTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private RedisTemplate<String, RetirementGoal> redisTemplate;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private ReactiveRedisTemplate<String, RetirementGoal> reactiveRedisTemplate;
     private RetirementGoalService retirementGoalService;
 
     @BeforeEach
     public void setUp() {
-        retirementGoalService = new RetirementGoalService(redisTemplate, 1L);
+        retirementGoalService = new RetirementGoalService(redisTemplate, Optional.of(reactiveRedisTemplate),
+                new RedisMetrics(new SimpleMeterRegistry()), 1L, 3);
     }
 
     // Successfully saves a valid RetirementGoal object to Redis
@@ -76,4 +89,74 @@ class RetirementGoalServiceTest {
         // Act & Assert
         assertThrows(NotFoundResourceException.class, () -> retirementGoalService.getRetirementGoal(userId));
     }
+
+    @Test
+    void test_find_existing_retirement_goal_without_blocking() {
+        RetirementGoal expectedGoal = new RetirementGoal(1L, new BigDecimal("0.15"));
+        when(reactiveRedisTemplate.opsForValue().get("1")).thenReturn(Mono.just(expectedGoal));
+
+        assertEquals(expectedGoal, retirementGoalService.findRetirementGoal(1L).block());
+    }
+
+    @Test
+    void test_find_missing_retirement_goal_without_blocking() {
+        when(reactiveRedisTemplate.opsForValue().get("1")).thenReturn(Mono.empty());
+
+        Mono<RetirementGoal> retirementGoal = retirementGoalService.findRetirementGoal(1L);
+
+        assertThrows(NotFoundResourceException.class, retirementGoal::block);
+    }
+
+    @Test
+    void test_find_retirement_goal_fails_when_reactive_reads_are_disabled() {
+        RetirementGoalService blockingOnly = new RetirementGoalService(redisTemplate, Optional.empty(),
+                new RedisMetrics(new SimpleMeterRegistry()), 1L, 3);
+
+        assertThrows(IllegalStateException.class, () -> blockingOnly.findRetirementGoal(1L).block());
+    }
+
+    @Test
+    void test_save_retirement_goals_in_one_pipeline() {
+        RedisOperations<String, RetirementGoal> operations = mock(RedisOperations.class);
+        ValueOperations<String, RetirementGoal> valueOperations = mock(ValueOperations.class);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<?>>getArgument(0).execute(operations);
+            return List.of();
+        });
+        RetirementGoal first = new RetirementGoal(1L, new BigDecimal("0.15"));
+        RetirementGoal second = new RetirementGoal(2L, new BigDecimal("0.30"));
+
+        retirementGoalService.saveRetirementGoals(List.of(first, second));
+
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(valueOperations).set("1", first, Duration.ofMinutes(1L));
+        verify(valueOperations).set("2", second, Duration.ofMinutes(1L));
+    }
+
+    @Test
+    void test_retrieve_retirement_goals_with_one_mget() {
+        RetirementGoal first = new RetirementGoal(1L, new BigDecimal("0.15"));
+        RetirementGoal third = new RetirementGoal(3L, new BigDecimal("0.45"));
+        when(redisTemplate.opsForValue().multiGet(List.of("1", "2", "3"))).thenReturn(Arrays.asList(first, null, third));
+
+        RetirementGoalsDTO result = retirementGoalService.getRetirementGoals(List.of(1L, 2L, 1L, 3L));
+
+        assertEquals(List.of(first, third), result.goals());
+        assertEquals(List.of(2L), result.missingUserIds());
+    }
+
+    @Test
+    void test_retrieve_retirement_goals_rejects_too_many_ids() {
+        List<Long> userIds = List.of(1L, 2L, 3L, 4L);
+
+        assertThrows(InvalidOperationException.class, () -> retirementGoalService.getRetirementGoals(userIds));
+    }
+
+    @Test
+    void test_retrieve_retirement_goals_rejects_empty_ids() {
+        List<Long> userIds = List.of();
+
+        assertThrows(InvalidOperationException.class, () -> retirementGoalService.getRetirementGoals(userIds));
+    }
 }
@@ -16,6 +16,7 @@ import com.ai.demo.finance.event.EventSource;
 import com.ai.demo.finance.event.retirement.RetirementGoalEvent;
 import com.ai.demo.finance.exception.NotFoundResourceException;
 import com.ai.demo.finance.mapper.RetirementDetailMapper;
+import com.ai.demo.finance.model.Money;
 import com.ai.demo.finance.model.RetirementDetail;
 import com.ai.demo.finance.model.enums.Country;
 import com.ai.demo.finance.model.repository.RetirementRepository;
@@ -25,10 +26,10 @@ import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 public class RetirementServiceTest {
@@ -39,14 +40,14 @@ public class RetirementServiceTest {
     @Mock
     private UserService userService;
     @Mock
-    private ApplicationEventPublisher eventPublisher;
+    private OutboxService outboxService;
     @InjectMocks
     private RetirementService retirementService;
 
     @Test
     void test_create_retirement_detail_success() {
 
-        RetirementDetailDTO dto = new RetirementDetailDTO(1L, new BigDecimal("5000"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
+        RetirementDetailDTO dto = new RetirementDetailDTO(1L, new BigDecimal("5000.00"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
         RetirementDetail entity = MAPPER.toRetirementDetail(dto);
 
         when(retirementRepository.save(any(RetirementDetail.class))).thenReturn(entity);
@@ -76,7 +77,7 @@ public class RetirementServiceTest {
     void test_finding_existing_retirement_detail_by_id() {
         // Prepare
         Long id = 1L;
-        RetirementDetailDTO expectedDetail = new RetirementDetailDTO(1L, new BigDecimal("5000"), LocalDate.now().plusYears(50), LocalDate.now(),
+        RetirementDetailDTO expectedDetail = new RetirementDetailDTO(1L, new BigDecimal("5000.00"), LocalDate.now().plusYears(50), LocalDate.now(),
                 null);
         when(retirementRepository.findById(id)).thenReturn(Optional.of(MAPPER.toRetirementDetail(expectedDetail)));
 
@@ -92,12 +93,12 @@ public class RetirementServiceTest {
     void test_update_retirement_detail_success() {
         // Arrange
         Long id = 1L;
-        RetirementDetailDTO dto = new RetirementDetailDTO(id, new BigDecimal("5000"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
+        RetirementDetailDTO dto = new RetirementDetailDTO(id, new BigDecimal("5000.00"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
         long userId = 39L;
-        RetirementDetail savedRetirementDetail = new RetirementDetail(id, new BigDecimal("5000"), LocalDate.now().plusYears(50), LocalDate.now(),
+        RetirementDetail savedRetirementDetail = new RetirementDetail(id, Money.of("5000"), LocalDate.now().plusYears(50), LocalDate.now(),
                 userId);
 
-        when(retirementRepository.existsById(id)).thenReturn(true);
+        when(retirementRepository.findById(id)).thenReturn(Optional.of(savedRetirementDetail));
         when(retirementRepository.save(any(RetirementDetail.class))).thenReturn(savedRetirementDetail);
 
         // Act
@@ -109,7 +110,10 @@ public class RetirementServiceTest {
         assertEquals(dto.incomePerMonthDesired(), result.incomePerMonthDesired());
         assertEquals(dto.lifeExpectation(), result.lifeExpectation());
         assertEquals(dto.retirementDate(), result.retirementDate());
-        verify(eventPublisher).publishEvent(new RetirementGoalEvent(userId, EventSource.RETIREMENT_UPDATE));
+        ArgumentCaptor<RetirementDetail> saved = ArgumentCaptor.forClass(RetirementDetail.class);
+        verify(retirementRepository).save(saved.capture());
+        assertEquals(userId, saved.getValue().getUserId());
+        verify(outboxService).append(new RetirementGoalEvent(userId, EventSource.RETIREMENT_UPDATE));
     }
 
     // Throws NotFoundResourceException when the ID does not exist
@@ -117,9 +121,9 @@ public class RetirementServiceTest {
     void test_update_retirement_detail_not_found() {
         // Arrange
         Long id = 1L;
-        RetirementDetailDTO dto = new RetirementDetailDTO(id, new BigDecimal("5000"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
+        RetirementDetailDTO dto = new RetirementDetailDTO(id, new BigDecimal("5000.00"), LocalDate.now().plusYears(50), LocalDate.now(), "user");
 
-        when(retirementRepository.existsById(id)).thenReturn(false);
+        when(retirementRepository.findById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NotFoundResourceException.class, () -> retirementService.updateRetirementDetail(id, dto));